@@ -0,0 +1,23 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Services for one trial on the chosen backend; benchmark states extend this with their own data. */
+@State(Scope.Benchmark)
+public abstract class BackendState {
+
+    @Param({"memory", "mongo"})
+    public String backend;
+
+    Services services;
+
+    @Setup(Level.Trial)
+    public void openServices() {
+        services = Services.open(backend);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeServices() {
+        services.close();
+    }
+}
@@ -0,0 +1,95 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work a cascade worker does for one user, which UserServiceBenchmark
+ * leaves out: CascadeJobService.run from claim to COMPLETED, flipping every
+ * post of the user in chunks with a checkpoint and counter $inc per chunk.
+ *
+ * Each invocation takes the next user, whose posts the previous run for that
+ * user left in the opposite state. Enqueueing and claiming the job happen in
+ * the per-invocation setup, outside the measurement.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CascadeBenchmark {
+
+    private static final int USERS = 20;
+
+    @State(Scope.Benchmark)
+    public static class CascadeState extends BackendState {
+
+        @Param({"100", "1000", "10000"})
+        public int postsPerUser;
+
+        List<String> userIds;
+        // Per user: whether its posts are currently soft-deleted
+        boolean[] deleted;
+        int next;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            userIds = services.seedUsers(USERS, postsPerUser, 1);
+            deleted = new boolean[USERS];
+        }
+
+        // Brings the next user's posts into the state the measured cascade starts from
+        CascadeJob claim(CascadeJob.Type type) {
+            int user = next++ % USERS;
+            boolean wantDeleted = type == CascadeJob.Type.RESTORE;
+            if (deleted[user] != wantDeleted) {
+                run(user, wantDeleted ? CascadeJob.Type.SOFT_DELETE : CascadeJob.Type.RESTORE);
+            }
+            deleted[user] = !wantDeleted;
+            return enqueueAndClaim(user, type);
+        }
+
+        private void run(int user, CascadeJob.Type type) {
+            services.cascades.run(enqueueAndClaim(user, type));
+        }
+
+        private CascadeJob enqueueAndClaim(int user, CascadeJob.Type type) {
+            services.cascades.enqueue(userIds.get(user), type, Instant.now());
+            return services.cascades.claimNext().orElseThrow();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SoftDeleteJob {
+        CascadeJob job;
+
+        @Setup(Level.Invocation)
+        public void claim(CascadeState state) {
+            job = state.claim(CascadeJob.Type.SOFT_DELETE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RestoreJob {
+        CascadeJob job;
+
+        @Setup(Level.Invocation)
+        public void claim(CascadeState state) {
+            job = state.claim(CascadeJob.Type.RESTORE);
+        }
+    }
+
+    @Benchmark
+    public void softDelete(CascadeState state, SoftDeleteJob job) {
+        state.services.cascades.run(job.job);
+    }
+
+    @Benchmark
+    public void restore(CascadeState state, RestoreJob job) {
+        state.services.cascades.run(job.job);
+    }
+}
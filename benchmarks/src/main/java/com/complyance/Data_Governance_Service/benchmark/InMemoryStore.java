@@ -0,0 +1,404 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.model.*;
+import com.complyance.Data_Governance_Service.repository.*;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.Pair;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Hash-map backed stand-ins for the repositories, implementing just the
+ * methods the benchmarked service calls reach. Each repository is a dynamic
+ * proxy; any other method throws. The proxy costs an argument array and a
+ * switch per call, the same on every run, so it does not hide regressions
+ * in the service code above it.
+ */
+@SuppressWarnings("unchecked")
+final class InMemoryStore {
+
+    private static final Object UNSUPPORTED = new Object();
+
+    private final Map<String, UserProfile> users = new ConcurrentHashMap<>();
+    private final Map<String, List<Post>> postsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Post> postsById = new ConcurrentHashMap<>();
+    private final Map<String, UserPreference> preferences = new ConcurrentHashMap<>();
+    private final Map<String, CascadeJob> activeJobs = new ConcurrentHashMap<>();
+    // Only each user's open bucket is kept; closed buckets are never read by the benchmarks
+    private final Map<String, List<AuditEntry>> openBuckets = new ConcurrentHashMap<>();
+
+    UserRepository users() {
+        return proxy(UserRepository.class, (method, args) -> switch (method) {
+            case "save" -> saveUser((UserProfile) args[0]);
+            case "findById" -> Optional.ofNullable(users.get((String) args[0]));
+            case "findByIdAndDeletedFalse" -> Optional.ofNullable(users.get((String) args[0])).filter(u -> !u.isDeleted());
+            case "existsByIdAndDeletedFalse" -> liveUser((String) args[0]) != null;
+            case "updateLive" -> updateLive((String) args[0], (Long) args[1], (Update) args[2]);
+            case "markDeleted" -> markDeleted((String) args[0], (Instant) args[1], true);
+            case "markRestored" -> markDeleted((String) args[0], (Instant) args[1], false);
+            case "incrementPostCounts" -> incrementPostCounts((String) args[0], (long) args[1], (long) args[2]);
+            case "findPostCountsById" -> Optional.ofNullable(users.get((String) args[0])).map(InMemoryStore::copy);
+            case "findAllByDeletedFalse" -> userPage((Pageable) args[0], InMemoryStore::summary);
+            case "findAll" -> userPage((Pageable) args[0], InMemoryStore::copy);
+            default -> UNSUPPORTED;
+        });
+    }
+
+    PostRepository posts() {
+        return proxy(PostRepository.class, (method, args) -> switch (method) {
+            case "saveAll" -> savePosts((Iterable<Post>) args[0]);
+            case "findByUserIdAndDeletedFalse" -> livePosts((String) args[0], (Pageable) args[1]);
+            case "findActiveSummariesByUser" -> activeSummaries((String) args[0], (Pageable) args[1],
+                    args.length > 2 ? (LongSupplier) args[2] : null);
+            case "findIdChunk" -> idChunk((String) args[0], (Boolean) args[1], (String) args[2], (int) args[3]);
+            case "softDeleteByIds" -> setDeleted((List<String>) args[0], (Instant) args[1], true);
+            case "restoreByIds" -> setDeleted((List<String>) args[0], (Instant) args[1], false);
+            case "countByUserIdAndDeleted" -> postsByUser.getOrDefault((String) args[0], List.of()).stream()
+                    .filter(p -> p.isDeleted() == (boolean) args[1]).count();
+            default -> UNSUPPORTED;
+        });
+    }
+
+    UserPreferenceRepository preferences() {
+        return proxy(UserPreferenceRepository.class, (method, args) -> switch (method) {
+            case "findByUserId" -> Optional.ofNullable(preferences.get((String) args[0]));
+            case "upsertLive" -> upsertPreferences((String) args[0], (UserPreference) args[1], (Instant) args[2]);
+            case "softDeleteByUserId" -> softDeletePreferences((String) args[0], (Instant) args[1]);
+            default -> UNSUPPORTED;
+        });
+    }
+
+    CascadeJobRepository jobs() {
+        return proxy(CascadeJobRepository.class, (method, args) -> switch (method) {
+            case "existsByUserIdAndActiveTrue" -> activeJobs.containsKey((String) args[0]);
+            case "insert" -> insertJob((CascadeJob) args[0]);
+            case "claimNext" -> claimNext((String) args[0], (Instant) args[1], (Instant) args[2]);
+            case "checkpoint" -> owned((String) args[0], (String) args[1]).map(job -> {
+                job.setLastProcessedId((String) args[2]);
+                job.setProcessed(job.getProcessed() + (long) args[3]);
+                job.setChunksCompleted(job.getChunksCompleted() + 1);
+                job.setLeaseExpiresAt((Instant) args[4]);
+                return true;
+            }).orElse(false);
+            case "setEstimatedTotal" -> owned((String) args[0], (String) args[1]).map(job -> {
+                job.setEstimatedTotal((long) args[2]);
+                return true;
+            }).orElse(false);
+            case "complete" -> {
+                owned((String) args[0], (String) args[1]).ifPresent(job -> {
+                    job.setStatus((CascadeJob.Status) args[2]);
+                    job.setActive(false);
+                    job.setError((String) args[3]);
+                    activeJobs.remove(job.getUserId(), job);
+                });
+                yield null;
+            }
+            case "release" -> {
+                owned((String) args[0], (String) args[1]).ifPresent(job -> {
+                    job.setStatus(CascadeJob.Status.PENDING);
+                    job.setError((String) args[2]);
+                    job.setOwner(null);
+                });
+                yield null;
+            }
+            default -> UNSUPPORTED;
+        });
+    }
+
+    AuditBucketRepository audit() {
+        return proxy(AuditBucketRepository.class, (method, args) -> switch (method) {
+            case "append" -> {
+                append((String) args[0], (AuditEntry) args[1], (int) args[3]);
+                yield null;
+            }
+            case "appendAll" -> {
+                for (Pair<String, AuditEntry> pair : (List<Pair<String, AuditEntry>>) args[0]) {
+                    append(pair.getFirst(), pair.getSecond(), (int) args[2]);
+                }
+                yield null;
+            }
+            default -> UNSUPPORTED;
+        });
+    }
+
+    private UserProfile saveUser(UserProfile user) {
+        if (user.getId() == null) user.setId(new ObjectId().toHexString());
+        if (user.getVersion() == null) user.setVersion(0L);
+        users.put(user.getId(), user);
+        return user;
+    }
+
+    // The (_id, deleted) document LiveUserIndex reads to confirm a user before a write, or null
+    Document deletedFlag(String id) {
+        UserProfile user = users.get(id);
+        return user != null ? new Document("_id", id).append("deleted", user.isDeleted()) : null;
+    }
+
+    private UserProfile liveUser(String id) {
+        UserProfile user = users.get(id);
+        return user != null && !user.isDeleted() ? user : null;
+    }
+
+    // Same contract as the findAndModify: $set on a live (and matching version) user, returns the old state
+    private Optional<UserProfile> updateLive(String id, Long expectedVersion, Update update) {
+        UserProfile current = liveUser(id);
+        if (current == null || (expectedVersion != null && !expectedVersion.equals(current.getVersion()))) {
+            return Optional.empty();
+        }
+        UserProfile previous = copy(current);
+        Document set = (Document) update.getUpdateObject().get("$set");
+        set.forEach((field, value) -> {
+            switch (field) {
+                case "name" -> current.setName((String) value);
+                case "email" -> current.setEmail((String) value);
+                case "username" -> current.setUsername((String) value);
+                case "roles" -> current.setRoles((List<String>) value);
+                case "status" -> current.setStatus((String) value);
+                case "updatedAt" -> current.setUpdatedAt((Instant) value);
+                default -> throw new UnsupportedOperationException("$set " + field);
+            }
+        });
+        current.setVersion(current.getVersion() + 1);
+        return Optional.of(previous);
+    }
+
+    private long markDeleted(String id, Instant at, boolean deleted) {
+        UserProfile user = users.get(id);
+        if (user == null || user.isDeleted() == deleted) return 0;
+        user.setDeleted(deleted);
+        user.setDeletedAt(deleted ? at : null);
+        user.setUpdatedAt(at);
+        user.setVersion(user.getVersion() + 1);
+        return 1;
+    }
+
+    // Same contract as the $inc: users without counters are left alone
+    private synchronized long incrementPostCounts(String id, long liveDelta, long deletedDelta) {
+        UserProfile user = users.get(id);
+        if (user == null || user.getLivePostCount() == null) return 0;
+        user.setLivePostCount(user.getLivePostCount() + liveDelta);
+        user.setDeletedPostCount(user.getDeletedPostCount() + deletedDelta);
+        return 1;
+    }
+
+    private List<Post> savePosts(Iterable<Post> posts) {
+        List<Post> saved = new ArrayList<>();
+        for (Post post : posts) {
+            if (post.getId() == null) post.setId(new ObjectId().toHexString());
+            postsByUser.computeIfAbsent(post.getUserId(), u -> Collections.synchronizedList(new ArrayList<>())).add(post);
+            postsById.put(post.getId(), post);
+            saved.add(post);
+        }
+        return saved;
+    }
+
+    // Posts are saved with fresh ObjectIds, so each user's list is already in _id order;
+    // the chunk resumes after a binary search rather than a rescan, as the _id index would
+    private List<String> idChunk(String userId, Boolean deleted, String afterId, int limit) {
+        List<Post> posts = postsByUser.getOrDefault(userId, List.of());
+        int from = 0;
+        if (afterId != null) {
+            int lo = 0, hi = posts.size();
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (posts.get(mid).getId().compareTo(afterId) <= 0) lo = mid + 1; else hi = mid;
+            }
+            from = lo;
+        }
+        List<String> ids = new ArrayList<>(limit);
+        for (int i = from; i < posts.size() && ids.size() < limit; i++) {
+            Post post = posts.get(i);
+            if (deleted == null || post.isDeleted() == deleted) ids.add(post.getId());
+        }
+        return ids;
+    }
+
+    // Same filter as the updateMulti: only posts not already in the target state change
+    private long setDeleted(List<String> ids, Instant at, boolean deleted) {
+        long modified = 0;
+        for (String id : ids) {
+            Post post = postsById.get(id);
+            if (post == null || post.isDeleted() == deleted) continue;
+            post.setDeleted(deleted);
+            post.setDeletedAt(deleted ? at : null);
+            post.setUpdatedAt(at);
+            modified++;
+        }
+        return modified;
+    }
+
+    // Live users in createdAt order, each mapped the way the query projects it
+    private <T> Page<T> userPage(Pageable pageable, Function<UserProfile, T> projection) {
+        List<UserProfile> live = users.values().stream()
+                .filter(u -> !u.isDeleted())
+                .sorted(Comparator.comparing(UserProfile::getCreatedAt).thenComparing(UserProfile::getId))
+                .toList();
+        int from = (int) Math.min(pageable.getOffset(), live.size());
+        int to = Math.min(from + pageable.getPageSize(), live.size());
+        return PageableExecutionUtils.getPage(live.subList(from, to).stream().map(projection).toList(), pageable,
+                live::size);
+    }
+
+    // Filter, sort and slice the way the Mongo query does
+    private List<Post> sortedLive(String userId, Pageable pageable) {
+        List<Post> live = new ArrayList<>(postsByUser.getOrDefault(userId, List.of()).stream()
+                .filter(p -> !p.isDeleted()).toList());
+        Comparator<Post> order = null;
+        for (Sort.Order o : pageable.getSort()) {
+            Comparator<Post> next = switch (o.getProperty()) {
+                case "updatedAt" -> Comparator.comparing(Post::getUpdatedAt);
+                case "title" -> Comparator.comparing(Post::getTitle);
+                default -> Comparator.comparing(Post::getCreatedAt);
+            };
+            if (o.isDescending()) next = next.reversed();
+            order = order == null ? next : order.thenComparing(next);
+        }
+        if (order != null) live.sort(order);
+        return live;
+    }
+
+    private Page<Post> livePosts(String userId, Pageable pageable) {
+        List<Post> live = sortedLive(userId, pageable);
+        int from = (int) Math.min(pageable.getOffset(), live.size());
+        int to = Math.min(from + pageable.getPageSize(), live.size());
+        return PageableExecutionUtils.getPage(new ArrayList<>(live.subList(from, to)), pageable, live::size);
+    }
+
+    // Same, with the excerpt projection
+    private Page<PostSummary> activeSummaries(String userId, Pageable pageable, LongSupplier liveCount) {
+        List<Post> live = sortedLive(userId, pageable);
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), live.size()) : 0;
+        int to = pageable.isPaged() ? Math.min(from + pageable.getPageSize(), live.size()) : live.size();
+        List<PostSummary> content = live.subList(from, to).stream()
+                .map(p -> PostSummary.builder()
+                        .id(p.getId())
+                        .userId(p.getUserId())
+                        .title(p.getTitle())
+                        .excerpt(p.getContent() == null ? null
+                                : p.getContent().substring(0, Math.min(p.getContent().length(), PostSummary.EXCERPT_LENGTH)))
+                        .createdAt(p.getCreatedAt())
+                        .updatedAt(p.getUpdatedAt())
+                        .build())
+                .toList();
+        return PageableExecutionUtils.getPage(content, pageable,
+                liveCount != null ? liveCount : () -> live.size());
+    }
+
+    private UserPreference upsertPreferences(String userId, UserPreference values, Instant now) {
+        UserPreference stored = preferences.computeIfAbsent(userId, id -> UserPreference.builder()
+                .id(new ObjectId().toHexString()).userId(id).createdAt(now).build());
+        if (stored.isDeleted()) {
+            throw new DuplicateKeyException("E11000 duplicate key error index: userId");
+        }
+        stored.setTheme(values.getTheme());
+        stored.setLanguage(values.getLanguage());
+        stored.setNotificationsEnabled(values.isNotificationsEnabled());
+        stored.setUpdatedAt(now);
+        return copy(stored);
+    }
+
+    private long softDeletePreferences(String userId, Instant at) {
+        UserPreference stored = preferences.get(userId);
+        if (stored == null || stored.isDeleted()) return 0;
+        stored.setDeleted(true);
+        stored.setDeletedAt(at);
+        stored.setUpdatedAt(at);
+        return 1;
+    }
+
+    private CascadeJob insertJob(CascadeJob job) {
+        job.setId(new ObjectId().toHexString());
+        if (activeJobs.putIfAbsent(job.getUserId(), job) != null) {
+            throw new DuplicateKeyException("E11000 duplicate key error index: active_job_per_user");
+        }
+        return job;
+    }
+
+    private synchronized Optional<CascadeJob> claimNext(String owner, Instant now, Instant leaseExpiresAt) {
+        Optional<CascadeJob> next = activeJobs.values().stream()
+                .filter(job -> job.getStatus() == CascadeJob.Status.PENDING
+                        || (job.getStatus() == CascadeJob.Status.RUNNING && job.getLeaseExpiresAt().isBefore(now)))
+                .min(Comparator.comparing(CascadeJob::getCreatedAt));
+        next.ifPresent(job -> {
+            job.setStatus(CascadeJob.Status.RUNNING);
+            job.setOwner(owner);
+            job.setLeaseExpiresAt(leaseExpiresAt);
+            job.setAttempts(job.getAttempts() + 1);
+            if (job.getStartedAt() == null) job.setStartedAt(now);
+        });
+        return next;
+    }
+
+    // The job with this id while the caller still holds it
+    private Optional<CascadeJob> owned(String jobId, String owner) {
+        return activeJobs.values().stream()
+                .filter(job -> job.getId().equals(jobId) && owner.equals(job.getOwner())
+                        && job.getStatus() == CascadeJob.Status.RUNNING)
+                .findFirst();
+    }
+
+    private void append(String userId, AuditEntry entry, int maxEntries) {
+        openBuckets.compute(userId, (id, bucket) -> {
+            if (bucket == null || bucket.size() >= maxEntries) bucket = new ArrayList<>();
+            bucket.add(entry);
+            return bucket;
+        });
+    }
+
+    private static UserProfile copy(UserProfile user) {
+        return UserProfile.builder()
+                .id(user.getId()).username(user.getUsername()).email(user.getEmail()).name(user.getName())
+                .roles(user.getRoles()).status(user.getStatus()).deleted(user.isDeleted())
+                .createdAt(user.getCreatedAt()).updatedAt(user.getUpdatedAt()).deletedAt(user.getDeletedAt())
+                .version(user.getVersion())
+                .livePostCount(user.getLivePostCount()).deletedPostCount(user.getDeletedPostCount())
+                .build();
+    }
+
+    private static UserSummary summary(UserProfile user) {
+        return UserSummary.builder()
+                .id(user.getId()).username(user.getUsername()).name(user.getName()).email(user.getEmail())
+                .roles(user.getRoles()).status(user.getStatus())
+                .createdAt(user.getCreatedAt()).updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    private static UserPreference copy(UserPreference pref) {
+        return UserPreference.builder()
+                .id(pref.getId()).userId(pref.getUserId()).theme(pref.getTheme()).language(pref.getLanguage())
+                .notificationsEnabled(pref.isNotificationsEnabled()).createdAt(pref.getCreatedAt())
+                .updatedAt(pref.getUpdatedAt()).deleted(pref.isDeleted()).deletedAt(pref.getDeletedAt())
+                .build();
+    }
+
+    // Methods that reach the default branch were not needed by any benchmark when this was written
+    private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> self == args[0];
+                    case "hashCode" -> System.identityHashCode(self);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            Object result = handler.apply(method.getName(), args == null ? new Object[0] : args);
+            if (result == UNSUPPORTED) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return result;
+        });
+    }
+}
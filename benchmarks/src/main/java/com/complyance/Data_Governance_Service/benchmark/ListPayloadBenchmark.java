@@ -0,0 +1,89 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One page of the user and post listings, read and serialized to the JSON
+ * body the controller would send. Each listing is measured as the summary
+ * projection it returns (UserSummary, PostSummary) and as the full documents
+ * it returned before. Sample time gives the p50 / p99 / p99.9 per page.
+ *
+ * The response size does not change between invocations, so it is printed
+ * once per trial ("response bytes ...") rather than measured per call.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ListPayloadBenchmark {
+
+    private static final int USERS = 200;
+    private static final int POSTS_PER_USER = 200;
+
+    @State(Scope.Benchmark)
+    public static class ListingState extends BackendState {
+
+        @Param({"20", "100"})
+        public int pageSize;
+
+        // Same modules and defaults as the application's mapper
+        final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        List<String> userIds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void seed() throws JsonProcessingException {
+            userIds = services.seedUsers(USERS, POSTS_PER_USER, 1);
+            String userId = userIds.getFirst();
+            System.out.printf("%nresponse bytes (page of %d): users summary=%d document=%d, posts summary=%d document=%d%n",
+                    pageSize,
+                    mapper.writeValueAsBytes(services.users.getAllUsersPaged(usersPage())).length,
+                    mapper.writeValueAsBytes(services.userRepository.findAll(usersPage())).length,
+                    mapper.writeValueAsBytes(services.posts.getPostsByUser(userId, 0, pageSize, "createdAt,desc")).length,
+                    mapper.writeValueAsBytes(services.postRepository.findByUserIdAndDeletedFalse(userId, postsPage())).length);
+        }
+
+        PageRequest usersPage() {
+            return PageRequest.of(0, pageSize, Sort.by("createdAt").ascending());
+        }
+
+        PageRequest postsPage() {
+            return PageRequest.of(0, pageSize, Sort.by("createdAt").descending());
+        }
+
+        String nextUser() {
+            return userIds.get(next++ % USERS);
+        }
+    }
+
+    @Benchmark
+    public byte[] userSummaries(ListingState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(state.services.users.getAllUsersPaged(state.usersPage()));
+    }
+
+    @Benchmark
+    public byte[] userDocuments(ListingState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(state.services.userRepository.findAll(state.usersPage()));
+    }
+
+    @Benchmark
+    public byte[] postSummaries(ListingState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(
+                state.services.posts.getPostsByUser(state.nextUser(), 0, state.pageSize, "createdAt,desc"));
+    }
+
+    @Benchmark
+    public byte[] postDocuments(ListingState state) throws JsonProcessingException {
+        return state.mapper.writeValueAsBytes(
+                state.services.postRepository.findByUserIdAndDeletedFalse(state.nextUser(), state.postsPage()));
+    }
+}
@@ -0,0 +1,168 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running service, for comparing request
+ * execution modes: start the service once with VIRTUAL_THREADS=false and
+ * once with VIRTUAL_THREADS=true, and run this against each. Every
+ * connection is a virtual thread that sends its next request as soon as the
+ * previous one answers. The mix is mostly cheap preference reads with some
+ * post pages and audit reads, and it reports throughput, latency percentiles
+ * and 503s (shed by a concurrency limit) per route.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml package exec:java \
+ *     -Dexec.mainClass=com.complyance.Data_Governance_Service.benchmark.LoadTest \
+ *     -Dexec.args="http://localhost:8080 10000 60"
+ * </pre>
+ * Arguments: base URL, concurrent connections (default 10000), duration in
+ * seconds (default 60). The service needs seeded users (POST /api/v1/seed).
+ */
+public final class LoadTest {
+
+    private static final int SAMPLE_USERS = 200;
+    private static final int MAX_LATENCY_MS = 60_000;
+
+    private record Route(String name, int weight, String pathTemplate) { }
+
+    private static final List<Route> MIX = List.of(
+            new Route("GET preferences", 80, "/api/v1/users/%s/preferences"),
+            new Route("GET posts page", 15, "/api/v1/users/%s/posts?page=0&size=20"),
+            new Route("GET audit", 5, "/api/v1/users/%s/audit?size=20"));
+
+    // One histogram per route with 1 ms buckets
+    private static final class Stats {
+        final AtomicLongArray latencyMs = new AtomicLongArray(MAX_LATENCY_MS + 1);
+        final LongAdder ok = new LongAdder();
+        final LongAdder shed = new LongAdder();
+        final LongAdder otherStatus = new LongAdder();
+        final LongAdder failed = new LongAdder();
+
+        void record(long nanos, int status) {
+            latencyMs.incrementAndGet((int) Math.min(MAX_LATENCY_MS, nanos / 1_000_000));
+            if (status / 100 == 2) ok.increment();
+            else if (status == 503) shed.increment();
+            else otherStatus.increment();
+        }
+
+        long percentile(double p) {
+            long total = 0;
+            for (int i = 0; i <= MAX_LATENCY_MS; i++) total += latencyMs.get(i);
+            long rank = (long) Math.ceil(total * p);
+            long seen = 0;
+            for (int i = 0; i <= MAX_LATENCY_MS; i++) {
+                seen += latencyMs.get(i);
+                if (seen >= rank && seen > 0) return i;
+            }
+            return 0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 60);
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(virtualThreads)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            List<String> userIds = prepareUsers(client, base);
+            System.out.printf("Running %d connections against %s for %s over %d users%n",
+                    connections, base, duration, userIds.size());
+
+            Map<Route, Stats> stats = new LinkedHashMap<>();
+            MIX.forEach(route -> stats.put(route, new Stats()));
+            int totalWeight = MIX.stream().mapToInt(Route::weight).sum();
+            long deadline = System.nanoTime() + duration.toNanos();
+
+            try (ExecutorService load = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    load.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        while (System.nanoTime() < deadline) {
+                            Route route = pick(random.nextInt(totalWeight));
+                            String userId = userIds.get(random.nextInt(userIds.size()));
+                            HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create(base + route.pathTemplate().formatted(userId)))
+                                    .timeout(Duration.ofSeconds(30))
+                                    .GET().build();
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                                stats.get(route).record(System.nanoTime() - start, response.statusCode());
+                            } catch (Exception e) {
+                                stats.get(route).failed.increment();
+                            }
+                        }
+                    });
+                }
+            }
+
+            double seconds = duration.toMillis() / 1000.0;
+            System.out.printf("%-16s %10s %10s %8s %8s %8s %8s %8s %8s%n",
+                    "route", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "503", "other", "errors");
+            stats.forEach((route, s) -> {
+                long requests = s.ok.sum() + s.shed.sum() + s.otherStatus.sum();
+                System.out.printf("%-16s %10d %10.0f %8d %8d %8d %8d %8d %8d%n",
+                        route.name(), requests, requests / seconds,
+                        s.percentile(0.50), s.percentile(0.99), s.percentile(0.999),
+                        s.shed.sum(), s.otherStatus.sum(), s.failed.sum());
+            });
+        }
+    }
+
+    private static Route pick(int roll) {
+        for (Route route : MIX) {
+            if (roll < route.weight()) return route;
+            roll -= route.weight();
+        }
+        return MIX.getLast();
+    }
+
+    // A sample of live users, each given preferences so the read path is the normal, cacheable one
+    private static List<String> prepareUsers(HttpClient client, String base) throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        HttpResponse<String> page = client.send(HttpRequest.newBuilder(
+                URI.create(base + "/api/v1/users?limit=" + SAMPLE_USERS)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (page.statusCode() != 200) {
+            throw new IllegalStateException("Listing users failed with " + page.statusCode() + ": " + page.body());
+        }
+
+        List<String> ids = new ArrayList<>();
+        for (JsonNode user : json.readTree(page.body()).path("items")) {
+            ids.add(user.path("id").asText());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No users found; seed some with POST /api/v1/seed first");
+        }
+
+        for (String id : ids) {
+            client.send(HttpRequest.newBuilder(URI.create(base + "/api/v1/users/" + id + "/preferences"))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(
+                                    "{\"theme\":\"dark\",\"language\":\"en\",\"notificationsEnabled\":true}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.discarding());
+        }
+        return ids;
+    }
+}
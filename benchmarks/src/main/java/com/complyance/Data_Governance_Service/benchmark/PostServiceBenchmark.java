@@ -0,0 +1,47 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PostServiceBenchmark {
+
+    private static final int USERS = 20;
+
+    @State(Scope.Benchmark)
+    public static class PostsState extends BackendState {
+
+        @Param({"10", "100", "1000"})
+        public int postsPerUser;
+
+        List<String> userIds;
+        int next;
+
+        @Setup(Level.Trial)
+        public void seed() {
+            userIds = services.seedUsers(USERS, postsPerUser, 1);
+        }
+
+        String nextUser() {
+            return userIds.get(next++ % USERS);
+        }
+    }
+
+    // The paginated path: one page of 20 plus the total count
+    @Benchmark
+    public Object firstPage(PostsState state) {
+        return state.services.posts.getPostsByUser(state.nextUser(), 0, 20, "createdAt,desc");
+    }
+
+    // No page parameters: every live post of the user
+    @Benchmark
+    public Object allPosts(PostsState state) {
+        return state.services.posts.getPostsByUser(state.nextUser(), null, null, "createdAt,asc");
+    }
+}
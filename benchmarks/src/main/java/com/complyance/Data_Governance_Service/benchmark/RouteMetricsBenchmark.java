@@ -0,0 +1,61 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.config.RouteMetrics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of what RouteMetricsFilter adds to every request: two nanoTime calls
+ * and one RouteMetrics.record. Run single-threaded and with 8 threads
+ * hitting the same few routes, the case where a locked histogram would
+ * contend; scrape measures a metrics read over every route.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteMetricsBenchmark {
+
+    private static final String[] ROUTES = {
+            "/api/v1/users/{id}", "/api/v1/users/{userId}/preferences", "/api/v1/users/{userId}/posts",
+            "/api/v1/users/{id}/audit", "/api/v1/posts/{id}"};
+
+    @State(Scope.Benchmark)
+    public static class MetricsState {
+
+        final RouteMetrics metrics = new RouteMetrics();
+
+        @Setup(Level.Trial)
+        public void warmRoutes() {
+            // Routes exist after the first request; the measured path is recording into them
+            for (String route : ROUTES) metrics.record("GET", route, 200, 1_000_000);
+        }
+    }
+
+    private static void request(MetricsState state) {
+        long start = System.nanoTime();
+        String route = ROUTES[ThreadLocalRandom.current().nextInt(ROUTES.length)];
+        state.metrics.record("GET", route, 200, System.nanoTime() - start);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void record(MetricsState state) {
+        request(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void recordContended(MetricsState state) {
+        request(state);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object scrape(MetricsState state) {
+        return state.metrics.prometheus();
+    }
+}
@@ -0,0 +1,196 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.DataGovernanceServiceApplication;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.IndexCatalog;
+import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import com.complyance.Data_Governance_Service.service.*;
+import org.bson.Document;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.Pair;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The services under test, wired one of two ways:
+ * <ul>
+ *   <li>{@code memory}: constructed by hand on top of {@link InMemoryStore}, so only service code is measured</li>
+ *   <li>{@code mongo}: the real application context against the mongod at {@code benchmark.mongo.uri},
+ *       with background workers off and the database dropped at the start of each trial</li>
+ * </ul>
+ * Seeding goes through the same services and repositories either way.
+ */
+final class Services implements AutoCloseable {
+
+    static final String MONGO_URI = System.getProperty("benchmark.mongo.uri",
+            "mongodb://localhost:27017/DataGovernanceBenchmark");
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+    private static final String CONTENT = "Seeded content for a benchmark post. ".repeat(20);
+
+    final UserService users;
+    final PostService posts;
+    final UserPreferenceService preferences;
+    final CascadeJobService cascades;
+    private final AuditService audit;
+    final PostRepository postRepository;
+    final UserRepository userRepository;
+    private final ConfigurableApplicationContext context;
+
+    private Services(UserService users, PostService posts, UserPreferenceService preferences,
+                     CascadeJobService cascades, AuditService audit,
+                     PostRepository postRepository, UserRepository userRepository,
+                     ConfigurableApplicationContext context) {
+        this.users = users;
+        this.posts = posts;
+        this.preferences = preferences;
+        this.cascades = cascades;
+        this.audit = audit;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.context = context;
+    }
+
+    static Services open(String backend) {
+        return switch (backend) {
+            case "memory" -> inMemory();
+            case "mongo" -> mongo();
+            default -> throw new IllegalArgumentException("Unknown backend " + backend);
+        };
+    }
+
+    private static Services inMemory() {
+        InMemoryStore store = new InMemoryStore();
+
+        // An empty load marks the index as loaded; users created later are recorded by the services.
+        // Write paths confirm the user with an exact read, answered from the store.
+        MongoTemplate noUsers = mock(MongoTemplate.class);
+        when(noUsers.stream(any(Query.class), eq(Document.class), any())).thenReturn(Stream.empty());
+        when(noUsers.findOne(any(Query.class), eq(Document.class), any())).thenAnswer(call ->
+                store.deletedFlag((String) call.<Query>getArgument(0).getQueryObject().get("id")));
+        LiveUserIndex liveUsers = new LiveUserIndex(noUsers);
+        liveUsers.reload();
+        // Never scheduled here; the post write paths only bump its counters
+        SystemMetrics metrics = new SystemMetrics(noUsers, liveUsers);
+
+        // Defaults of the matching application.properties values
+        PreferenceCache cache = new PreferenceCache(10_000, 300);
+        AuditService audit = new AuditService(store.audit());
+        set(audit, "windowHours", 24L);
+        set(audit, "maxEntries", 200);
+        CascadeJobService jobs = new CascadeJobService(store.jobs(), store.posts(), store.preferences(), store.users(),
+                cache, liveUsers, metrics);
+        set(jobs, "chunkSize", 1000);
+        set(jobs, "leaseSeconds", 60L);
+        set(jobs, "maxAttempts", 5);
+        UserService users = new UserService(store.users(), store.preferences(), jobs, audit, cache, liveUsers);
+        set(users, "gracePeriodHours", 24L);
+
+        return new Services(users, new PostService(store.posts(), store.users(), liveUsers, metrics),
+                new UserPreferenceService(store.preferences(), liveUsers, cache), jobs, audit, store.posts(), store.users(),
+                null);
+    }
+
+    private static Services mongo() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataGovernanceServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.data.mongodb.uri=" + MONGO_URI,
+                        "cascade.jobs.enabled=false",
+                        "user.purge.sweep.enabled=false",
+                        "audit.migration.enabled=false",
+                        "mongo.indexes.ensure-on-startup=false",
+                        "users.live-index.enabled=false",
+                        "system.metrics.enabled=false",
+                        "posts.counts.reconcile.enabled=false")
+                .run();
+        context.getBean(MongoTemplate.class).getDb().drop();
+        context.getBean(IndexCatalog.class).ensureIndexes();
+        // Loaded here rather than by the startup listener, so it never races the drop
+        context.getBean(LiveUserIndex.class).reload();
+
+        return new Services(context.getBean(UserService.class), context.getBean(PostService.class),
+                context.getBean(UserPreferenceService.class), context.getBean(CascadeJobService.class),
+                context.getBean(AuditService.class),
+                context.getBean(PostRepository.class), context.getBean(UserRepository.class), context);
+    }
+
+    // Live users, each with postsPerUser posts and auditTrailLength entries already in their open audit bucket
+    List<String> seedUsers(int count, int postsPerUser, int auditTrailLength) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = "bench_" + SEQUENCE.incrementAndGet();
+            UserProfile user = users.createUser(UserProfile.builder()
+                    .username(name)
+                    .email(name + "@example.com")
+                    .name("Bench User")
+                    .roles(List.of("USER"))
+                    .status("ACTIVE")
+                    .build());
+            ids.add(user.getId());
+
+            seedPosts(user.getId(), postsPerUser);
+            // createUser already wrote one entry
+            List<Pair<String, AuditEntry>> trail = new ArrayList<>();
+            for (int e = 1; e < auditTrailLength; e++) {
+                trail.add(Pair.of(user.getId(), AuditService.entry("UPDATE", "Seeded audit entry " + e)));
+            }
+            if (!trail.isEmpty()) audit.recordAll(trail);
+        }
+        return ids;
+    }
+
+    private void seedPosts(String userId, int count) {
+        Instant base = Instant.now();
+        List<Post> batch = new ArrayList<>(Math.min(count, 1000));
+        for (int p = 0; p < count; p++) {
+            batch.add(Post.builder()
+                    .userId(userId)
+                    .title("Benchmark post " + p)
+                    .content(CONTENT)
+                    .createdAt(base.minusSeconds(p))
+                    .updatedAt(base.minusSeconds(p))
+                    .build());
+            if (batch.size() == 1000) {
+                postRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) postRepository.saveAll(batch);
+        // Written directly rather than through createPost, so the user's counter is set here
+        userRepository.incrementPostCounts(userId, count, 0);
+    }
+
+    @Override
+    public void close() {
+        if (context != null) context.close();
+    }
+
+    // @Value fields are only injected by Spring; the in-memory wiring sets them directly
+    private static void set(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + field + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.model.UserPreference;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserPreferenceServiceBenchmark {
+
+    private static final int USERS = 1_000;
+
+    @State(Scope.Benchmark)
+    public static class PreferencesState extends BackendState {
+
+        List<String> userIds;
+        int next;
+
+        final UserPreference dark = UserPreference.builder().theme("dark").language("en").notificationsEnabled(true).build();
+        final UserPreference light = UserPreference.builder().theme("light").language("fr").build();
+
+        @Setup(Level.Trial)
+        public void seed() {
+            userIds = services.seedUsers(USERS, 0, 1);
+        }
+    }
+
+    // The first pass over the users inserts their preferences, every later call updates them
+    @Benchmark
+    public UserPreference updatePreferences(PreferencesState state) {
+        int i = state.next++;
+        return state.services.preferences.updatePreferences(state.userIds.get(i % USERS),
+                (i / USERS) % 2 == 0 ? state.dark : state.light);
+    }
+}
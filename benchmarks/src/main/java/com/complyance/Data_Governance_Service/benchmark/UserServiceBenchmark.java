@@ -0,0 +1,78 @@
+package com.complyance.Data_Governance_Service.benchmark;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+
+    private static final int PATCH_USERS = 1_000;
+    private static final int DELETES_PER_ITERATION = 100;
+
+    @State(Scope.Benchmark)
+    public static class PatchState extends BackendState {
+
+        // Entries already in each user's open audit bucket; patchUser appends one more per call
+        @Param({"1", "150"})
+        public int auditTrailLength;
+
+        List<String> userIds;
+        int next;
+
+        final UserProfile toSuspended = UserProfile.builder().name("Patched User").status("SUSPENDED").build();
+        final UserProfile toActive = UserProfile.builder().name("Bench User").status("ACTIVE").build();
+
+        @Setup(Level.Trial)
+        public void seed() {
+            userIds = services.seedUsers(PATCH_USERS, 0, auditTrailLength);
+        }
+    }
+
+    // Alternates between two patches so every call changes fields and writes an audit entry
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public UserProfile patchUser(PatchState state) {
+        int i = state.next++;
+        String userId = state.userIds.get(i % PATCH_USERS);
+        return state.services.users.patchUser(userId, (i / PATCH_USERS) % 2 == 0 ? state.toSuspended : state.toActive);
+    }
+
+    @State(Scope.Benchmark)
+    public static class SoftDeleteState extends BackendState {
+
+        // Posts are cascaded by the background job, so this should not move the synchronous cost
+        @Param({"10", "1000"})
+        public int postsPerUser;
+
+        @Param({"1", "150"})
+        public int auditTrailLength;
+
+        List<String> userIds;
+        int next;
+
+        // A user can only be soft-deleted once, so the trial seeds one per call it is going to make
+        @Setup(Level.Trial)
+        public void seed(BenchmarkParams params) {
+            int calls = (params.getWarmup().getCount() + params.getMeasurement().getCount()) * DELETES_PER_ITERATION;
+            userIds = services.seedUsers(calls, postsPerUser, auditTrailLength);
+        }
+    }
+
+    // Each iteration is one timed batch of DELETES_PER_ITERATION calls, so the score is per batch
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, batchSize = DELETES_PER_ITERATION)
+    @Measurement(iterations = 5, batchSize = DELETES_PER_ITERATION)
+    public CascadeJob softDeleteUser(SoftDeleteState state) {
+        return state.services.users.softDeleteUser(state.userIds.get(state.next++));
+    }
+}
@@ -2,9 +2,11 @@ package com.complyance.Data_Governance_Service;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Helper Class Since Spring Mongo Does Not Show Connection Success Logs.
 @SpringBootApplication
+@EnableScheduling
 public class DataGovernanceServiceApplication {
 
 	public static void main(String[] args) {
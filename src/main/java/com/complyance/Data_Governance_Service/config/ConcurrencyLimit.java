@@ -0,0 +1,20 @@
+package com.complyance.Data_Governance_Service.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Caps how many requests a handler method serves at once. Methods naming the
+ * same group share one pool of permits, sized by
+ * {@code http.concurrency.limits.<group>} or, when that is unset, by
+ * {@link #permits()}. A request that cannot get a permit within
+ * {@code http.concurrency.max-wait-ms} is answered with 503.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimit {
+
+    String value();
+
+    int permits();
+}
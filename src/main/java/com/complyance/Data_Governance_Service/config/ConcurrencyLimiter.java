@@ -0,0 +1,95 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.exception.ServiceUnavailableException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Enforces {@link ConcurrencyLimit} with one semaphore per group, so a burst
+ * on an expensive endpoint (cascades, exports) cannot take every thread and
+ * Mongo connection away from cheap reads. The permit is held until the
+ * response is complete, including the async part of streamed responses.
+ */
+@Component
+public class ConcurrencyLimiter implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT = ConcurrencyLimiter.class.getName() + ".permit";
+
+    private static final class Group {
+        final int permits;
+        final Semaphore semaphore;
+        final LongAdder rejected = new LongAdder();
+
+        Group(int permits) {
+            this.permits = permits;
+            this.semaphore = new Semaphore(permits);
+        }
+    }
+
+    private final Environment environment;
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    @Value("${http.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${http.concurrency.max-wait-ms:100}")
+    private long maxWaitMs;
+
+    public ConcurrencyLimiter(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws InterruptedException {
+        if (!enabled || !(handler instanceof HandlerMethod method)) return true;
+        // The async dispatch of a streamed response still holds the permit taken by the first one
+        if (request.getAttribute(PERMIT) != null) return true;
+
+        ConcurrencyLimit limit = method.getMethodAnnotation(ConcurrencyLimit.class);
+        if (limit == null) return true;
+
+        Group group = groups.computeIfAbsent(limit.value(), name -> new Group(
+                environment.getProperty("http.concurrency.limits." + name, Integer.class, limit.permits())));
+        if (!group.semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+            group.rejected.increment();
+            throw new ServiceUnavailableException("Too many concurrent requests for " + limit.value() + ", retry shortly");
+        }
+        request.setAttribute(PERMIT, group);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object group = request.getAttribute(PERMIT);
+        if (group != null) {
+            request.removeAttribute(PERMIT);
+            ((Group) group).semaphore.release();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        groups.forEach((name, group) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("permits", group.permits);
+            stats.put("inUse", group.permits - group.semaphore.availablePermits());
+            stats.put("rejected", group.rejected.sum());
+            result.put(name, stats);
+        });
+        return result;
+    }
+}
@@ -0,0 +1,328 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.mongodb.event.*;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.bson.*;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Command and connection-pool listener for both Mongo clients (registered by
+ * {@link MongoInstrumentationConfig}). Every command is recorded under its
+ * collection and query shape: the filter / sort / pipeline with values
+ * replaced by "?", so {@code find posts {userId: ?, deleted: ?} sort {createdAt: -1}}
+ * is one entry however many users it runs for. Per shape: latency histogram,
+ * failures, documents returned and response bytes. Slow commands are handed
+ * to {@link SlowQueryLog}.
+ */
+@Component
+public class MongoCommandMetrics implements CommandListener, ConnectionPoolListener {
+
+    static final String OTHER = "other";
+
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final int MAX_SHAPES = 1_000;
+    private static final int MAX_SHAPE_LENGTH = 300;
+    private static final int MAX_OPEN_CURSORS = 10_000;
+
+    // Handshakes, monitoring and our own explains are not application traffic
+    private static final Set<String> IGNORED = Set.of("hello", "ismaster", "isMaster", "ping", "buildInfo",
+            "saslStart", "saslContinue", "endSessions", "killCursors", "explain");
+
+    // Read commands the slow-query log can explain; only these are copied out of the started event
+    static final Set<String> EXPLAINABLE = Set.of("find", "aggregate", "count", "distinct", "findAndModify");
+
+    // cursorId is set for a getMore: the cursor it continues
+    private record InFlight(String key, String collection, BsonDocument command, long cursorId) { }
+
+    private static final class Shape {
+        final Recorder recorder = new Recorder(MAX_MICROS, 2);
+        final LongAdder failures = new LongAdder();
+        final LongAdder documents = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+        // Reader side only, guarded by the shape's monitor
+        final Histogram cumulative = new Histogram(MAX_MICROS, 2);
+        Histogram interval;
+
+        void record(long micros) {
+            micros = Math.min(MAX_MICROS, Math.max(1, micros));
+            recorder.recordValue(micros);
+            totalMicros.add(micros);
+        }
+
+        synchronized Histogram snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            cumulative.add(interval);
+            return cumulative.copy();
+        }
+    }
+
+    private final SlowQueryLog slowQueries;
+    private final RequestRoundTrips roundTrips;
+
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+    private final Map<Integer, InFlight> inFlight = new ConcurrentHashMap<>();
+    // Cursor id -> shape key of the command that opened it, so getMore batches count towards it
+    private final Map<Long, String> openCursors = new ConcurrentHashMap<>();
+
+    private final Shape checkout = new Shape();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+
+    public MongoCommandMetrics(SlowQueryLog slowQueries, RequestRoundTrips roundTrips) {
+        this.slowQueries = slowQueries;
+        this.roundTrips = roundTrips;
+    }
+
+    // ---------- CommandListener ----------
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String name = event.getCommandName();
+        // The event's command is only readable during this call, so shape it (and copy it if it may need explaining) now
+        BsonDocument command = event.getCommand();
+        if (name.equals("killCursors")) {
+            command.getArray("cursors", new BsonArray()).forEach(id -> openCursors.remove(id.asInt64().getValue()));
+        }
+        if (IGNORED.contains(name)) return;
+
+        String collection;
+        String key;
+        long cursorId = 0;
+        if (name.equals("getMore")) {
+            collection = command.getString("collection", new BsonString("?")).getValue();
+            cursorId = command.getInt64("getMore", new BsonInt64(0)).getValue();
+            String opener = openCursors.get(cursorId);
+            key = opener != null ? opener + " (getMore)" : collection + " getMore";
+        } else {
+            BsonValue target = command.get(name);
+            collection = target != null && target.isString() ? target.asString().getValue() : event.getDatabaseName();
+            key = collection + " " + shape(name, command);
+        }
+        inFlight.put(event.getRequestId(), new InFlight(key, collection,
+                EXPLAINABLE.contains(name) && slowQueries.enabled() ? command.clone() : null, cursorId));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+
+        long micros = event.getElapsedTime(TimeUnit.MICROSECONDS);
+        BsonDocument response = event.getResponse();
+        long documents = documents(response);
+
+        Shape shape = shape(started.key());
+        shape.record(micros);
+        shape.documents.add(documents);
+        long bytes = response instanceof RawBsonDocument raw ? raw.getByteBuffer().remaining() : 0;
+        shape.bytes.add(bytes);
+        roundTrips.record(started.key(), bytes);
+
+        trackCursor(started, response);
+
+        if (started.command() != null) {
+            slowQueries.offer(event.getDatabaseName(), started.collection(), started.key(), started.command(),
+                    TimeUnit.MICROSECONDS.toMillis(micros), documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        InFlight started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+        Shape shape = shape(started.key());
+        shape.record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+        shape.failures.increment();
+        roundTrips.record(started.key(), 0);
+    }
+
+    // ---------- ConnectionPoolListener ----------
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkout.record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+        checkedOut.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkout.record(event.getElapsedTime(TimeUnit.MICROSECONDS));
+        checkout.failures.increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    // ---------- Reading ----------
+
+    // Shapes by total time spent, most expensive first
+    public List<Map<String, Object>> stats(int limit) {
+        List<Map.Entry<String, Shape>> ranked = new ArrayList<>(shapes.entrySet());
+        ranked.sort(Comparator.comparingLong((Map.Entry<String, Shape> e) -> e.getValue().totalMicros.sum()).reversed());
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, Shape> entry : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            Shape shape = entry.getValue();
+            Histogram latency = shape.snapshot();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("shape", entry.getKey());
+            stats.put("commands", latency.getTotalCount());
+            stats.put("failures", shape.failures.sum());
+            stats.put("totalMs", shape.totalMicros.sum() / 1000);
+            stats.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+            stats.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+            stats.put("maxMs", millis(latency.getMaxValue()));
+            stats.put("documents", shape.documents.sum());
+            stats.put("bytes", shape.bytes.sum());
+            result.add(stats);
+        }
+        return result;
+    }
+
+    public Map<String, Object> poolStats() {
+        Histogram wait = checkout.snapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("checkedOut", checkedOut.get());
+        stats.put("checkouts", wait.getTotalCount());
+        stats.put("checkoutFailures", checkout.failures.sum());
+        stats.put("waitP50Ms", millis(wait.getValueAtPercentile(50)));
+        stats.put("waitP99Ms", millis(wait.getValueAtPercentile(99)));
+        stats.put("waitMaxMs", millis(wait.getMaxValue()));
+        return stats;
+    }
+
+    // ---------- Helpers ----------
+
+    private Shape shape(String key) {
+        Shape shape = shapes.get(key);
+        if (shape != null) return shape;
+        // Shapes are bounded by the code's queries; the cap only guards against ad-hoc ones
+        if (shapes.size() >= MAX_SHAPES) return shapes.computeIfAbsent(OTHER, k -> new Shape());
+        return shapes.computeIfAbsent(key, k -> new Shape());
+    }
+
+    private void trackCursor(InFlight started, BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor == null || !cursor.isDocument()) return;
+        long id = cursor.asDocument().getInt64("id", new BsonInt64(0)).getValue();
+        if (started.cursorId() != 0) {
+            // A getMore's final batch closes the cursor it continued
+            if (id == 0) openCursors.remove(started.cursorId());
+        } else if (id != 0 && openCursors.size() < MAX_OPEN_CURSORS) {
+            openCursors.put(id, started.key());
+        }
+    }
+
+    private static long documents(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                    ? cursor.asDocument().get("firstBatch") : cursor.asDocument().get("nextBatch");
+            return batch != null && batch.isArray() ? batch.asArray().size() : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : 0;
+    }
+
+    static String shape(String name, BsonDocument command) {
+        StringBuilder out = new StringBuilder(name);
+        switch (name) {
+            case "find" -> {
+                append(out, " ", command.get("filter"));
+                appendKeys(out, " sort ", command.get("sort"));
+                appendKeys(out, " projection ", command.get("projection"));
+            }
+            case "aggregate" -> {
+                BsonValue pipeline = command.get("pipeline");
+                if (pipeline != null && pipeline.isArray()) {
+                    for (BsonValue stage : pipeline.asArray()) {
+                        if (!stage.isDocument() || stage.asDocument().isEmpty()) continue;
+                        String op = stage.asDocument().getFirstKey();
+                        BsonValue body = stage.asDocument().get(op);
+                        out.append(" | ").append(op);
+                        if (op.equals("$match")) append(out, " ", body);
+                        else if (op.equals("$sort")) appendKeys(out, " ", body);
+                    }
+                }
+            }
+            case "count", "findAndModify" -> append(out, " ", command.get("query"));
+            case "distinct" -> {
+                out.append(' ').append(command.getString("key", new BsonString("?")).getValue());
+                append(out, " ", command.get("query"));
+            }
+            case "update", "delete" -> {
+                BsonValue statements = command.get(name.equals("update") ? "updates" : "deletes");
+                if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                        && statements.asArray().get(0).isDocument()) {
+                    append(out, " ", statements.asArray().get(0).asDocument().get("q"));
+                }
+            }
+            default -> { }
+        }
+        return out.length() > MAX_SHAPE_LENGTH ? out.substring(0, MAX_SHAPE_LENGTH) + "…" : out.toString();
+    }
+
+    private static void append(StringBuilder out, String prefix, BsonValue value) {
+        if (value == null || (value.isDocument() && value.asDocument().isEmpty())) return;
+        out.append(prefix);
+        writeShape(out, value);
+    }
+
+    // Field names and operators are kept, values become "?"
+    private static void writeShape(StringBuilder out, BsonValue value) {
+        if (value.isDocument()) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> field : value.asDocument().entrySet()) {
+                if (!first) out.append(", ");
+                first = false;
+                out.append(field.getKey()).append(": ");
+                writeShape(out, field.getValue());
+            }
+            out.append('}');
+        } else if (value.isArray()) {
+            // $and / $or branches keep their shape; $in lists collapse to one "?"
+            BsonArray array = value.asArray();
+            if (!array.isEmpty() && array.get(0).isDocument()) {
+                out.append('[');
+                for (int i = 0; i < array.size(); i++) {
+                    if (i > 0) out.append(", ");
+                    writeShape(out, array.get(i));
+                }
+                out.append(']');
+            } else {
+                out.append("[?]");
+            }
+        } else {
+            out.append('?');
+        }
+    }
+
+    // Sort and projection specs are shapes already; keep their directions
+    private static void appendKeys(StringBuilder out, String prefix, BsonValue spec) {
+        if (spec == null || !spec.isDocument() || spec.asDocument().isEmpty()) return;
+        out.append(prefix).append('{');
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> field : spec.asDocument().entrySet()) {
+            if (!first) out.append(", ");
+            first = false;
+            BsonValue direction = field.getValue();
+            out.append(field.getKey()).append(": ")
+                    .append(direction.isNumber() ? String.valueOf(direction.asNumber().intValue()) : "?");
+        }
+        out.append('}');
+    }
+
+    private static double millis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+}
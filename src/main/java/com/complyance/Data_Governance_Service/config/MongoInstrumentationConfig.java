@@ -0,0 +1,19 @@
+package com.complyance.Data_Governance_Service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Applied to both the blocking and the reactive Mongo client
+@Configuration
+public class MongoInstrumentationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "mongo.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+    public MongoClientSettingsBuilderCustomizer mongoInstrumentation(MongoCommandMetrics metrics) {
+        return settings -> settings
+                .addCommandListener(metrics)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(metrics));
+    }
+}
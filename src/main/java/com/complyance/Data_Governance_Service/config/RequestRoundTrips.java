@@ -0,0 +1,56 @@
+package com.complyance.Data_Governance_Service.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Mongo commands issued by the current request thread. The blocking driver
+ * reports a command on the thread that sent it, so a thread-local tally sees
+ * everything a handler does; work moved to other threads (streamed bodies,
+ * cascade jobs, the reactive client) is not attributed to the request.
+ */
+@Component
+public class RequestRoundTrips {
+
+    public static final class Tally {
+        private int commands;
+        private long bytes;
+        private final Map<String, Integer> byShape = new HashMap<>();
+
+        public int commands() {
+            return commands;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        // The shape issued most often, e.g. a lookup repeated once per post
+        public Map.Entry<String, Integer> mostRepeated() {
+            return byShape.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+
+    private final ThreadLocal<Tally> current = new ThreadLocal<>();
+
+    public Tally begin() {
+        Tally tally = new Tally();
+        current.set(tally);
+        return tally;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    // Called by MongoCommandMetrics for every completed command
+    void record(String shape, long bytes) {
+        Tally tally = current.get();
+        if (tally == null) return;
+        tally.commands++;
+        tally.bytes += bytes;
+        tally.byShape.merge(shape, 1, Integer::sum);
+    }
+}
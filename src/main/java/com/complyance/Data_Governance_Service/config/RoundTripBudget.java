@@ -0,0 +1,17 @@
+package com.complyance.Data_Governance_Service.config;
+
+import java.lang.annotation.*;
+
+/**
+ * The most Mongo commands one request to this handler method should need.
+ * Requests over budget are logged with their most repeated query shape, or
+ * fail outright when {@code mongo.round-trips.fail-on-exceed} is set (test
+ * mode). Methods without it get {@code mongo.round-trips.default-budget}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RoundTripBudget {
+
+    int value();
+}
@@ -0,0 +1,157 @@
+package com.complyance.Data_Governance_Service.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the Mongo commands each request makes (see {@link RequestRoundTrips})
+ * and checks them against the handler's {@link RoundTripBudget}. In debug mode
+ * (mongo.round-trips.headers) the counts are also returned as
+ * X-Mongo-Commands / X-Mongo-Bytes response headers.
+ */
+@Slf4j
+@Component
+public class RoundTripBudgetFilter extends OncePerRequestFilter {
+
+    static final String COMMANDS_HEADER = "X-Mongo-Commands";
+    static final String BYTES_HEADER = "X-Mongo-Bytes";
+
+    private final RequestRoundTrips roundTrips;
+    private final Map<String, LongAdder> overBudget = new ConcurrentHashMap<>();
+
+    @Value("${mongo.round-trips.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mongo.round-trips.headers:false}")
+    private boolean headers;
+
+    @Value("${mongo.round-trips.default-budget:10}")
+    private int defaultBudget;
+
+    @Value("${mongo.round-trips.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    public RoundTripBudgetFilter(RequestRoundTrips roundTrips) {
+        this.roundTrips = roundTrips;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RequestRoundTrips.Tally tally = roundTrips.begin();
+        try {
+            chain.doFilter(request, headers ? new CountingHeaders(response, tally) : response);
+        } finally {
+            roundTrips.end();
+            // Bodiless responses are committed by the container after the filter returns
+            if (headers && !response.isCommitted()) writeHeaders(response, tally);
+        }
+        check(request, tally);
+    }
+
+    private void check(HttpServletRequest request, RequestRoundTrips.Tally tally) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        RoundTripBudget declared = handler instanceof HandlerMethod method
+                ? method.getMethodAnnotation(RoundTripBudget.class) : null;
+        int budget = declared != null ? declared.value() : defaultBudget;
+        if (tally.commands() <= budget) return;
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        overBudget.computeIfAbsent(route, r -> new LongAdder()).increment();
+
+        Map.Entry<String, Integer> repeated = tally.mostRepeated();
+        String message = route + " made " + tally.commands() + " Mongo round trips (budget " + budget
+                + "); most repeated: " + repeated.getKey() + " x" + repeated.getValue();
+        if (failOnExceed) throw new IllegalStateException(message);
+        log.warn(message);
+    }
+
+    // Requests over budget so far, per route
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new TreeMap<>();
+        overBudget.forEach((route, count) -> result.put(route, count.sum()));
+        return result;
+    }
+
+    private static void writeHeaders(HttpServletResponse response, RequestRoundTrips.Tally tally) {
+        response.setHeader(COMMANDS_HEADER, String.valueOf(tally.commands()));
+        response.setHeader(BYTES_HEADER, String.valueOf(tally.bytes()));
+    }
+
+    // Sets the headers just before the body starts, after the handler has made its Mongo calls
+    private static final class CountingHeaders extends HttpServletResponseWrapper {
+
+        private final RequestRoundTrips.Tally tally;
+        private boolean written;
+
+        CountingHeaders(HttpServletResponse response, RequestRoundTrips.Tally tally) {
+            super(response);
+            this.tally = tally;
+        }
+
+        private void beforeCommit() {
+            if (written || isCommitted()) return;
+            written = true;
+            writeHeaders(this, tally);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeCommit();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeCommit();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
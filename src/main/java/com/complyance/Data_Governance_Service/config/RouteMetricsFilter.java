@@ -0,0 +1,71 @@
+package com.complyance.Data_Governance_Service.config;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every request and records it in {@link RouteMetrics} under the
+ * matched route pattern, so /users/a and /users/b share one histogram.
+ * Streamed (async) responses are recorded when the stream completes.
+ */
+@Component
+public class RouteMetricsFilter extends OncePerRequestFilter {
+
+    private final RouteMetrics routeMetrics;
+
+    @Value("${http.metrics.enabled:true}")
+    private boolean enabled;
+
+    public RouteMetricsFilter(RouteMetrics routeMetrics) {
+        this.routeMetrics = routeMetrics;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    // Also called after a timeout or error, with the final status set
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response.getStatus(), start);
+                    }
+
+                    @Override public void onTimeout(AsyncEvent event) { }
+                    @Override public void onError(AsyncEvent event) { }
+                    @Override public void onStartAsync(AsyncEvent event) { }
+                });
+            } else {
+                // An exception that escaped every handler becomes a 500 in the container
+                record(request, failed ? 500 : response.getStatus(), start);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int status, long start) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        routeMetrics.record(request.getMethod(), pattern != null ? pattern.toString() : null, status,
+                System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,150 @@
+package com.complyance.Data_Governance_Service.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The last N read commands slower than mongo.slow-query.threshold-ms, each
+ * with the query plan Mongo picks for it (explain, queryPlanner verbosity).
+ * Explains run on one background thread, never on the driver thread that
+ * reported the command; at most one per query shape per minute, and any
+ * that do not fit the small queue are dropped.
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private static final long EXPLAIN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    // Session and cluster fields the driver adds; explain rejects some of them inside the wrapped command
+    private static final List<String> DRIVER_FIELDS = List.of("$db", "lsid", "$clusterTime", "txnNumber",
+            "$readPreference", "signature", "readConcern", "writeConcern", "autocommit", "startTransaction");
+
+    public record SlowQuery(Instant at, String collection, String shape, long millis, long documents,
+                            String plan, Document winningPlan, String explainError) { }
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final AtomicReferenceArray<SlowQuery> buffer;
+    private final AtomicLong written = new AtomicLong();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer;
+
+    @Value("${mongo.slow-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${mongo.slow-query.threshold-ms:100}")
+    private long thresholdMs;
+
+    public SlowQueryLog(ObjectProvider<MongoTemplate> mongoTemplate,
+                        @Value("${mongo.slow-query.buffer-size:50}") int bufferSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new AtomicReferenceArray<>(bufferSize);
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    // Called by MongoCommandMetrics for every explainable command that succeeded
+    public void offer(String database, String collection, String shape, BsonDocument command, long millis,
+                      long documents) {
+        if (!enabled || millis < thresholdMs) return;
+
+        long now = System.nanoTime();
+        Long last = lastExplained.get(shape);
+        if (last != null && now - last < EXPLAIN_INTERVAL_NANOS) return;
+        lastExplained.put(shape, now);
+
+        explainer.execute(() -> add(explain(database, collection, shape, command, millis, documents)));
+    }
+
+    // Newest first
+    public List<SlowQuery> entries() {
+        long end = written.get();
+        List<SlowQuery> result = new ArrayList<>();
+        for (long i = end - 1; i >= Math.max(0, end - buffer.length()); i--) {
+            SlowQuery entry = buffer.get((int) (i % buffer.length()));
+            if (entry != null) result.add(entry);
+        }
+        return result;
+    }
+
+    private void add(SlowQuery entry) {
+        buffer.set((int) (written.getAndIncrement() % buffer.length()), entry);
+    }
+
+    SlowQuery explain(String database, String collection, String shape, BsonDocument command, long millis,
+                      long documents) {
+        Instant at = Instant.now();
+        try {
+            BsonDocument target = command.clone();
+            DRIVER_FIELDS.forEach(target::remove);
+            Document result = mongoTemplate.getObject().getMongoDatabaseFactory().getMongoDatabase(database)
+                    .runCommand(new BsonDocument("explain", target).append("verbosity", new BsonString("queryPlanner")));
+            Document winningPlan = winningPlan(result);
+            return new SlowQuery(at, collection, shape, millis, documents, summarize(winningPlan), winningPlan, null);
+        } catch (RuntimeException e) {
+            log.warn("Could not explain slow query on {}: {}", collection, e.getMessage());
+            return new SlowQuery(at, collection, shape, millis, documents, null, null, e.getMessage());
+        }
+    }
+
+    // find / count put queryPlanner at the top; an aggregate nests it under its first ($cursor) stage
+    @SuppressWarnings("unchecked")
+    private static Document winningPlan(Document explain) {
+        Document planner = explain.get("queryPlanner", Document.class);
+        if (planner == null && explain.get("stages") instanceof List<?> stages && !stages.isEmpty()
+                && stages.getFirst() instanceof Document first && first.get("$cursor") instanceof Document cursor) {
+            planner = cursor.get("queryPlanner", Document.class);
+        }
+        if (planner == null) return null;
+        Document plan = planner.get("winningPlan", Document.class);
+        // The slot-based engine wraps the classic plan tree in queryPlan
+        return plan != null && plan.get("queryPlan") instanceof Document inner ? inner : plan;
+    }
+
+    // "FETCH > IXSCAN posts_user_created" or "COLLSCAN": the stage chain down to where documents come from
+    static String summarize(Document plan) {
+        if (plan == null) return null;
+        StringBuilder out = new StringBuilder();
+        Document stage = plan;
+        while (stage != null) {
+            if (!out.isEmpty()) out.append(" > ");
+            out.append(stage.getString("stage"));
+            if (stage.getString("indexName") != null) out.append(' ').append(stage.getString("indexName"));
+
+            Object input = stage.get("inputStage");
+            if (input == null && stage.get("inputStages") instanceof List<?> inputs && !inputs.isEmpty()) {
+                input = inputs.getFirst();
+            }
+            stage = input instanceof Document next ? next : null;
+        }
+        return out.toString();
+    }
+
+    @PreDestroy
+    public void stop() {
+        explainer.shutdownNow();
+    }
+}
@@ -0,0 +1,27 @@
+package com.complyance.Data_Governance_Service.controller;
+
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.config.RoundTripBudget;
+import com.complyance.Data_Governance_Service.service.CascadeJobService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/jobs")
+public class JobController {
+
+    private final CascadeJobService jobService;
+
+    public JobController(CascadeJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @ConcurrencyLimit(value = "job-status", permits = 64)
+    @RoundTripBudget(2)
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> get(@PathVariable String id) {
+        return ResponseEntity.ok(jobService.getJobStatus(id));
+    }
+}
@@ -1,6 +1,12 @@
 package com.complyance.Data_Governance_Service.controller;
 
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.config.RoundTripBudget;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostBatchResult;
+import com.complyance.Data_Governance_Service.model.PostSummary;
+import com.complyance.Data_Governance_Service.service.PostBatchService;
 import com.complyance.Data_Governance_Service.service.PostService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -8,6 +14,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,30 +24,72 @@ import java.util.Map;
 @RequestMapping("/api/v1")
 public class PostController {
     private final PostService service;
+    private final PostBatchService batchService;
 
-    public PostController(PostService service) {
+    public PostController(PostService service, PostBatchService batchService) {
         this.service = service;
+        this.batchService = batchService;
     }
 
     // FR8 — Create Post
+    @ConcurrencyLimit(value = "post-writes", permits = 64)
+    @RoundTripBudget(3)
     @PostMapping("/users/{userId}/posts")
     public ResponseEntity<Post> createPost(@PathVariable String userId, @RequestBody Post post) {
         return ResponseEntity.ok(service.createPost(userId, post));
     }
 
+    // Bulk create across users (migrations): a JSON array of {userId, title, content}, parsed as it arrives.
+    // Three commands per posts.batch.chunk-size items: a liveness lookup, the bulk insert and the counters.
+    @ConcurrencyLimit(value = "post-batch", permits = 4)
+    @RoundTripBudget(100)
+    @PostMapping("/posts:batch")
+    public ResponseEntity<PostBatchResult> createPostsBatch(InputStream body) throws IOException {
+        return ResponseEntity.ok(batchService.createPosts(body));
+    }
+
     // FR9 — Get Posts (with optional pagination)
+    @ConcurrencyLimit(value = "post-reads", permits = 128)
+    @RoundTripBudget(4)
     @GetMapping("/users/{userId}/posts")
     public ResponseEntity<?> getPosts(
             @PathVariable String userId,
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
-            @RequestParam(required = false, defaultValue = "createdAt,desc") String sort
+            @RequestParam(required = false, defaultValue = "createdAt,desc") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean count
     ) {
+        // Keyset mode: ?limit=N[&after=<token>], offset mode stays available for existing clients
+        if (limit != null) {
+            return ResponseEntity.ok(service.getPostsByUserAfter(userId, after, limit, sort, count));
+        }
         return ResponseEntity.ok(service.getPostsByUser(userId, page, size, sort));
     }
 
+    // Full-text search over live posts: ?q=...&limit=N[&after=<token>], best match first
+    @ConcurrencyLimit(value = "post-search", permits = 32)
+    @RoundTripBudget(1)
+    @GetMapping("/posts/search")
+    public ResponseEntity<KeysetPage<PostSummary>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        return ResponseEntity.ok(service.searchPosts(q, after, limit));
+    }
+
+    @ConcurrencyLimit(value = "post-reads", permits = 128)
+    @RoundTripBudget(2)
+    @GetMapping("/posts/{postId}")
+    public ResponseEntity<Post> getPost(@PathVariable String postId) {
+        return ResponseEntity.ok(service.getPost(postId));
+    }
 
     // FR10 — Soft Delete Post
+    @ConcurrencyLimit(value = "post-writes", permits = 64)
+    @RoundTripBudget(3)
     @DeleteMapping("/posts/{postId}")
     public ResponseEntity<Void> softDeletePost(@PathVariable String postId) {
         service.softDeletePost(postId);
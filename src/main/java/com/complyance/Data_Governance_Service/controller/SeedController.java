@@ -1,9 +1,13 @@
 package com.complyance.Data_Governance_Service.controller;
 
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
 import com.complyance.Data_Governance_Service.service.SeedService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/v1/seed")
 public class SeedController {
@@ -14,13 +18,24 @@ public class SeedController {
         this.seedService = seedService;
     }
 
+    // Runs in the background — poll GET /api/v1/seed/status for progress and docs/sec
+    @ConcurrencyLimit(value = "seed", permits = 2)
     @PostMapping
-    public ResponseEntity<String> seed(
+    public ResponseEntity<Map<String, Object>> seed(
             @RequestParam(defaultValue = "10") int users,
-            @RequestParam(defaultValue = "3") int postsPerUser
+            @RequestParam(defaultValue = "3") int postsPerUser,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "0") double skew,
+            @RequestParam(defaultValue = "4") int threads
     ) {
-        String result = seedService.seedUsersAndPosts(users, postsPerUser);
-        return ResponseEntity.ok(result);
+        Map<String, Object> status = seedService.start(users, postsPerUser, seed, skew, threads);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/seed/status"))
+                .body(status);
     }
 
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(seedService.status());
+    }
 }
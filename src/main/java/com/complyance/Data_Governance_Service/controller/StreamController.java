@@ -0,0 +1,37 @@
+package com.complyance.Data_Governance_Service.controller;
+
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.service.StreamingReadService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+// Streaming variants of GET /users and GET /users/{userId}/posts: one JSON document per line
+// (Accept: application/x-ndjson) or per server-sent event (Accept: text/event-stream)
+@RestController
+@RequestMapping("/api/v1/stream")
+public class StreamController {
+
+    private final StreamingReadService service;
+
+    public StreamController(StreamingReadService service) {
+        this.service = service;
+    }
+
+    @ConcurrencyLimit(value = "stream-reads", permits = 32)
+    @GetMapping(value = "/users", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserProfile> users() {
+        return service.streamActiveUsers();
+    }
+
+    @ConcurrencyLimit(value = "stream-reads", permits = 32)
+    @GetMapping(value = "/users/{userId}/posts", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Post> posts(
+            @PathVariable String userId,
+            @RequestParam(defaultValue = "createdAt,desc") String sort
+    ) {
+        return service.streamPostsByUser(userId, sort);
+    }
+}
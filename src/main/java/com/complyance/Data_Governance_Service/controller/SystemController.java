@@ -1,6 +1,18 @@
 package com.complyance.Data_Governance_Service.controller;
 
-import org.springframework.data.mongodb.core.MongoTemplate;
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimiter;
+import com.complyance.Data_Governance_Service.config.MongoCommandMetrics;
+import com.complyance.Data_Governance_Service.config.RoundTripBudgetFilter;
+import com.complyance.Data_Governance_Service.config.RouteMetrics;
+import com.complyance.Data_Governance_Service.config.SlowQueryLog;
+import com.complyance.Data_Governance_Service.repository.IndexCatalog;
+import com.complyance.Data_Governance_Service.service.LiveUserIndex;
+import com.complyance.Data_Governance_Service.service.PostCountReconciler;
+import com.complyance.Data_Governance_Service.service.PreferenceCache;
+import com.complyance.Data_Governance_Service.service.PurgeSweeper;
+import com.complyance.Data_Governance_Service.service.SystemMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -8,6 +20,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.RuntimeMXBean;
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,10 +28,44 @@ import java.util.Map;
 public class SystemController {
 
     private final long startTime = System.currentTimeMillis();
-    private final MongoTemplate mongoTemplate;
 
-    public SystemController(MongoTemplate mongoTemplate) {
-        this.mongoTemplate = mongoTemplate;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final SystemMetrics systemMetrics;
+    private final IndexCatalog indexCatalog;
+    private final PreferenceCache preferenceCache;
+    private final LiveUserIndex liveUserIndex;
+    private final PurgeSweeper purgeSweeper;
+    private final PostCountReconciler postCountReconciler;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final RouteMetrics routeMetrics;
+    private final MongoCommandMetrics mongoCommandMetrics;
+    private final SlowQueryLog slowQueryLog;
+    private final RoundTripBudgetFilter roundTripBudget;
+
+    public SystemController(SystemMetrics systemMetrics,
+                            IndexCatalog indexCatalog,
+                            PreferenceCache preferenceCache,
+                            LiveUserIndex liveUserIndex,
+                            PurgeSweeper purgeSweeper,
+                            PostCountReconciler postCountReconciler,
+                            ConcurrencyLimiter concurrencyLimiter,
+                            RouteMetrics routeMetrics,
+                            MongoCommandMetrics mongoCommandMetrics,
+                            SlowQueryLog slowQueryLog,
+                            RoundTripBudgetFilter roundTripBudget) {
+        this.systemMetrics = systemMetrics;
+        this.indexCatalog = indexCatalog;
+        this.preferenceCache = preferenceCache;
+        this.liveUserIndex = liveUserIndex;
+        this.purgeSweeper = purgeSweeper;
+        this.postCountReconciler = postCountReconciler;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.routeMetrics = routeMetrics;
+        this.mongoCommandMetrics = mongoCommandMetrics;
+        this.slowQueryLog = slowQueryLog;
+        this.roundTripBudget = roundTripBudget;
     }
 
     @GetMapping("/health")
@@ -29,6 +76,7 @@ public class SystemController {
         return ResponseEntity.ok(status);
     }
 
+    // Not concurrency-limited: it only reads in-memory snapshots, and scrapes matter most under load
     @GetMapping("/metrics")
     public ResponseEntity<Map<String, Object>> metrics() {
         Map<String, Object> metrics = new HashMap<>();
@@ -44,19 +92,57 @@ public class SystemController {
         metrics.put("cpuCount", runtime.availableProcessors());
         metrics.put("startTime", startTime);
 
-        // 🧩 MongoDB stats
-        Map<String, Object> dbStats = new HashMap<>();
-        for (String collectionName : mongoTemplate.getCollectionNames()) {
-            long count = mongoTemplate.getCollection(collectionName).countDocuments();
-            dbStats.put(collectionName, count);
-        }
+        // 🧩 MongoDB stats, from the last background snapshot (refreshedAt says how old it is)
+        metrics.putAll(systemMetrics.snapshot());
 
-        metrics.put("totalCollections", dbStats.size());
-        metrics.put("collections", dbStats);
+        metrics.put("preferenceCache", preferenceCache.stats());
+        metrics.put("liveUserIndex", liveUserIndex.stats());
+        metrics.put("purgeSweeper", purgeSweeper.stats());
+        metrics.put("postCountReconciler", postCountReconciler.stats());
+        metrics.put("concurrencyLimits", concurrencyLimiter.stats());
+        metrics.put("virtualThreads", virtualThreads);
+        metrics.put("routes", routeMetrics.stats());
+        metrics.put("mongoCommands", mongoCommandMetrics.stats(20));
+        metrics.put("mongoPool", mongoCommandMetrics.poolStats());
+        metrics.put("roundTripsOverBudget", roundTripBudget.stats());
 
         return ResponseEntity.ok(metrics);
     }
 
+    // Route latency and request counters for a Prometheus scrape; in-memory, so not limited either
+    @GetMapping(value = "/metrics/prometheus", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok(routeMetrics.prometheus());
+    }
+
+    // Recent Mongo reads over the slow-query threshold, newest first, with their query plans
+    @ConcurrencyLimit(value = "slow-queries", permits = 4)
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryLog.SlowQuery>> slowQueries() {
+        return ResponseEntity.ok(slowQueryLog.entries());
+    }
+
+    // Declared vs. present indexes
+    @ConcurrencyLimit(value = "index-admin", permits = 2)
+    @GetMapping("/indexes")
+    public ResponseEntity<Map<String, Object>> verifyIndexes() {
+        return ResponseEntity.ok(indexCatalog.verify());
+    }
+
+    // Admin command: create any declared index that is missing
+    @ConcurrencyLimit(value = "index-admin", permits = 2)
+    @PostMapping("/indexes")
+    public ResponseEntity<Map<String, Object>> ensureIndexes() {
+        return ResponseEntity.ok(indexCatalog.ensureIndexes());
+    }
+
+    // Admin command: re-count every user's posts now instead of waiting for the scheduled pass
+    @ConcurrencyLimit(value = "post-counts-admin", permits = 1)
+    @PostMapping("/post-counts")
+    public ResponseEntity<Map<String, Object>> reconcilePostCounts() {
+        return ResponseEntity.ok(postCountReconciler.reconcile());
+    }
+
     private String formatDuration(Duration d) {
         long hours = d.toHours();
         long minutes = d.minusHours(hours).toMinutes();
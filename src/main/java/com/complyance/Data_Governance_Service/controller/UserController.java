@@ -1,57 +1,137 @@
 package com.complyance.Data_Governance_Service.controller;
 
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.config.RoundTripBudget;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.model.UserSummary;
+import com.complyance.Data_Governance_Service.service.AuditService;
+import com.complyance.Data_Governance_Service.service.CascadeJobService;
 import com.complyance.Data_Governance_Service.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
-import java.util.List;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/users")
 public class UserController {
 
     private final UserService service;
+    private final CascadeJobService jobService;
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
 
-    public UserController(UserService service) {
+    public UserController(UserService service,
+                          CascadeJobService jobService,
+                          AuditService auditService,
+                          ObjectMapper objectMapper) {
         this.service = service;
+        this.jobService = jobService;
+        this.auditService = auditService;
+        this.objectMapper = objectMapper;
     }
 
+    @ConcurrencyLimit(value = "user-writes", permits = 64)
+    @RoundTripBudget(4)
     @PostMapping
     public ResponseEntity<UserProfile> create(@Valid @RequestBody UserProfile user) {
         return ResponseEntity.status(HttpStatus.CREATED).body(service.createUser(user));
     }
 
+    @ConcurrencyLimit(value = "user-reads", permits = 128)
+    @RoundTripBudget(2)
     @GetMapping("/{id}")
     public ResponseEntity<UserProfile> get(@PathVariable String id) {
         return ResponseEntity.ok(service.getUser(id));
     }
 
-    @GetMapping
-    public ResponseEntity<?> getAll(
-            @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size,
+    @ConcurrencyLimit(value = "user-reads", permits = 128)
+    @RoundTripBudget(3)
+    @GetMapping("/{id}/audit")
+    public ResponseEntity<Map<String, Object>> getAudit(
+            @PathVariable String id,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return ResponseEntity.ok(auditService.getAuditTrail(id, from, to, page, size));
+    }
+
+    @ConcurrencyLimit(value = "user-reads", permits = 128)
+    @RoundTripBudget(3)
+    @GetMapping(params = {"page", "size", "!limit"})
+    public ResponseEntity<Page<UserSummary>> getPage(
+            @RequestParam int page,
+            @RequestParam int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @RequestParam(defaultValue = "asc") String direction
     ) {
-        if (page != null && size != null) {
-            Sort sort = direction.equalsIgnoreCase("desc")
-                    ? Sort.by(sortBy).descending()
-                    : Sort.by(sortBy).ascending();
-
-            Pageable pageable = PageRequest.of(page, size, sort);
-            return ResponseEntity.ok(service.getAllUsersPaged(pageable));
-        }
-        return ResponseEntity.ok(service.getAllUsers());
+        Sort sort = direction.equalsIgnoreCase("desc")
+                ? Sort.by(sortBy).descending()
+                : Sort.by(sortBy).ascending();
+
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(service.getAllUsersPaged(pageable));
     }
 
+    // Keyset mode: ?limit=N[&after=<token>] — no skip, count only with count=true
+    @ConcurrencyLimit(value = "user-reads", permits = 128)
+    @RoundTripBudget(3)
+    @GetMapping(params = {"limit", "!page"})
+    public ResponseEntity<KeysetPage<UserSummary>> getAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "false") boolean count
+    ) {
+        return ResponseEntity.ok(service.getUsersAfter(after, limit, sortBy, direction, count));
+    }
+
+    // Both modes at once would otherwise fall through to the export below
+    @GetMapping(params = {"page", "limit"})
+    public ResponseEntity<Void> mixedPagination() {
+        throw new IllegalArgumentException("Use either page and size, or limit and after, not both");
+    }
+
+    // No pagination → stream every live user as a chunked JSON array straight from the cursor
+    @ConcurrencyLimit(value = "user-export", permits = 4)
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportAll() {
+        StreamingResponseBody body = out -> {
+            try (Stream<UserProfile> users = service.streamActiveUsers();
+                 JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                Iterator<UserProfile> it = users.iterator();
+                while (it.hasNext()) {
+                    json.writeObject(it.next());
+                }
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @ConcurrencyLimit(value = "user-writes", permits = 64)
+    @RoundTripBudget(5)
     @PutMapping("/{id}")
     public ResponseEntity<UserProfile> updateUser(
             @PathVariable String id,
@@ -60,6 +140,8 @@ public class UserController {
         return ResponseEntity.ok(service.updateUser(id, updatedUser));
     }
 
+    @ConcurrencyLimit(value = "user-writes", permits = 64)
+    @RoundTripBudget(5)
     @PatchMapping("/{id}")
     public ResponseEntity<UserProfile> patchUser(
             @PathVariable String id,
@@ -68,21 +150,32 @@ public class UserController {
         return ResponseEntity.ok(service.patchUser(id, partialUpdate));
     }
 
+    // Cascades run as background jobs — poll GET /api/v1/jobs/{jobId} for progress
+    @ConcurrencyLimit(value = "cascades", permits = 16)
+    @RoundTripBudget(8)
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> delete(@PathVariable String id) {
-        service.softDeleteUser(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Map<String, Object>> delete(@PathVariable String id) {
+        return accepted(service.softDeleteUser(id));
     }
 
+    @ConcurrencyLimit(value = "cascades", permits = 16)
+    @RoundTripBudget(8)
     @PostMapping("/{id}/restore")
-    public ResponseEntity<UserProfile> restoreUser(@PathVariable String id) {
-        return ResponseEntity.ok(service.restoreUser(id));
+    public ResponseEntity<Map<String, Object>> restoreUser(@PathVariable String id) {
+        return accepted(service.restoreUser(id));
     }
 
+    @ConcurrencyLimit(value = "cascades", permits = 16)
+    @RoundTripBudget(8)
     @PostMapping("/{id}/purge")
-    public ResponseEntity<Void> purgeUser(@PathVariable String id) {
-        service.purgeUser(id);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Map<String, Object>> purgeUser(@PathVariable String id) {
+        return accepted(service.purgeUser(id));
+    }
+
+    private ResponseEntity<Map<String, Object>> accepted(CascadeJob job) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/jobs/" + job.getId()))
+                .body(jobService.toStatus(job));
     }
 
 }
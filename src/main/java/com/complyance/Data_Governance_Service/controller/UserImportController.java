@@ -0,0 +1,38 @@
+package com.complyance.Data_Governance_Service.controller;
+
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.service.UserImportService;
+import com.complyance.Data_Governance_Service.service.UserImportService.Format;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+// Tenant onboarding: many users in one upload, parsed, validated and written as it arrives.
+// Mongo commands run on the import's own stage threads, so they do not count against a round-trip budget.
+@RestController
+@RequestMapping("/api/v1")
+public class UserImportController {
+
+    private final UserImportService importService;
+
+    public UserImportController(UserImportService importService) {
+        this.importService = importService;
+    }
+
+    // One JSON user per line: {"username", "email", "name", "roles": [...], "status"}
+    @ConcurrencyLimit(value = "user-import", permits = 2)
+    @PostMapping(value = "/users:import", consumes = "application/x-ndjson")
+    public ResponseEntity<Map<String, Object>> importNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importUsers(body, Format.NDJSON));
+    }
+
+    // Header row username,email,name,roles[,status]; several roles in one cell are separated by ';'
+    @ConcurrencyLimit(value = "user-import", permits = 2)
+    @PostMapping(value = "/users:import", consumes = "text/csv")
+    public ResponseEntity<Map<String, Object>> importCsv(InputStream body) throws IOException {
+        return ResponseEntity.ok(importService.importUsers(body, Format.CSV));
+    }
+}
@@ -1,5 +1,7 @@
 package com.complyance.Data_Governance_Service.controller;
 
+import com.complyance.Data_Governance_Service.config.ConcurrencyLimit;
+import com.complyance.Data_Governance_Service.config.RoundTripBudget;
 import com.complyance.Data_Governance_Service.model.UserPreference;
 import com.complyance.Data_Governance_Service.service.UserPreferenceService;
 import org.springframework.http.ResponseEntity;
@@ -15,6 +17,8 @@ public class UserPreferenceController {
         this.service = service;
     }
 
+    @ConcurrencyLimit(value = "preference-writes", permits = 64)
+    @RoundTripBudget(3)
     @PutMapping
     public ResponseEntity<UserPreference> update(
             @PathVariable String userId,
@@ -23,6 +27,8 @@ public class UserPreferenceController {
         return ResponseEntity.ok(service.updatePreferences(userId, prefs));
     }
 
+    @ConcurrencyLimit(value = "preference-reads", permits = 256)
+    @RoundTripBudget(3)
     @GetMapping
     public ResponseEntity<UserPreference> get(@PathVariable String userId) {
         return ResponseEntity.ok(service.getPreferences(userId));
@@ -1,5 +1,6 @@
 package com.complyance.Data_Governance_Service.exception;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.*;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
@@ -9,6 +10,11 @@ import java.util.*;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    // Unique indexes from IndexCatalog, mapped to the message a client should see
+    private static final Map<String, String> UNIQUE_INDEX_MESSAGES = Map.of(
+            "username_ci_unique", "Username already exists",
+            "email_ci_unique", "Email already exists");
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException ex) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -49,6 +55,29 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    // Shed by a concurrency limit; the client may retry after a short pause
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnavailable(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "timestamp", Instant.now(),
+                        "status", 503,
+                        "error", "Service Unavailable",
+                        "message", ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateKey(DuplicateKeyException ex) {
+        String detail = String.valueOf(ex.getMessage());
+        String message = UNIQUE_INDEX_MESSAGES.entrySet().stream()
+                .filter(e -> detail.contains("index: " + e.getKey()))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse("Resource already exists");
+        return handleConflict(new ConflictException(message));
+    }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationErrors(MethodArgumentNotValidException ex) {
@@ -0,0 +1,7 @@
+package com.complyance.Data_Governance_Service.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
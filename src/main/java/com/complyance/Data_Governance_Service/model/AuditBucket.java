@@ -0,0 +1,32 @@
+package com.complyance.Data_Governance_Service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only slice of a user's audit history: all entries for one user within
+ * one time window, capped at a fixed number of entries per document. Entries are
+ * only ever added with $push, never rewritten.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "audit_buckets")
+@CompoundIndex(name = "user_window", def = "{'userId': 1, 'windowStart': -1}")
+public class AuditBucket {
+
+    @Id
+    private String id;
+    private String userId;
+    private Instant windowStart;   // start of the time window this bucket covers
+    private int count;             // number of entries, used to cap bucket size
+    @Builder.Default
+    private List<AuditEntry> entries = new ArrayList<>();
+}
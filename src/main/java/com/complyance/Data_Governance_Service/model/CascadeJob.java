@@ -0,0 +1,53 @@
+package com.complyance.Data_Governance_Service.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Persistent, resumable cascade over a user's posts. Workers process posts in
+ * _id order and checkpoint {@code lastProcessedId} after every chunk, so a job
+ * picked up again after a restart continues where the previous owner stopped.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "cascade_jobs")
+public class CascadeJob {
+
+    public enum Type { SOFT_DELETE, RESTORE, PURGE }
+
+    public enum Status { PENDING, RUNNING, COMPLETED, FAILED }
+
+    @Id
+    private String id;
+    private String userId;
+    private Type type;
+    private Status status;
+
+    // true while PENDING or RUNNING; at most one active job per user
+    private boolean active;
+
+    // Timestamp stamped on cascaded posts (deletedAt / updatedAt)
+    private Instant cascadeAt;
+
+    // Checkpoint: every post with _id <= lastProcessedId has been handled
+    private String lastProcessedId;
+    private long processed;
+    private long chunksCompleted;
+    private Long estimatedTotal;
+
+    // Lease held by the worker node currently running the job
+    private String owner;
+    private Instant leaseExpiresAt;
+    private int attempts;
+    private String error;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant updatedAt;
+    private Instant completedAt;
+}
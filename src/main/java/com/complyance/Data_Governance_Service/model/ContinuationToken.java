@@ -0,0 +1,51 @@
+package com.complyance.Data_Governance_Service.model;
+
+import lombok.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position handed to clients as an opaque string: the sort field and
+ * direction, plus the sort value and id of the last item already returned.
+ * The next page starts strictly after (value, id).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContinuationToken {
+
+    private String sortField;
+    private boolean descending;
+    private String lastId;
+    private Object lastValue;   // Instant, Double (search score) or String
+
+    public String encode() {
+        String value = switch (lastValue) {
+            case Instant instant -> "t:" + instant.toEpochMilli();
+            case Double score -> "d:" + score;
+            case null, default -> "s:" + lastValue;
+        };
+        String raw = sortField + "|" + (descending ? "d" : "a") + "|" + lastId + "|" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ContinuationToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            String value = parts[3];
+            Object lastValue = switch (value.substring(0, 2)) {
+                case "t:" -> Instant.ofEpochMilli(Long.parseLong(value.substring(2)));
+                case "d:" -> Double.parseDouble(value.substring(2));
+                case "s:" -> value.substring(2);
+                default -> throw new IllegalArgumentException();
+            };
+            if (!parts[1].equals("a") && !parts[1].equals("d")) throw new IllegalArgumentException();
+            return new ContinuationToken(parts[0], parts[1].equals("d"), parts[2], lastValue);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.complyance.Data_Governance_Service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset (seek) listing; nextToken is null on the last page
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class KeysetPage<T> {
+    private List<T> items;
+    private String nextToken;
+    private int limit;
+    private Long totalItems;    // only when requested with count=true
+
+    /**
+     * Builds a page from a fetch of up to {@code limit + 1} items; the extra item
+     * only signals that another page exists and is not returned.
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit,
+                                       Function<T, ContinuationToken> positionOf, Long totalItems) {
+        boolean hasMore = fetched.size() > limit;
+        List<T> items = hasMore ? fetched.subList(0, limit) : fetched;
+        String nextToken = hasMore ? positionOf.apply(items.get(limit - 1)).encode() : null;
+        return new KeysetPage<>(items, nextToken, limit, totalItems);
+    }
+}
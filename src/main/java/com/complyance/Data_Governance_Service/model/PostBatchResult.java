@@ -0,0 +1,30 @@
+package com.complyance.Data_Governance_Service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of POST /posts:batch; items are in request order, each with the new post id or why it was not created
+@Data
+@NoArgsConstructor
+public class PostBatchResult {
+    private int received;
+    private int created;
+    private int failed;
+    private List<Item> items = new ArrayList<>();
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(int index, String id, String error) { }
+
+    public void created(int index, String id) {
+        items.add(new Item(index, id, null));
+        created++;
+    }
+
+    public void failed(int index, String error) {
+        items.add(new Item(index, null, error));
+        failed++;
+    }
+}
@@ -0,0 +1,28 @@
+package com.complyance.Data_Governance_Service.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * List view of a post. The excerpt is cut server-side in the find projection,
+ * so full post content never leaves Mongo for list endpoints.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummary {
+    public static final int EXCERPT_LENGTH = 200;
+
+    private String id;
+    private String userId;
+    private String title;
+    private String excerpt;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;       // search relevance, only on search results
+}
@@ -1,15 +1,15 @@
 package com.complyance.Data_Governance_Service.model;
 
-import com.mongodb.connection.ProxySettings;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -42,7 +42,20 @@ public class UserProfile {
     private Instant createdAt = Instant.now();
     private Instant updatedAt = Instant.now();
     private Instant deletedAt;
-    private List<AuditEntry> auditTrail = new ArrayList<>();
+
+    // Kept current with $inc by the post write paths and cascades, so listings need not count.
+    // Null on documents written before the counters existed, until PostCountReconciler fills them in.
+    private Long livePostCount;
+    private Long deletedPostCount;
+
+    // Bumped by every write; PUT/PATCH callers may echo it back to reject stale updates with 409
+    @Version
+    private Long version;
+
+    // Legacy embedded trail, only present on documents not yet moved by AuditTrailMigration.
+    // New entries go to audit_buckets through AuditService.
+    @JsonIgnore
+    private List<AuditEntry> auditTrail;
 
 }
 
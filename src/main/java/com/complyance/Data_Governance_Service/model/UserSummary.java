@@ -0,0 +1,25 @@
+package com.complyance.Data_Governance_Service.model;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * List view of a user. Only these fields are read from Mongo for list
+ * endpoints; the full UserProfile stays on GET /users/{id}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private String id;
+    private String username;
+    private String name;
+    private String email;
+    private List<String> roles;
+    private String status;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
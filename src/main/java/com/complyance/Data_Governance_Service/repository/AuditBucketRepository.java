@@ -0,0 +1,7 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.AuditBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AuditBucketRepository extends MongoRepository<AuditBucket, String>, AuditBucketRepositoryCustom {
+}
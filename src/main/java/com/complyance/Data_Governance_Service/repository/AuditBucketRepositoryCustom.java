@@ -0,0 +1,24 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import org.springframework.data.util.Pair;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public interface AuditBucketRepositoryCustom {
+
+    // Atomically appends to the user's open bucket for the entry's window, creating one if needed
+    void append(String userId, AuditEntry entry, Duration window, int maxEntries);
+
+    // Same as append, for many (userId, entry) pairs in one unordered bulk write
+    void appendAll(List<Pair<String, AuditEntry>> entries, Duration window, int maxEntries);
+
+    // Writes one user's existing entries into buckets whose ids are derived from the user, window and
+    // position, inserting only buckets that do not exist yet; repeating it with the same entries adds nothing
+    void insertLegacy(String userId, List<AuditEntry> entries, Duration window, int maxEntries);
+
+    // Entries in [from, to), newest first
+    List<AuditEntry> findEntries(String userId, Instant from, Instant to, Duration window, long skip, int limit);
+}
@@ -0,0 +1,141 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.AuditBucket;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.Pair;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class AuditBucketRepositoryCustomImpl implements AuditBucketRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public AuditBucketRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void append(String userId, AuditEntry entry, Duration window, int maxEntries) {
+        mongoTemplate.upsert(openBucket(userId, entry, window, maxEntries), push(entry), AuditBucket.class);
+    }
+
+    @Override
+    public void appendAll(List<Pair<String, AuditEntry>> entries, Duration window, int maxEntries) {
+        if (entries.isEmpty()) return;
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuditBucket.class);
+        for (Pair<String, AuditEntry> e : entries) {
+            bulk.upsert(openBucket(e.getFirst(), e.getSecond(), window, maxEntries), push(e.getSecond()));
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public void insertLegacy(String userId, List<AuditEntry> entries, Duration window, int maxEntries) {
+        if (entries.isEmpty()) return;
+
+        // Stable sort keeps the original order of entries that share a timestamp, so the chunks are the same on every run
+        Map<Instant, List<AuditEntry>> byWindow = new TreeMap<>();
+        entries.stream()
+                .sorted(Comparator.comparing(AuditEntry::getTimestamp))
+                .forEach(e -> byWindow.computeIfAbsent(windowStart(e.getTimestamp(), window), w -> new ArrayList<>()).add(e));
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AuditBucket.class);
+        byWindow.forEach((windowStart, inWindow) -> {
+            for (int from = 0, n = 0; from < inWindow.size(); from += maxEntries, n++) {
+                List<AuditEntry> chunk = inWindow.subList(from, Math.min(from + maxEntries, inWindow.size()));
+                String id = "legacy-" + userId + "-" + windowStart.toEpochMilli() + "-" + n;
+                bulk.upsert(query(where("_id").is(id)), new Update()
+                        .setOnInsert("userId", userId)
+                        .setOnInsert("windowStart", windowStart)
+                        .setOnInsert("count", chunk.size())
+                        .setOnInsert("entries", new ArrayList<>(chunk)));
+            }
+        });
+        bulk.execute();
+    }
+
+    // Walks the user's buckets newest window first, reading only (_id, windowStart, count) until the page is
+    // reached. A window inside [from, to) that the skip passes over entirely is skipped on its counts; entries
+    // are loaded for the windows the page touches and the boundary windows of the range, so a page costs
+    // the bucket headers before it plus a few windows, not the whole history.
+    @Override
+    public List<AuditEntry> findEntries(String userId, Instant from, Instant to, Duration window,
+                                        long skip, int limit) {
+        Criteria buckets = where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria windowStart = buckets.and("windowStart");
+            if (from != null) windowStart.gte(windowStart(from, window));
+            if (to != null) windowStart.lt(to);
+        }
+        Query headers = query(buckets).with(Sort.by("windowStart").descending());
+        headers.fields().include("_id", "windowStart", "count");
+        headers.cursorBatchSize(500);
+
+        List<AuditEntry> page = new ArrayList<>(limit);
+        long toSkip = skip;
+        try (Stream<AuditBucket> stream = mongoTemplate.stream(headers, AuditBucket.class)) {
+            Iterator<AuditBucket> it = stream.iterator();
+            AuditBucket next = it.hasNext() ? it.next() : null;
+            while (next != null && page.size() < limit) {
+                // Several buckets share a window once one fills up; they are read together
+                Instant windowStart = next.getWindowStart();
+                List<AuditBucket> inWindow = new ArrayList<>();
+                while (next != null && next.getWindowStart().equals(windowStart)) {
+                    inWindow.add(next);
+                    next = it.hasNext() ? it.next() : null;
+                }
+
+                boolean wholeWindow = (from == null || !windowStart.isBefore(from))
+                        && (to == null || !windowStart.plus(window).isAfter(to));
+                long total = inWindow.stream().mapToLong(AuditBucket::getCount).sum();
+                if (wholeWindow && toSkip >= total) {
+                    toSkip -= total;
+                    continue;
+                }
+
+                List<AuditEntry> entries = new ArrayList<>();
+                for (AuditBucket bucket : mongoTemplate.find(
+                        query(where("_id").in(inWindow.stream().map(AuditBucket::getId).toList())), AuditBucket.class)) {
+                    for (AuditEntry e : bucket.getEntries()) {
+                        if ((from == null || !e.getTimestamp().isBefore(from)) && (to == null || e.getTimestamp().isBefore(to))) {
+                            entries.add(e);
+                        }
+                    }
+                }
+                entries.sort(Comparator.comparing(AuditEntry::getTimestamp).reversed());
+                int start = (int) Math.min(toSkip, entries.size());
+                toSkip -= start;
+                page.addAll(entries.subList(start, Math.min(entries.size(), start + limit - page.size())));
+            }
+        }
+        return page;
+    }
+
+    private Query openBucket(String userId, AuditEntry entry, Duration window, int maxEntries) {
+        return query(where("userId").is(userId)
+                .and("windowStart").is(windowStart(entry.getTimestamp(), window))
+                .and("count").lt(maxEntries));
+    }
+
+    private Update push(AuditEntry entry) {
+        return new Update().push("entries", entry).inc("count", 1);
+    }
+
+    private static Instant windowStart(Instant timestamp, Duration window) {
+        long size = window.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(timestamp.toEpochMilli(), size) * size);
+    }
+}
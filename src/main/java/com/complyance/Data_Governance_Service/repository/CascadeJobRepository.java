@@ -0,0 +1,15 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CascadeJobRepository extends MongoRepository<CascadeJob, String>, CascadeJobRepositoryCustom {
+    boolean existsByUserIdAndActiveTrue(String userId);
+
+    List<CascadeJob> findByUserIdInAndActiveTrue(Collection<String> userIds);
+
+    long countByTypeAndStatusIn(CascadeJob.Type type, Collection<CascadeJob.Status> statuses);
+}
@@ -0,0 +1,23 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface CascadeJobRepositoryCustom {
+
+    // Atomically takes the oldest pending job, or a running job whose lease has expired
+    Optional<CascadeJob> claimNext(String owner, Instant now, Instant leaseExpiresAt);
+
+    // Records a finished chunk; returns false if the caller no longer owns the job
+    boolean checkpoint(String jobId, String owner, String lastProcessedId, long processedDelta,
+                       Instant leaseExpiresAt);
+
+    boolean setEstimatedTotal(String jobId, String owner, long estimatedTotal);
+
+    void complete(String jobId, String owner, CascadeJob.Status status, String error);
+
+    // Hands the job back to the queue so another attempt can resume from its checkpoint
+    void release(String jobId, String owner, String error);
+}
@@ -0,0 +1,95 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class CascadeJobRepositoryCustomImpl implements CascadeJobRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CascadeJobRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<CascadeJob> claimNext(String owner, Instant now, Instant leaseExpiresAt) {
+        Query claimable = query(new Criteria().orOperator(
+                where("status").is(CascadeJob.Status.PENDING),
+                where("status").is(CascadeJob.Status.RUNNING).and("leaseExpiresAt").lt(now)))
+                .with(Sort.by("createdAt").ascending());
+
+        Update claim = new Update()
+                .set("status", CascadeJob.Status.RUNNING)
+                .set("owner", owner)
+                .set("leaseExpiresAt", leaseExpiresAt)
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+
+        CascadeJob job = mongoTemplate.findAndModify(claimable, claim,
+                FindAndModifyOptions.options().returnNew(true), CascadeJob.class);
+
+        if (job != null && job.getStartedAt() == null) {
+            mongoTemplate.updateFirst(query(where("id").is(job.getId()).and("startedAt").is(null)),
+                    Update.update("startedAt", now), CascadeJob.class);
+            job.setStartedAt(now);
+        }
+        return Optional.ofNullable(job);
+    }
+
+    @Override
+    public boolean checkpoint(String jobId, String owner, String lastProcessedId, long processedDelta,
+                              Instant leaseExpiresAt) {
+        Update update = new Update()
+                .set("lastProcessedId", lastProcessedId)
+                .inc("processed", processedDelta)
+                .inc("chunksCompleted", 1)
+                .set("leaseExpiresAt", leaseExpiresAt)
+                .set("updatedAt", Instant.now());
+        return mongoTemplate.updateFirst(owned(jobId, owner), update, CascadeJob.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean setEstimatedTotal(String jobId, String owner, long estimatedTotal) {
+        return mongoTemplate.updateFirst(owned(jobId, owner),
+                Update.update("estimatedTotal", estimatedTotal), CascadeJob.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void complete(String jobId, String owner, CascadeJob.Status status, String error) {
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("status", status)
+                .set("active", false)
+                .set("error", error)
+                .set("completedAt", now)
+                .set("updatedAt", now)
+                .unset("leaseExpiresAt");
+        mongoTemplate.updateFirst(owned(jobId, owner), update, CascadeJob.class);
+    }
+
+    @Override
+    public void release(String jobId, String owner, String error) {
+        Update update = new Update()
+                .set("status", CascadeJob.Status.PENDING)
+                .set("error", error)
+                .set("updatedAt", Instant.now())
+                .unset("owner")
+                .unset("leaseExpiresAt");
+        mongoTemplate.updateFirst(owned(jobId, owner), update, CascadeJob.class);
+    }
+
+    private Query owned(String jobId, String owner) {
+        return query(where("id").is(jobId).and("owner").is(owner).and("status").is(CascadeJob.Status.RUNNING));
+    }
+}
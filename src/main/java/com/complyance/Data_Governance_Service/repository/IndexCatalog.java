@@ -0,0 +1,191 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.AuditBucket;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserPreference;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Single source of truth for the indexes behind every repository query.
+ * Spring Data auto index creation is off, so nothing else creates them.
+ * Most list queries only ever look at live documents, so their indexes are
+ * partial on {@code deleted = false} and stay small as soft-deleted data piles up.
+ */
+@Slf4j
+@Component
+public class IndexCatalog {
+
+    public record DeclaredIndex(Class<?> entity, IndexDefinition index) {
+        public String name() {
+            return index.getIndexOptions().getString("name");
+        }
+    }
+
+    private static final PartialIndexFilter LIVE_ONLY = PartialIndexFilter.of(where("deleted").is(false));
+    private static final Collation CASE_INSENSITIVE = Collation.of("en").strength(Collation.ComparisonLevel.secondary());
+
+    // Indexes replaced by a differently defined one under a new name; dropped when found
+    private static final Map<Class<?>, List<String>> RETIRED = Map.of(
+            UserProfile.class, List.of("username_unique"));
+
+    private static final List<DeclaredIndex> DECLARED = List.of(
+            // posts: list a user's live posts sorted by createdAt / updatedAt (offset and keyset)
+            new DeclaredIndex(Post.class, new Index()
+                    .on("userId", Sort.Direction.ASC).on("createdAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("user_live_created").partial(LIVE_ONLY)),
+            new DeclaredIndex(Post.class, new Index()
+                    .on("userId", Sort.Direction.ASC).on("updatedAt", Sort.Direction.DESC).on("_id", Sort.Direction.DESC)
+                    .named("user_live_updated").partial(LIVE_ONLY)),
+            // posts: cascade job chunks, per-user counts and purges
+            new DeclaredIndex(Post.class, new Index()
+                    .on("userId", Sort.Direction.ASC).on("deleted", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("user_deleted_id")),
+            // posts: full-text search over live posts, a title match ranking above a content match
+            new DeclaredIndex(Post.class, TextIndexDefinition.builder()
+                    .onField("title", 3F).onField("content")
+                    .named("live_text").partial(LIVE_ONLY).build()),
+
+            // users: uniqueness behind signup, enforced by the server instead of a pre-insert lookup.
+            // Case-insensitive, so "Alice" and "alice" collide.
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("username", Sort.Direction.ASC)
+                    .named("username_ci_unique").unique().collation(CASE_INSENSITIVE)),
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("email", Sort.Direction.ASC)
+                    .named("email_ci_unique").unique().collation(CASE_INSENSITIVE)),
+            // users: live listings sorted by createdAt / updatedAt / username (offset, keyset, export)
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("live_created").partial(LIVE_ONLY)),
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("updatedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("live_updated").partial(LIVE_ONLY)),
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("username", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("live_username").partial(LIVE_ONLY)),
+            // users: the purge sweeper's scan for soft-deleted users past the grace period
+            new DeclaredIndex(UserProfile.class, new Index()
+                    .on("deletedAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC)
+                    .named("deleted_at_expiry").partial(PartialIndexFilter.of(where("deleted").is(true)))),
+
+            // preferences: one document per user
+            new DeclaredIndex(UserPreference.class, new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .named("userId").unique()),
+
+            // cascade_jobs: at most one active job per user, and the worker claim queue
+            new DeclaredIndex(CascadeJob.class, new Index()
+                    .on("userId", Sort.Direction.ASC)
+                    .named("active_job_per_user").unique()
+                    .partial(PartialIndexFilter.of(where("active").is(true)))),
+            new DeclaredIndex(CascadeJob.class, new Index()
+                    .on("status", Sort.Direction.ASC).on("createdAt", Sort.Direction.ASC)
+                    .named("status_created")),
+
+            // audit_buckets: a user's history by time range
+            new DeclaredIndex(AuditBucket.class, new Index()
+                    .on("userId", Sort.Direction.ASC).on("windowStart", Sort.Direction.DESC)
+                    .named("user_window"))
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${mongo.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    public IndexCatalog(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public List<DeclaredIndex> declared() {
+        return DECLARED;
+    }
+
+    // Off the startup thread: index builds on large collections can take a while
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureOnStartup() {
+        if (!ensureOnStartup) return;
+        Thread thread = new Thread(() -> {
+            try {
+                ensureIndexes();
+            } catch (RuntimeException e) {
+                log.error("Could not ensure declared indexes", e);
+            }
+        }, "index-catalog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // createIndex is a no-op for an index that already exists with the same definition.
+    // One failing build (e.g. duplicates blocking a unique index) does not stop the others.
+    public Map<String, Object> ensureIndexes() {
+        Map<String, List<String>> ensured = new LinkedHashMap<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+
+        RETIRED.forEach((entity, names) -> {
+            Set<String> present = indexNames(entity);
+            names.stream().filter(present::contains).forEach(name -> {
+                mongoTemplate.indexOps(entity).dropIndex(name);
+                log.info("Dropped retired index {}.{}", mongoTemplate.getCollectionName(entity), name);
+            });
+        });
+
+        for (DeclaredIndex declared : DECLARED) {
+            String collection = mongoTemplate.getCollectionName(declared.entity());
+            try {
+                mongoTemplate.indexOps(declared.entity()).createIndex(declared.index());
+                ensured.computeIfAbsent(collection, c -> new ArrayList<>()).add(declared.name());
+            } catch (RuntimeException e) {
+                log.error("Could not build index {}.{}", collection, declared.name(), e);
+                failed.put(collection + "." + declared.name(), e.getMessage());
+            }
+        }
+        log.info("Ensured {} of {} declared indexes", DECLARED.size() - failed.size(), DECLARED.size());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("ensured", ensured);
+        report.put("failed", failed);
+        return report;
+    }
+
+    private Set<String> indexNames(Class<?> entity) {
+        return new HashSet<>(mongoTemplate.indexOps(entity).getIndexInfo().stream()
+                .map(IndexInfo::getName).toList());
+    }
+
+    public Map<String, Object> verify() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        Map<Class<?>, Set<String>> present = new HashMap<>();
+        for (DeclaredIndex declared : DECLARED) {
+            Set<String> names = present.computeIfAbsent(declared.entity(), this::indexNames);
+            if (!names.contains(declared.name())) {
+                missing.add(mongoTemplate.getCollectionName(declared.entity()) + "." + declared.name());
+            }
+        }
+
+        report.put("declared", DECLARED.size());
+        report.put("missing", missing);
+        report.put("ok", missing.isEmpty());
+        return report;
+    }
+}
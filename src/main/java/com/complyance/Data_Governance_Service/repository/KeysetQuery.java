@@ -0,0 +1,39 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Builds seek queries ordered by (sortField, _id). Instead of skipping the
+ * first N documents, the next page filters on
+ * {@code sortField > v OR (sortField == v AND _id > id)} (reversed for
+ * descending order), so every page costs the same index range scan.
+ */
+final class KeysetQuery {
+
+    private KeysetQuery() {
+    }
+
+    static Query build(Criteria base, String sortField, boolean descending, ContinuationToken after, int limit) {
+        Criteria criteria = after == null ? base : new Criteria().andOperator(base, seek(after));
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return query(criteria)
+                .with(Sort.by(direction, sortField, "id"))
+                .limit(limit);
+    }
+
+    private static Criteria seek(ContinuationToken after) {
+        String field = after.getSortField();
+        Object value = after.getLastValue();
+        Criteria beyond = after.isDescending() ? where(field).lt(value) : where(field).gt(value);
+        Criteria tie = after.isDescending()
+                ? where(field).is(value).and("id").lt(after.getLastId())
+                : where(field).is(value).and("id").gt(after.getLastId());
+        return new Criteria().orOperator(beyond, tie);
+    }
+}
@@ -4,11 +4,17 @@ import com.complyance.Data_Governance_Service.model.Post;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+
 import java.util.List;
+import java.util.Optional;
 
-public interface PostRepository extends MongoRepository<Post, String> {
+public interface PostRepository extends MongoRepository<Post, String>, PostRepositoryCustom {
+    Optional<Post> findByIdAndDeletedFalse(String id);
     List<Post> findByUserIdAndDeletedFalse(String userId);
     Page<Post> findByUserIdAndDeletedFalse(String userId, Pageable pageable);
     List<Post> findByUserIdAndDeletedTrue(String userId);
     void deleteByUserId(String userId);
+
+    long countByUserId(String userId);
+    long countByUserIdAndDeleted(String userId, boolean deleted);
 }
@@ -0,0 +1,44 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.PostSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+public interface PostRepositoryCustom {
+
+    // lastWrittenAt: newest updatedAt among the counted posts, null when there are none
+    record UserPostCounts(long live, long deleted, Instant lastWrittenAt) { }
+
+    // Summaries of a user's live posts, one offset page or (unpaged) all of them
+    Page<PostSummary> findActiveSummariesByUser(String userId, Pageable pageable);
+
+    // Same, with the total taken from liveCount; it is only asked for when the page alone does not tell
+    Page<PostSummary> findActiveSummariesByUser(String userId, Pageable pageable, LongSupplier liveCount);
+
+    // A user's live posts ordered by (sortField, _id), starting strictly after the token position
+    List<PostSummary> findActiveByUserAfter(String userId, String sortField, boolean descending,
+                                            ContinuationToken after, int limit);
+
+    // Live posts matching a text search, by (score, _id) descending, starting strictly after the token position
+    List<PostSummary> searchLive(String text, ContinuationToken after, int limit, Duration maxTime);
+
+    // Next chunk of a user's post ids in _id order; deleted == null matches both states
+    List<String> findIdChunk(String userId, Boolean deleted, String afterId, int limit);
+
+    long softDeleteByIds(List<String> ids, Instant deletedAt);
+
+    long restoreByIds(List<String> ids, Instant restoredAt);
+
+    long removeByIds(List<String> ids);
+
+    // Live and soft-deleted post counts per user, with their latest write; users without posts are absent
+    Map<String, UserPostCounts> countByUserIds(Collection<String> userIds);
+}
@@ -0,0 +1,167 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostSummary;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoExpression;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class PostRepositoryCustomImpl implements PostRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public PostRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Page<PostSummary> findActiveSummariesByUser(String userId, Pageable pageable) {
+        return findActiveSummariesByUser(userId, pageable, () -> mongoTemplate.count(
+                query(where("userId").is(userId).and("deleted").is(false)), Post.class));
+    }
+
+    @Override
+    public Page<PostSummary> findActiveSummariesByUser(String userId, Pageable pageable, LongSupplier liveCount) {
+        Criteria live = where("userId").is(userId).and("deleted").is(false);
+        List<PostSummary> content = findSummaries(query(live).with(pageable));
+        return PageableExecutionUtils.getPage(content, pageable, liveCount);
+    }
+
+    @Override
+    public List<PostSummary> findActiveByUserAfter(String userId, String sortField, boolean descending,
+                                                   ContinuationToken after, int limit) {
+        Criteria base = where("userId").is(userId).and("deleted").is(false);
+        return findSummaries(KeysetQuery.build(base, sortField, descending, after, limit));
+    }
+
+    // Reads only the summary fields; the excerpt is cut by the server, not after the full content arrives
+    private List<PostSummary> findSummaries(Query query) {
+        query.fields()
+                .include("userId", "title", "createdAt", "updatedAt")
+                .project(MongoExpression.create(
+                        "{ $substrCP: ['$content', 0, " + PostSummary.EXCERPT_LENGTH + "] }"))
+                .as("excerpt");
+        return mongoTemplate.find(query, PostSummary.class, mongoTemplate.getCollectionName(Post.class));
+    }
+
+    @Override
+    public List<PostSummary> searchLive(String text, ContinuationToken after, int limit, Duration maxTime) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        // $text has to lead the pipeline; deleted = false is what lets it use the partial live_text index
+        stages.add(Aggregation.stage(new Document("$match",
+                new Document("$text", new Document("$search", text)).append("deleted", false))));
+        stages.add(Aggregation.stage(new Document("$addFields",
+                new Document("score", new Document("$meta", "textScore")))));
+        if (after != null) {
+            Object lastId = ObjectId.isValid(after.getLastId()) ? new ObjectId(after.getLastId()) : after.getLastId();
+            stages.add(Aggregation.stage(new Document("$match", new Document("$or", List.of(
+                    new Document("score", new Document("$lt", after.getLastValue())),
+                    new Document("score", after.getLastValue()).append("_id", new Document("$lt", lastId)))))));
+        }
+        // Sort + limit run as a top-k sort, so memory stays at one page however many posts match
+        stages.add(Aggregation.stage(new Document("$sort", new Document("score", -1).append("_id", -1))));
+        stages.add(Aggregation.stage(new Document("$limit", limit)));
+        stages.add(Aggregation.stage(new Document("$project", new Document("userId", 1)
+                .append("title", 1)
+                .append("createdAt", 1)
+                .append("updatedAt", 1)
+                .append("score", 1)
+                .append("excerpt", new Document("$substrCP", List.of("$content", 0, PostSummary.EXCERPT_LENGTH))))));
+
+        Aggregation aggregation = Aggregation.newAggregation(stages)
+                .withOptions(AggregationOptions.builder().maxTime(maxTime).build());
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Post.class), PostSummary.class)
+                .getMappedResults();
+    }
+
+    @Override
+    public List<String> findIdChunk(String userId, Boolean deleted, String afterId, int limit) {
+        Criteria criteria = where("userId").is(userId);
+        // Pinning deleted to explicit values lets the (userId, deleted, _id) index still return _id order
+        criteria.and("deleted").in(deleted != null ? List.of(deleted) : List.of(false, true));
+        if (afterId != null) criteria.and("id").gt(afterId);
+
+        Query query = query(criteria)
+                .with(Sort.by("id").ascending())
+                .limit(limit);
+        query.fields().include("id");
+
+        return mongoTemplate.find(query, Post.class).stream().map(Post::getId).toList();
+    }
+
+    @Override
+    public long softDeleteByIds(List<String> ids, Instant deletedAt) {
+        Update update = new Update()
+                .set("deleted", true)
+                .set("deletedAt", deletedAt)
+                .set("updatedAt", deletedAt);
+        return mongoTemplate.updateMulti(query(where("id").in(ids).and("deleted").is(false)), update, Post.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long restoreByIds(List<String> ids, Instant restoredAt) {
+        Update update = new Update()
+                .set("deleted", false)
+                .set("updatedAt", restoredAt)
+                .unset("deletedAt");
+        return mongoTemplate.updateMulti(query(where("id").in(ids).and("deleted").is(true)), update, Post.class)
+                .getModifiedCount();
+    }
+
+    @Override
+    public long removeByIds(List<String> ids) {
+        return mongoTemplate.remove(query(where("id").in(ids)), Post.class).getDeletedCount();
+    }
+
+    // Grouped on (userId, deleted), both keys of user_deleted_id, so the count never fetches a post
+    @Override
+    public Map<String, UserPostCounts> countByUserIds(Collection<String> userIds) {
+        Aggregation count = Aggregation.newAggregation(
+                Aggregation.match(where("userId").in(userIds)),
+                Aggregation.group("userId", "deleted").count().as("count").max("updatedAt").as("lastWrittenAt"));
+
+        Map<String, UserPostCounts> result = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(count, Post.class, Document.class)) {
+            Document key = group.get("_id", Document.class);
+            boolean deleted = Boolean.TRUE.equals(key.get("deleted"));
+            long n = ((Number) group.get("count")).longValue();
+            Date written = group.getDate("lastWrittenAt");
+            UserPostCounts part = new UserPostCounts(deleted ? 0 : n, deleted ? n : 0,
+                    written != null ? written.toInstant() : null);
+            result.merge(key.getString("userId"), part, (a, b) -> new UserPostCounts(a.live() + b.live(),
+                    a.deleted() + b.deleted(), latest(a.lastWrittenAt(), b.lastWrittenAt())));
+        }
+        return result;
+    }
+
+    private static Instant latest(Instant a, Instant b) {
+        if (a == null) return b;
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
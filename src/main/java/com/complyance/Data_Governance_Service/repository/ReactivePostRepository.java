@@ -0,0 +1,15 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.Post;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking reads for the streaming API; writes stay on PostRepository
+public interface ReactivePostRepository extends ReactiveMongoRepository<Post, String> {
+
+    // Small cursor batches: the next batch is only fetched once the client has taken the previous one
+    @Meta(cursorBatchSize = 100)
+    Flux<Post> findByUserIdAndDeletedFalse(String userId, Sort sort);
+}
@@ -0,0 +1,14 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+// Non-blocking reads for the streaming API; writes stay on UserRepository
+public interface ReactiveUserRepository extends ReactiveMongoRepository<UserProfile, String> {
+
+    // Ordered by createdAt so the scan walks the partial live-users index
+    @Meta(cursorBatchSize = 100)
+    Flux<UserProfile> findAllByDeletedFalseOrderByCreatedAtAsc();
+}
@@ -2,11 +2,22 @@ package com.complyance.Data_Governance_Service.repository;
 
 import com.complyance.Data_Governance_Service.model.UserPreference;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
+import java.time.Instant;
 import java.util.Optional;
 
-public interface UserPreferenceRepository extends MongoRepository<UserPreference, String> {
+public interface UserPreferenceRepository extends MongoRepository<UserPreference, String>, UserPreferenceRepositoryCustom {
     Optional<UserPreference> findByUserId(String userId);
 
     void deleteByUserId(String userId);
+
+    @Query("{ 'userId': ?0, 'deleted': false }")
+    @Update("{ '$set': { 'deleted': true, 'deletedAt': ?1, 'updatedAt': ?1 } }")
+    long softDeleteByUserId(String userId, Instant deletedAt);
+
+    @Query("{ 'userId': ?0, 'deleted': true }")
+    @Update("{ '$set': { 'deleted': false, 'updatedAt': ?1 }, '$unset': { 'deletedAt': '' } }")
+    long restoreByUserId(String userId, Instant restoredAt);
 }
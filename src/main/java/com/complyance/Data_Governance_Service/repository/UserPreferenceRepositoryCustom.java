@@ -0,0 +1,13 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.UserPreference;
+
+import java.time.Instant;
+
+public interface UserPreferenceRepositoryCustom {
+
+    // Creates or updates the user's live preferences in one findAndModify; returns the stored document.
+    // Throws DuplicateKeyException when the user's preferences exist but are soft-deleted, or when a
+    // concurrent first write for the same user inserted its document between this one's match and insert.
+    UserPreference upsertLive(String userId, UserPreference values, Instant now);
+}
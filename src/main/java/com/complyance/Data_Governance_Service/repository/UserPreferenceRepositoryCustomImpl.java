@@ -0,0 +1,35 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.UserPreference;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class UserPreferenceRepositoryCustomImpl implements UserPreferenceRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserPreferenceRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public UserPreference upsertLive(String userId, UserPreference values, Instant now) {
+        // An insert copies userId and deleted=false from the filter. A soft-deleted document does
+        // not match, so the insert collides with it on the unique userId index instead.
+        Update update = new Update()
+                .set("theme", values.getTheme())
+                .set("language", values.getLanguage())
+                .set("notificationsEnabled", values.isNotificationsEnabled())
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+
+        return mongoTemplate.findAndModify(query(where("userId").is(userId).and("deleted").is(false)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), UserPreference.class);
+    }
+}
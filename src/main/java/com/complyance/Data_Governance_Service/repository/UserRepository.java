@@ -2,16 +2,48 @@ package com.complyance.Data_Governance_Service.repository;
 
 import com.complyance.Data_Governance_Service.model.UserPreference;
 import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.model.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+
+import java.time.Instant;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends MongoRepository<UserProfile, String> {
+public interface UserRepository extends MongoRepository<UserProfile, String>, UserRepositoryCustom {
     Optional<UserProfile> findByIdAndDeletedFalse(String id);
-    Page<UserProfile> findAllByDeletedFalse(Pageable pageable);
+    boolean existsByIdAndDeletedFalse(String id);
+
+    // DTO projection: only the UserSummary fields are read from Mongo
+    Page<UserSummary> findAllByDeletedFalse(Pageable pageable);
+
+    // Server-side cursor over live users, fetched in batches rather than loaded at once.
+    // Ordering by createdAt lets the scan walk the partial live-users index instead of the collection.
+    @Meta(cursorBatchSize = 500)
+    Stream<UserProfile> streamAllByDeletedFalseOrderByCreatedAtAsc();
+
+    // Targeted flag flips: only the deletion fields change, the rest of the document is left alone
+    @Query("{ '_id': ?0, 'deleted': false }")
+    @Update("{ '$set': { 'deleted': true, 'deletedAt': ?1, 'updatedAt': ?1 }, '$inc': { 'version': 1 } }")
+    long markDeleted(String id, Instant deletedAt);
+
+    @Query("{ '_id': ?0, 'deleted': true }")
+    @Update("{ '$set': { 'deleted': false, 'updatedAt': ?1 }, '$unset': { 'deletedAt': '' }, '$inc': { 'version': 1 } }")
+    long markRestored(String id, Instant restoredAt);
+
+    // Post counters. Documents from before the counters existed are skipped: $inc would start them
+    // at the delta, so they are left to PostCountReconciler. The version is not bumped.
+    @Query("{ '_id': ?0, 'livePostCount': { '$exists': true } }")
+    @Update("{ '$inc': { 'livePostCount': ?1, 'deletedPostCount': ?2 } }")
+    long incrementPostCounts(String userId, long liveDelta, long deletedDelta);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'livePostCount': 1, 'deletedPostCount': 1 }")
+    Optional<UserProfile> findPostCountsById(String id);
 
     boolean existsByEmail(String email);
-    boolean existsByUsername(String username);
 }
 
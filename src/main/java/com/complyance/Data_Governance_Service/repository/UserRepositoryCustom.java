@@ -0,0 +1,37 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.model.UserSummary;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Live users ordered by (sortField, _id), starting strictly after the token position
+    List<UserSummary> findActiveAfter(String sortField, boolean descending, ContinuationToken after, int limit);
+
+    long countActive();
+
+    // Soft-deleted users with deletedAt before the cutoff, in (deletedAt, _id) order after the cursor.
+    // Only id and deletedAt are read.
+    List<UserProfile> findDeletedBefore(Instant cutoff, ContinuationToken after, int limit);
+
+    // One conditional findAndModify on a live user that also bumps the version. With expectedVersion
+    // set, it only matches that version. Returns the document as it was before the update.
+    Optional<UserProfile> updateLive(String id, Long expectedVersion, Update update);
+
+    // Adds each user's count of newly created posts to livePostCount in one unordered bulk write.
+    // Users without counters are skipped, as in UserRepository.incrementPostCounts.
+    void addLivePostCounts(Map<String, Long> created);
+
+    // All users, live or not, in _id order after afterId. Only id and the post counters are read.
+    List<UserProfile> findPostCountsAfter(String afterId, int limit);
+
+    // Overwrites the post counters only if they still hold the expected values (null = missing)
+    boolean resetPostCounts(String id, Long expectedLive, Long expectedDeleted, long live, long deleted);
+}
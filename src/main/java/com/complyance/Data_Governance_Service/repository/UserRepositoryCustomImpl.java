@@ -0,0 +1,89 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.model.UserSummary;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<UserSummary> findActiveAfter(String sortField, boolean descending, ContinuationToken after, int limit) {
+        // as(UserSummary) restricts the returned fields to the summary's properties
+        return mongoTemplate.query(UserProfile.class)
+                .as(UserSummary.class)
+                .matching(KeysetQuery.build(where("deleted").is(false), sortField, descending, after, limit))
+                .all();
+    }
+
+    // {deleted: false} alone names no index key, so hint the partial live-users index
+    @Override
+    public long countActive() {
+        return mongoTemplate.count(query(where("deleted").is(false)).withHint("live_created"), UserProfile.class);
+    }
+
+    @Override
+    public List<UserProfile> findDeletedBefore(Instant cutoff, ContinuationToken after, int limit) {
+        Query query = KeysetQuery.build(where("deleted").is(true).and("deletedAt").lt(cutoff),
+                "deletedAt", false, after, limit);
+        query.fields().include("id").include("deletedAt");
+        return mongoTemplate.find(query, UserProfile.class);
+    }
+
+    @Override
+    public Optional<UserProfile> updateLive(String id, Long expectedVersion, Update update) {
+        Criteria live = where("id").is(id).and("deleted").is(false);
+        if (expectedVersion != null) live.and("version").is(expectedVersion);
+
+        return Optional.ofNullable(mongoTemplate.findAndModify(query(live), update.inc("version", 1),
+                FindAndModifyOptions.options().returnNew(false), UserProfile.class));
+    }
+
+    @Override
+    public void addLivePostCounts(Map<String, Long> created) {
+        if (created.isEmpty()) return;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserProfile.class);
+        created.forEach((userId, count) -> bulk.updateOne(
+                query(where("id").is(userId).and("livePostCount").exists(true)),
+                new Update().inc("livePostCount", count)));
+        bulk.execute();
+    }
+
+    @Override
+    public List<UserProfile> findPostCountsAfter(String afterId, int limit) {
+        Query query = query(afterId != null ? where("id").gt(afterId) : new Criteria())
+                .with(Sort.by("id").ascending())
+                .limit(limit);
+        query.fields().include("id", "livePostCount", "deletedPostCount");
+        return mongoTemplate.find(query, UserProfile.class);
+    }
+
+    @Override
+    public boolean resetPostCounts(String id, Long expectedLive, Long expectedDeleted, long live, long deleted) {
+        Query unchanged = query(where("id").is(id)
+                .and("livePostCount").is(expectedLive)
+                .and("deletedPostCount").is(expectedDeleted));
+        Update update = new Update().set("livePostCount", live).set("deletedPostCount", deleted);
+        return mongoTemplate.updateFirst(unchanged, update, UserProfile.class).getModifiedCount() > 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.repository.AuditBucketRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class AuditService {
+
+    private final AuditBucketRepository auditRepo;
+
+    @Value("${audit.bucket.window-hours:24}")
+    private long windowHours;
+
+    @Value("${audit.bucket.max-entries:200}")
+    private int maxEntries;
+
+    public AuditService(AuditBucketRepository auditRepo) {
+        this.auditRepo = auditRepo;
+    }
+
+    public static AuditEntry entry(String action, String details) {
+        return AuditEntry.builder()
+                .action(action)
+                .performedBy("SYSTEM")  // or later from SecurityContext
+                .timestamp(Instant.now())
+                .details(details)
+                .build();
+    }
+
+    public void record(String userId, String action, String details) {
+        auditRepo.append(userId, entry(action, details), window(), maxEntries);
+    }
+
+    public void recordAll(List<Pair<String, AuditEntry>> entries) {
+        auditRepo.appendAll(entries, window(), maxEntries);
+    }
+
+    // Safe to repeat: a second import of the same entries writes nothing
+    public void importLegacy(String userId, List<AuditEntry> entries) {
+        auditRepo.insertLegacy(userId, entries, window(), maxEntries);
+    }
+
+    public Map<String, Object> getAuditTrail(String userId, Instant from, Instant to, int page, int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and 500");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        // Fetch one extra entry to know whether another page exists without counting
+        List<AuditEntry> entries = auditRepo.findEntries(userId, from, to, window(), (long) page * size, size + 1);
+        boolean hasNext = entries.size() > size;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("entries", hasNext ? entries.subList(0, size) : entries);
+        response.put("currentPage", page);
+        response.put("size", size);
+        response.put("hasNext", hasNext);
+        return response;
+    }
+
+    private Duration window() {
+        return Duration.ofHours(windowHours);
+    }
+}
@@ -0,0 +1,150 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.client.result.UpdateResult;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-time move of the legacy embedded UserProfile.auditTrail arrays into
+ * audit_buckets. Users are streamed from a cursor one at a time; each user's
+ * trail is written to buckets with ids derived from the user and window, and
+ * only then removed from the document. A run that stops in between, or a
+ * second runner on the same user, rewrites nothing and loses nothing.
+ *
+ * A node claims the run by inserting the marker in the migrations collection
+ * as RUNNING, and marks it COMPLETED at the end so it never reruns. Nodes
+ * that start meanwhile leave it alone; a claim whose heartbeat is older than
+ * audit.migration.lease-minutes (its node died) is taken over. The claim
+ * carries an owner token, and every later write to the marker matches on it.
+ */
+@Slf4j
+@Component
+public class AuditTrailMigration {
+
+    static final String MIGRATION_ID = "audit-trail-to-buckets";
+    private static final String MIGRATIONS = "migrations";
+    private static final int HEARTBEAT_EVERY = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final AuditService auditService;
+
+    @Value("${audit.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.migration.lease-minutes:10}")
+    private long leaseMinutes;
+
+    public AuditTrailMigration(MongoTemplate mongoTemplate, AuditService auditService) {
+        this.mongoTemplate = mongoTemplate;
+        this.auditService = auditService;
+    }
+
+    // Runs off the startup thread so a large collection does not delay readiness
+    @EventListener(ApplicationReadyEvent.class)
+    public void runOnStartup() {
+        if (!enabled) return;
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                log.error("Audit trail migration failed, the next startup picks it up again", e);
+            }
+        }, "audit-trail-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public long migrate() {
+        String owner = UUID.randomUUID().toString();
+        if (!claim(owner)) return 0;
+        Query held = query(where("_id").is(MIGRATION_ID).and("state").is("RUNNING").and("owner").is(owner));
+
+        Query withTrail = query(where("auditTrail").exists(true));
+        withTrail.fields().include("auditTrail");
+        withTrail.cursorBatchSize(20);
+        String users = mongoTemplate.getCollectionName(UserProfile.class);
+
+        long moved = 0;
+        long entries = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(withTrail, Document.class, users)) {
+            for (Document user : (Iterable<Document>) stream::iterator) {
+                Object userId = user.get("_id");
+                List<AuditEntry> trail = new ArrayList<>();
+                for (Document raw : user.getList("auditTrail", Document.class, List.of())) {
+                    AuditEntry entry = mongoTemplate.getConverter().read(AuditEntry.class, raw);
+                    if (entry.getTimestamp() == null) entry.setTimestamp(Instant.EPOCH);
+                    trail.add(entry);
+                }
+
+                // Write first, then drop the trail: a failure in between leaves it in place, and the import
+                // writes nothing when a later run repeats it
+                auditService.importLegacy(userId.toString(), trail);
+                UpdateResult unset = mongoTemplate.updateFirst(
+                        query(where("_id").is(userId).and("auditTrail").exists(true)),
+                        new Update().unset("auditTrail"), users);
+                if (unset.getModifiedCount() == 0) continue;
+
+                moved++;
+                entries += trail.size();
+                if (moved % HEARTBEAT_EVERY == 0) {
+                    renew(held, new Update().set("heartbeatAt", Instant.now()));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Release the claim so the next startup does not wait out the lease
+            mongoTemplate.updateFirst(held, new Update().set("heartbeatAt", Instant.EPOCH), MIGRATIONS);
+            throw e;
+        }
+
+        renew(held, new Update()
+                .set("state", "COMPLETED").set("completedAt", Instant.now())
+                .set("users", moved).set("entries", entries));
+        log.info("Migrated {} audit entries from {} users into audit_buckets", entries, moved);
+        return entries;
+    }
+
+    // Inserts the marker as RUNNING. A duplicate means the migration is done or another node is running
+    // it; only a RUNNING claim whose heartbeat is past the lease is taken over.
+    private boolean claim(String owner) {
+        Instant now = Instant.now();
+        try {
+            mongoTemplate.insert(new Document("_id", MIGRATION_ID).append("state", "RUNNING").append("owner", owner)
+                    .append("startedAt", now).append("heartbeatAt", now), MIGRATIONS);
+            return true;
+        } catch (DuplicateKeyException e) {
+            Query stale = query(where("_id").is(MIGRATION_ID).and("state").is("RUNNING")
+                    .and("heartbeatAt").lt(now.minus(Duration.ofMinutes(leaseMinutes))));
+            return mongoTemplate.findAndModify(stale, new Update().set("owner", owner).set("heartbeatAt", now),
+                    Document.class, MIGRATIONS) != null;
+        }
+    }
+
+    // Writes to the marker only while this run still owns it. A node that stalled past the lease finds its
+    // claim taken over and stops instead of running alongside the new owner.
+    private void renew(Query held, Update update) {
+        if (mongoTemplate.updateFirst(held, update, MIGRATIONS).getMatchedCount() == 0) {
+            throw new ConflictException("Audit trail migration claim was taken over by another node");
+        }
+    }
+}
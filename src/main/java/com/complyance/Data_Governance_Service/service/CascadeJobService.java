@@ -0,0 +1,227 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.repository.CascadeJobRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.repository.UserPreferenceRepository;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class CascadeJobService {
+
+    private final CascadeJobRepository jobRepo;
+    private final PostRepository postRepo;
+    private final UserPreferenceRepository prefRepo;
+    private final UserRepository userRepo;
+    private final PreferenceCache preferenceCache;
+    private final LiveUserIndex liveUsers;
+    private final SystemMetrics metrics;
+
+    // Identifies this node as the lease owner of the jobs it runs
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${cascade.jobs.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${cascade.jobs.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${cascade.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    public CascadeJobService(CascadeJobRepository jobRepo,
+                             PostRepository postRepo,
+                             UserPreferenceRepository prefRepo,
+                             UserRepository userRepo,
+                             PreferenceCache preferenceCache,
+                             LiveUserIndex liveUsers,
+                             SystemMetrics metrics) {
+        this.jobRepo = jobRepo;
+        this.postRepo = postRepo;
+        this.prefRepo = prefRepo;
+        this.userRepo = userRepo;
+        this.preferenceCache = preferenceCache;
+        this.liveUsers = liveUsers;
+        this.metrics = metrics;
+    }
+
+    public CascadeJob enqueue(String userId, CascadeJob.Type type, Instant cascadeAt) {
+        if (jobRepo.existsByUserIdAndActiveTrue(userId)) {
+            throw new ConflictException("A cascade job is already in progress for this user");
+        }
+
+        Instant now = Instant.now();
+        CascadeJob job = CascadeJob.builder()
+                .userId(userId)
+                .type(type)
+                .status(CascadeJob.Status.PENDING)
+                .active(true)
+                .cascadeAt(cascadeAt)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+
+        try {
+            return jobRepo.insert(job);
+        } catch (DuplicateKeyException e) {
+            // Lost the race against a concurrent request for the same user
+            throw new ConflictException("A cascade job is already in progress for this user");
+        }
+    }
+
+    // Jobs of this type still waiting for or holding a worker
+    public long countInFlight(CascadeJob.Type type) {
+        return jobRepo.countByTypeAndStatusIn(type, List.of(CascadeJob.Status.PENDING, CascadeJob.Status.RUNNING));
+    }
+
+    // Jobs of this type that ended in the given status, across every node
+    public long countFinished(CascadeJob.Type type, CascadeJob.Status status) {
+        return jobRepo.countByTypeAndStatusIn(type, List.of(status));
+    }
+
+    public CascadeJob getJob(String id) {
+        return jobRepo.findById(id)
+                .orElseThrow(() -> new NotFoundException("Job not found"));
+    }
+
+    public Map<String, Object> getJobStatus(String id) {
+        return toStatus(getJob(id));
+    }
+
+    public Map<String, Object> toStatus(CascadeJob job) {
+        Map<String, Object> status = new HashMap<>();
+        status.put("jobId", job.getId());
+        status.put("userId", job.getUserId());
+        status.put("type", job.getType());
+        status.put("status", job.getStatus());
+        status.put("processed", job.getProcessed());
+        status.put("chunksCompleted", job.getChunksCompleted());
+        status.put("estimatedTotal", job.getEstimatedTotal());
+        status.put("attempts", job.getAttempts());
+        status.put("createdAt", job.getCreatedAt());
+        status.put("startedAt", job.getStartedAt());
+        status.put("completedAt", job.getCompletedAt());
+        status.put("error", job.getError());
+
+        if (job.getEstimatedTotal() != null && job.getEstimatedTotal() > 0) {
+            double percent = Math.min(100.0, 100.0 * job.getProcessed() / job.getEstimatedTotal());
+            status.put("percentComplete", Math.round(percent * 10) / 10.0);
+        } else if (job.getStatus() == CascadeJob.Status.COMPLETED) {
+            status.put("percentComplete", 100.0);
+        }
+
+        if (job.getStartedAt() != null) {
+            Instant end = job.getCompletedAt() != null ? job.getCompletedAt() : job.getUpdatedAt();
+            long elapsedMillis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            status.put("docsPerSecond", Math.round(job.getProcessed() * 1000.0 / elapsedMillis));
+        }
+        return status;
+    }
+
+    public Optional<CascadeJob> claimNext() {
+        Instant now = Instant.now();
+        return jobRepo.claimNext(nodeId, now, now.plusSeconds(leaseSeconds));
+    }
+
+    /**
+     * Runs a claimed job to completion, one chunk at a time. Every chunk is
+     * checkpointed before the next one starts; if the lease is lost to another
+     * node the loop stops and leaves the job to its new owner.
+     */
+    public void run(CascadeJob job) {
+        try {
+            if (job.getEstimatedTotal() == null) {
+                long total = estimateTotal(job);
+                jobRepo.setEstimatedTotal(job.getId(), nodeId, total + job.getProcessed());
+                job.setEstimatedTotal(total + job.getProcessed());
+            }
+
+            while (true) {
+                List<String> ids = postRepo.findIdChunk(job.getUserId(), chunkFilter(job.getType()),
+                        job.getLastProcessedId(), chunkSize);
+                if (ids.isEmpty()) break;
+
+                long affected = switch (job.getType()) {
+                    case SOFT_DELETE -> postRepo.softDeleteByIds(ids, job.getCascadeAt());
+                    case RESTORE -> postRepo.restoreByIds(ids, job.getCascadeAt());
+                    case PURGE -> postRepo.removeByIds(ids);
+                };
+                // A purge removes what the soft-delete cascade already flagged, so it comes off the deleted count
+                switch (job.getType()) {
+                    case SOFT_DELETE -> postsChanged(job, -affected, affected);
+                    case RESTORE -> postsChanged(job, affected, -affected);
+                    case PURGE -> postsChanged(job, 0, -affected);
+                }
+
+                String lastId = ids.get(ids.size() - 1);
+                if (!jobRepo.checkpoint(job.getId(), nodeId, lastId, affected,
+                        Instant.now().plusSeconds(leaseSeconds))) {
+                    log.warn("Lost lease on cascade job {} — stopping", job.getId());
+                    return;
+                }
+                job.setLastProcessedId(lastId);
+                job.setProcessed(job.getProcessed() + affected);
+
+                if (ids.size() < chunkSize) break;
+            }
+
+            finish(job);
+            jobRepo.complete(job.getId(), nodeId, CascadeJob.Status.COMPLETED, null);
+        } catch (RuntimeException e) {
+            log.error("Cascade job {} failed on attempt {}", job.getId(), job.getAttempts(), e);
+            if (job.getAttempts() >= maxAttempts) {
+                jobRepo.complete(job.getId(), nodeId, CascadeJob.Status.FAILED, e.getMessage());
+            } else {
+                jobRepo.release(job.getId(), nodeId, e.getMessage());
+            }
+        }
+    }
+
+    private void postsChanged(CascadeJob job, long liveDelta, long deletedDelta) {
+        metrics.postsChanged(liveDelta, deletedDelta);
+        if (liveDelta != 0 || deletedDelta != 0) {
+            userRepo.incrementPostCounts(job.getUserId(), liveDelta, deletedDelta);
+        }
+    }
+
+    // Posts are done; apply the parts of the cascade that must come last
+    private void finish(CascadeJob job) {
+        if (job.getType() == CascadeJob.Type.PURGE) {
+            prefRepo.deleteByUserId(job.getUserId());
+            preferenceCache.invalidate(job.getUserId());
+            userRepo.deleteById(job.getUserId());
+            liveUsers.remove(job.getUserId());
+        }
+    }
+
+    private long estimateTotal(CascadeJob job) {
+        return switch (job.getType()) {
+            case SOFT_DELETE -> postRepo.countByUserIdAndDeleted(job.getUserId(), false);
+            case RESTORE -> postRepo.countByUserIdAndDeleted(job.getUserId(), true);
+            case PURGE -> postRepo.countByUserId(job.getUserId());
+        };
+    }
+
+    private Boolean chunkFilter(CascadeJob.Type type) {
+        return switch (type) {
+            case SOFT_DELETE -> false;
+            case RESTORE -> true;
+            case PURGE -> null;
+        };
+    }
+}
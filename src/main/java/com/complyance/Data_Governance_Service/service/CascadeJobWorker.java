@@ -0,0 +1,99 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Per-node pool of workers that claim and run cascade jobs from the cascade_jobs collection.
+@Slf4j
+@Component
+public class CascadeJobWorker {
+
+    private final CascadeJobService jobService;
+
+    @Value("${cascade.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cascade.jobs.concurrency:2}")
+    private int concurrency;
+
+    @Value("${cascade.jobs.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public CascadeJobWorker(CascadeJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || concurrency <= 0) {
+            log.info("Cascade job workers disabled on this node");
+            return;
+        }
+
+        running = true;
+        // Workers spend nearly all their time waiting on Mongo, so they follow the request threads onto virtual threads
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("cascade-worker-", 0).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "cascade-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        executor = Executors.newFixedThreadPool(concurrency, threads);
+        for (int i = 0; i < concurrency; i++) {
+            executor.submit(this::poll);
+        }
+        log.info("Started {} cascade job workers", concurrency);
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                Optional<CascadeJob> job = jobService.claimNext();
+                if (job.isPresent()) {
+                    jobService.run(job.get());
+                } else {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                if (!running) return;
+                log.warn("Cascade worker poll failed: {}", e.getMessage());
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.complyance.Data_Governance_Service.service;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV one record at a time: comma separated, fields optionally
+ * double-quoted, "" for a quote inside a quoted field, line breaks allowed
+ * inside quotes, CRLF or LF endings. Records are capped in length so a stray
+ * unclosed quote cannot pull the rest of the upload into memory.
+ */
+final class CsvRecordReader {
+
+    static final int MAX_RECORD_CHARS = 64 * 1024;
+
+    private final PushbackReader in;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    CsvRecordReader(Reader in) {
+        this.in = new PushbackReader(in, 1);
+    }
+
+    // Line on which the record last returned by next() starts
+    long line() {
+        return recordLine;
+    }
+
+    // Fields of the next record, or null at the end of input
+    List<String> next() throws IOException {
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int length = 0;
+
+        for (int c = read(); c != -1; c = read()) {
+            any = true;
+            if (++length > MAX_RECORD_CHARS) {
+                throw new IllegalArgumentException("CSV record at line " + recordLine + " is longer than "
+                        + MAX_RECORD_CHARS + " characters (unclosed quote?)");
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) in.unread(next);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) return null;
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        int c = in.read();
+        if (!started) {
+            started = true;
+            if (c == '\uFEFF') c = in.read(); // byte order mark from spreadsheet exports
+        }
+        return c;
+    }
+}
@@ -0,0 +1,276 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * In-memory map of every user id to its deleted flag, so "does this user
+ * exist / is it live" checks skip Mongo in the common case. It is held in a
+ * UserIdTable, primitive arrays keyed by the 12 id bytes: 13 bytes per slot
+ * at 30-60% load, against about 60 per user for a map node and a boxed
+ * ObjectId.
+ *
+ * It is loaded in the background at startup by streaming (_id, deleted)
+ * from users, kept current by the local create / soft-delete / restore /
+ * purge paths, and rebuilt on a fixed delay so changes made on other
+ * nodes are picked up. Until the first load finishes, and for ids it has
+ * not seen, it falls back to an exact Mongo lookup. Absent ids are never
+ * remembered, since another node may create them at any time.
+ *
+ * Write paths are out of its scope. A soft-delete or restore made on
+ * another node is missing from the map until the next rebuild, and a post or
+ * preference written on a stale LIVE answer would land under a deleted user
+ * with nothing to take it back. Paths that write under a user (posts,
+ * preferences) therefore call confirm / confirmAll, which always read the
+ * stored flag and refresh the map with it; lookup / lookupAll serve reads.
+ */
+@Slf4j
+@Component
+public class LiveUserIndex {
+
+    public enum Membership { LIVE, DELETED, ABSENT }
+
+    // A rebuild in progress: writes that happen while it streams are applied on top of it
+    private static final class Rebuild {
+        final UserIdTable users = new UserIdTable();
+        final Set<Object> removed = ConcurrentHashMap.newKeySet();
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${users.live-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile UserIdTable users;   // null until the first load completes
+    private volatile Rebuild rebuild;
+
+    // Live / deleted totals of the loaded map, adjusted on every write so metrics never have to count
+    private final AtomicLong liveCount = new AtomicLong();
+    private final AtomicLong deletedCount = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder confirms = new LongAdder();
+    private volatile long lastLoadMillis;
+
+    public LiveUserIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) return;
+        Thread thread = new Thread(() -> {
+            try {
+                reload();
+            } catch (RuntimeException e) {
+                log.error("Could not load live-user index, falling back to Mongo lookups", e);
+            }
+        }, "live-user-index");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(initialDelayString = "${users.live-index.refresh-ms:600000}",
+            fixedDelayString = "${users.live-index.refresh-ms:600000}")
+    public void refresh() {
+        if (!enabled) return;
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.warn("Live-user index refresh failed, keeping previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        Rebuild next = new Rebuild();
+        rebuild = next;
+        try {
+            Query ids = new Query();
+            ids.fields().include("_id").include("deleted");
+            ids.cursorBatchSize(5000);
+            try (Stream<Document> stream = mongoTemplate.stream(ids, Document.class,
+                    mongoTemplate.getCollectionName(UserProfile.class))) {
+                stream.forEach(doc -> {
+                    Object key = doc.get("_id");
+                    // Writes seen during the stream are newer than what the cursor returns
+                    if (!next.removed.contains(key)) {
+                        next.users.putIfAbsent(key, Boolean.TRUE.equals(doc.getBoolean("deleted")));
+                    }
+                });
+            }
+            users = next.users;
+            deletedCount.set(next.users.deletedCount());
+            liveCount.set(next.users.size() - deletedCount.get());
+        } finally {
+            rebuild = null;
+        }
+        lastLoadMillis = System.currentTimeMillis() - start;
+        log.info("Loaded live-user index: {} users in {} ms", next.users.size(), lastLoadMillis);
+    }
+
+    public Membership lookup(String userId) {
+        UserIdTable snapshot = users;
+        if (snapshot != null) {
+            Boolean deleted = snapshot.get(userId);
+            if (deleted != null) {
+                hits.increment();
+                return deleted ? Membership.DELETED : Membership.LIVE;
+            }
+        }
+
+        fallbacks.increment();
+        return exact(userId);
+    }
+
+    // lookup for many ids at once: every id the map does not know is resolved by one $in query
+    public Map<String, Membership> lookupAll(Collection<String> userIds) {
+        Map<String, Membership> result = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        UserIdTable snapshot = users;
+        for (String userId : userIds) {
+            Boolean deleted = snapshot != null ? snapshot.get(userId) : null;
+            if (deleted != null) {
+                hits.increment();
+                result.put(userId, deleted ? Membership.DELETED : Membership.LIVE);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) return result;
+
+        fallbacks.add(misses.size());
+        result.putAll(exactAll(misses));
+        return result;
+    }
+
+    // Membership as stored right now, for paths about to write under the user
+    public Membership confirm(String userId) {
+        confirms.increment();
+        return exact(userId);
+    }
+
+    // confirm for many ids at once, with one $in query
+    public Map<String, Membership> confirmAll(Collection<String> userIds) {
+        confirms.add(userIds.size());
+        return exactAll(userIds);
+    }
+
+    private Membership exact(String userId) {
+        Query exact = query(where("id").is(userId));
+        exact.fields().include("deleted");
+        Document found = mongoTemplate.findOne(exact, Document.class, mongoTemplate.getCollectionName(UserProfile.class));
+        if (found == null) return Membership.ABSENT;
+
+        boolean deleted = Boolean.TRUE.equals(found.getBoolean("deleted"));
+        record(userId, deleted);
+        return deleted ? Membership.DELETED : Membership.LIVE;
+    }
+
+    private Map<String, Membership> exactAll(Collection<String> userIds) {
+        Map<Object, String> byKey = new HashMap<>();
+        userIds.forEach(userId -> byKey.put(key(userId), userId));
+
+        Map<String, Membership> result = new HashMap<>();
+        Query found = query(where("id").in(byKey.values()));
+        found.fields().include("deleted");
+        for (Document user : mongoTemplate.find(found, Document.class,
+                mongoTemplate.getCollectionName(UserProfile.class))) {
+            String userId = byKey.get(user.get("_id"));
+            if (userId == null) continue;
+            boolean deleted = Boolean.TRUE.equals(user.getBoolean("deleted"));
+            record(userId, deleted);
+            result.put(userId, deleted ? Membership.DELETED : Membership.LIVE);
+        }
+        byKey.values().forEach(userId -> result.putIfAbsent(userId, Membership.ABSENT));
+        return result;
+    }
+
+    public boolean exists(String userId) {
+        return lookup(userId) != Membership.ABSENT;
+    }
+
+    // Called after a user is created, soft-deleted or restored
+    public void record(String userId, boolean deleted) {
+        UserIdTable snapshot = users;
+        if (snapshot != null) {
+            count(snapshot.put(userId, deleted), -1);
+            count(deleted, 1);
+        }
+        Rebuild pending = rebuild;
+        if (pending != null) {
+            pending.removed.remove(key(userId));
+            pending.users.put(userId, deleted);
+        }
+    }
+
+    // Called after a user document is purged
+    public void remove(String userId) {
+        UserIdTable snapshot = users;
+        if (snapshot != null) count(snapshot.remove(userId), -1);
+        Rebuild pending = rebuild;
+        if (pending != null) {
+            pending.removed.add(key(userId));
+            pending.users.remove(userId);
+        }
+    }
+
+    // null until the first load completes
+    public Long liveCount() {
+        return users != null ? liveCount.get() : null;
+    }
+
+    public Long deletedCount() {
+        return users != null ? deletedCount.get() : null;
+    }
+
+    private void count(Boolean deleted, int delta) {
+        if (deleted == null) return;
+        (deleted ? deletedCount : liveCount).addAndGet(delta);
+    }
+
+    public Map<String, Object> stats() {
+        UserIdTable snapshot = users;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("loaded", snapshot != null);
+        result.put("size", snapshot != null ? snapshot.size() : 0);
+        result.put("bytes", snapshot != null ? snapshot.footprintBytes() : 0);
+        result.put("live", liveCount());
+        result.put("deleted", deletedCount());
+        result.put("hits", hits.sum());
+        result.put("fallbacks", fallbacks.sum());
+        result.put("confirms", confirms.sum());
+        result.put("lastLoadMillis", lastLoadMillis);
+        return result;
+    }
+
+    // Ids as Mongo returns them: ObjectId, or the raw string for anything else
+    private static Object key(String userId) {
+        return ObjectId.isValid(userId) ? new ObjectId(userId) : userId;
+    }
+}
@@ -0,0 +1,151 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostBatchResult;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Creates posts for many users from one JSON array, for migrations. The
+ * array is parsed item by item and written in chunks: each chunk resolves
+ * the liveness of its distinct users once, inserts its posts with one
+ * unordered bulk write and moves the affected users' counters with one
+ * more, so only a single chunk of posts is ever held in memory.
+ */
+@Slf4j
+@Service
+public class PostBatchService {
+
+    // A parsed item waiting for its chunk to be written; index is its position in the request array
+    private record Pending(int index, Post post) { }
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final UserRepository userRepo;
+    private final LiveUserIndex liveUsers;
+    private final SystemMetrics metrics;
+
+    @Value("${posts.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    public PostBatchService(MongoTemplate mongoTemplate,
+                            ObjectMapper objectMapper,
+                            UserRepository userRepo,
+                            LiveUserIndex liveUsers,
+                            SystemMetrics metrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.userRepo = userRepo;
+        this.liveUsers = liveUsers;
+        this.metrics = metrics;
+    }
+
+    public PostBatchResult createPosts(InputStream body) throws IOException {
+        PostBatchResult result = new PostBatchResult();
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        Instant now = Instant.now();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of posts");
+            }
+            int index = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+                if (token != JsonToken.START_OBJECT) throw malformed(chunk, result, "not a JSON object");
+                Post item = parser.readValueAs(Post.class);
+                result.setReceived(index + 1);
+                if (item.getUserId() == null || item.getUserId().isBlank()) {
+                    result.failed(index, "userId is required");
+                    continue;
+                }
+
+                // Only the content fields are taken from the client, as in createPost
+                chunk.add(new Pending(index, Post.builder()
+                        .id(new ObjectId().toHexString())
+                        .userId(item.getUserId())
+                        .title(item.getTitle())
+                        .content(item.getContent())
+                        .deleted(false)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()));
+                if (chunk.size() == chunkSize) {
+                    write(chunk, result);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw malformed(chunk, result, e.getOriginalMessage());
+        }
+        write(chunk, result);
+
+        result.getItems().sort(Comparator.comparingInt(PostBatchResult.Item::index));
+        log.info("Post batch: {} received, {} created, {} failed", result.getReceived(), result.getCreated(),
+                result.getFailed());
+        return result;
+    }
+
+    // Everything before the bad item is still written, so the message can tell the client where to resume
+    private IllegalArgumentException malformed(List<Pending> chunk, PostBatchResult result, String reason) {
+        write(chunk, result);
+        return new IllegalArgumentException("Malformed post batch at item " + result.getReceived() + ": " + reason
+                + " (" + result.getCreated() + " posts before it were created)");
+    }
+
+    private void write(List<Pending> chunk, PostBatchResult result) {
+        if (chunk.isEmpty()) return;
+
+        Map<String, LiveUserIndex.Membership> members = liveUsers.confirmAll(
+                chunk.stream().map(p -> p.post().getUserId()).distinct().toList());
+        List<Pending> accepted = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            switch (members.get(pending.post().getUserId())) {
+                case ABSENT -> result.failed(pending.index(), "User not found");
+                case DELETED -> result.failed(pending.index(), "Cannot create post for soft-deleted user");
+                case LIVE -> accepted.add(pending);
+            }
+        }
+        if (accepted.isEmpty()) return;
+
+        // Unordered: one rejected document does not stop the rest; errors carry the position in this write
+        Map<Integer, String> rejected = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)
+                    .insert(accepted.stream().map(Pending::post).toList())
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) rejected.put(error.getIndex(), error.getMessage());
+        }
+
+        Map<String, Long> createdPerUser = new HashMap<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            Pending pending = accepted.get(i);
+            String error = rejected.get(i);
+            if (error != null) {
+                result.failed(pending.index(), error);
+            } else {
+                result.created(pending.index(), pending.post().getId());
+                createdPerUser.merge(pending.post().getUserId(), 1L, Long::sum);
+            }
+        }
+        long created = accepted.size() - rejected.size();
+        userRepo.addLivePostCounts(createdPerUser);
+        metrics.postsChanged(created, 0);
+    }
+}
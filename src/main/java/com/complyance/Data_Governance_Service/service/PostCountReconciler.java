@@ -0,0 +1,141 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.CascadeJobRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepositoryCustom.UserPostCounts;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Repairs drift in the per-user post counters (a write path that died
+ * between the post write and its $inc, a seeded post that failed to insert)
+ * and fills them in on users written before they existed. Users are read in
+ * _id batches and their posts counted with one aggregation per batch; only
+ * counters that differ are rewritten, and only if they still hold the values
+ * read before the count, so an $inc landing mid-pass is never overwritten.
+ *
+ * That check cannot see a post the count already includes whose $inc has not
+ * landed yet: the reset would count it and the $inc again. Users with a post
+ * written after the pass started, less posts.counts.reconcile.settle-ms, or
+ * with an active cascade job are therefore left alone until a quieter pass.
+ */
+@Slf4j
+@Component
+public class PostCountReconciler {
+
+    private final UserRepository userRepo;
+    private final PostRepository postRepo;
+    private final CascadeJobRepository jobRepo;
+
+    @Value("${posts.counts.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${posts.counts.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Value("${posts.counts.reconcile.settle-ms:60000}")
+    private long settleMs;
+
+    private final AtomicLong passes = new AtomicLong();
+    private final AtomicLong usersRepaired = new AtomicLong();
+    private volatile Map<String, Object> lastPass = Map.of();
+
+    public PostCountReconciler(UserRepository userRepo, PostRepository postRepo, CascadeJobRepository jobRepo) {
+        this.userRepo = userRepo;
+        this.postRepo = postRepo;
+        this.jobRepo = jobRepo;
+    }
+
+    @Scheduled(initialDelayString = "${posts.counts.reconcile.initial-delay-ms:60000}",
+            fixedDelayString = "${posts.counts.reconcile.interval-ms:21600000}")
+    public void scheduledReconcile() {
+        if (!enabled) return;
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.error("Post counter reconcile failed, the next pass starts over", e);
+        }
+    }
+
+    public synchronized Map<String, Object> reconcile() {
+        long start = System.nanoTime();
+        Instant startedAt = Instant.now();
+        // A post written before this has had time for its $inc to land
+        Instant settled = startedAt.minusMillis(settleMs);
+        long scanned = 0;
+        long repaired = 0;
+        long busy = 0;
+        long skipped = 0;
+
+        String afterId = null;
+        while (true) {
+            List<UserProfile> batch = userRepo.findPostCountsAfter(afterId, batchSize);
+            if (batch.isEmpty()) break;
+
+            List<String> ids = batch.stream().map(UserProfile::getId).toList();
+            Map<String, UserPostCounts> actual = postRepo.countByUserIds(ids);
+            Set<String> cascading = jobRepo.findByUserIdInAndActiveTrue(ids).stream()
+                    .map(CascadeJob::getUserId).collect(Collectors.toSet());
+            for (UserProfile user : batch) {
+                UserPostCounts counts = actual.getOrDefault(user.getId(), new UserPostCounts(0, 0, null));
+                if (Objects.equals(user.getLivePostCount(), counts.live())
+                        && Objects.equals(user.getDeletedPostCount(), counts.deleted())) {
+                    continue;
+                }
+                if (cascading.contains(user.getId())
+                        || (counts.lastWrittenAt() != null && !counts.lastWrittenAt().isBefore(settled))) {
+                    busy++; // a counted write may still have its $inc in flight
+                    continue;
+                }
+                if (userRepo.resetPostCounts(user.getId(), user.getLivePostCount(), user.getDeletedPostCount(),
+                        counts.live(), counts.deleted())) {
+                    repaired++;
+                } else {
+                    skipped++; // an $inc landed between reading the counters and the reset; the next pass recounts
+                }
+            }
+
+            scanned += batch.size();
+            afterId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) break;
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        passes.incrementAndGet();
+        usersRepaired.addAndGet(repaired);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", startedAt);
+        result.put("durationMs", durationMs);
+        result.put("usersScanned", scanned);
+        result.put("repaired", repaired);
+        result.put("busy", busy);
+        result.put("skipped", skipped);
+        lastPass = result;
+        log.info("Post counter reconcile checked {} users, repaired {} ({} busy, {} changed mid-pass) in {} ms",
+                scanned, repaired, busy, skipped, durationMs);
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("passes", passes.get());
+        stats.put("usersRepaired", usersRepaired.get());
+        stats.put("lastPass", lastPass);
+        return stats;
+    }
+}
@@ -2,10 +2,18 @@ package com.complyance.Data_Governance_Service.service;
 
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.exception.ServiceUnavailableException;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostSummary;
 import com.complyance.Data_Governance_Service.model.UserProfile;
 import com.complyance.Data_Governance_Service.repository.PostRepository;
 import com.complyance.Data_Governance_Service.repository.UserRepository;
+import com.mongodb.MongoExecutionTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,39 +21,61 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PostService {
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("createdAt", "updatedAt");
+
     private final PostRepository postRepo;
     private final UserRepository userRepo;
+    private final LiveUserIndex liveUsers;
+    private final SystemMetrics metrics;
+
+    @Value("${posts.search.max-time-ms:2000}")
+    private long searchMaxTimeMs;
 
-    public PostService(PostRepository postRepo, UserRepository userRepo) {
+    public PostService(PostRepository postRepo, UserRepository userRepo, LiveUserIndex liveUsers,
+                       SystemMetrics metrics) {
         this.postRepo = postRepo;
         this.userRepo = userRepo;
+        this.liveUsers = liveUsers;
+        this.metrics = metrics;
     }
 
     @Transactional
     public Post createPost(String userId, Post post) {
-        UserProfile user = userRepo.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
-
-        if (user.isDeleted()) {
-            throw new ForbiddenException("Cannot create post for soft-deleted user");
+        // Checked against Mongo, not the index: a soft-delete on another node must stop new posts at once
+        switch (liveUsers.confirm(userId)) {
+            case ABSENT -> throw new NotFoundException("User not found");
+            case DELETED -> throw new ForbiddenException("Cannot create post for soft-deleted user");
+            case LIVE -> { }
         }
 
-        post.setUserId(userId);
-        post.setCreatedAt(Instant.now());
-        post.setUpdatedAt(Instant.now());
-        return postRepo.save(post);
+        // Only the content fields are taken from the client: a client id would turn the save into an
+        // overwrite of another post, and a client deleted flag would put the new counters out of step
+        Instant now = Instant.now();
+        Post saved = postRepo.save(Post.builder()
+                .userId(userId)
+                .title(post.getTitle())
+                .content(post.getContent())
+                .deleted(false)
+                .createdAt(now)
+                .updatedAt(now)
+                .build());
+        userRepo.incrementPostCounts(userId, 1, 0);
+        metrics.postsChanged(1, 0);
+        return saved;
     }
 
     public Object getPostsByUser(String userId, Integer page, Integer size, String sort) {
         // Ensure user exists
-        if (!userRepo.existsById(userId)) {
+        if (!liveUsers.exists(userId)) {
             throw new NotFoundException("User not found");
         }
 
@@ -60,7 +90,8 @@ public class PostService {
                     : Sort.by(sortBy).ascending();
 
             Pageable pageable = PageRequest.of(page, size, sortObj);
-            Page<Post> postPage = postRepo.findByUserIdAndDeletedFalse(userId, pageable);
+            Page<PostSummary> postPage = postRepo.findActiveSummariesByUser(userId, pageable,
+                    () -> livePostCount(userId));
 
             Map<String, Object> response = new HashMap<>();
             response.put("posts", postPage.getContent());
@@ -73,7 +104,73 @@ public class PostService {
         }
 
         // No pagination → return all
-        return postRepo.findByUserIdAndDeletedFalse(userId);
+        return postRepo.findActiveSummariesByUser(userId, Pageable.unpaged()).getContent();
+    }
+
+    // Read from the user's counter; only users the reconciler has not reached yet are counted
+    private long livePostCount(String userId) {
+        Long stored = userRepo.findPostCountsById(userId).map(UserProfile::getLivePostCount).orElse(null);
+        return stored != null ? stored : postRepo.countByUserIdAndDeleted(userId, false);
+    }
+
+    // Full document, including content; list endpoints only return PostSummary
+    public Post getPost(String postId) {
+        return postRepo.findByIdAndDeletedFalse(postId)
+                .orElseThrow(() -> new NotFoundException("Post not found"));
+    }
+
+    public KeysetPage<PostSummary> getPostsByUserAfter(String userId, String after, int limit, String sort,
+                                                       boolean withCount) {
+        if (!liveUsers.exists(userId)) {
+            throw new NotFoundException("User not found");
+        }
+        if (limit < 1 || limit > 500) {
+            throw new IllegalArgumentException("limit must be between 1 and 500");
+        }
+
+        // A token carries its own sort, so later pages ignore the sort parameter
+        ContinuationToken token = after != null ? ContinuationToken.decode(after) : null;
+        String[] sortParts = sort.split(",");
+        String sortField = token != null ? token.getSortField() : sortParts[0];
+        boolean descending = token != null
+                ? token.isDescending()
+                : sortParts.length > 1 && sortParts[1].equalsIgnoreCase("desc");
+        if (!KEYSET_SORT_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Keyset pagination can sort by " + KEYSET_SORT_FIELDS);
+        }
+
+        List<PostSummary> posts = postRepo.findActiveByUserAfter(userId, sortField, descending, token, limit + 1);
+        return KeysetPage.of(posts, limit,
+                p -> new ContinuationToken(sortField, descending, p.getId(),
+                        sortField.equals("updatedAt") ? p.getUpdatedAt() : p.getCreatedAt()),
+                withCount ? livePostCount(userId) : null);
+    }
+
+    // Live posts matching q by title or content, best match first; later pages follow the token
+    public KeysetPage<PostSummary> searchPosts(String q, String after, int limit) {
+        if (q == null || q.isBlank() || q.length() > 200) {
+            throw new IllegalArgumentException("q must be 1 to 200 characters");
+        }
+        if (limit < 1 || limit > 100) {
+            throw new IllegalArgumentException("limit must be between 1 and 100");
+        }
+        ContinuationToken token = after != null ? ContinuationToken.decode(after) : null;
+        if (token != null && !(token.getSortField().equals("score") && token.getLastValue() instanceof Double)) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+
+        List<PostSummary> posts;
+        try {
+            posts = postRepo.searchLive(q, token, limit + 1, Duration.ofMillis(searchMaxTimeMs));
+        } catch (DataAccessException e) {
+            // Very common terms can match most of the collection; maxTime stops those instead of letting them pile up
+            if (NestedExceptionUtils.getMostSpecificCause(e) instanceof MongoExecutionTimeoutException) {
+                throw new ServiceUnavailableException("Search took too long, try a more specific query");
+            }
+            throw e;
+        }
+        return KeysetPage.of(posts, limit,
+                p -> new ContinuationToken("score", true, p.getId(), p.getScore()), null);
     }
 
     @Transactional
@@ -83,9 +180,9 @@ public class PostService {
 
         if (post.isDeleted()) return;
 
-        post.setDeleted(true);
-        post.setDeletedAt(Instant.now());
-        post.setUpdatedAt(Instant.now());
-        postRepo.save(post);
+        // Conditional on deleted = false, so of two concurrent deletes only one moves the counters
+        if (postRepo.softDeleteByIds(List.of(postId), Instant.now()) == 0) return;
+        userRepo.incrementPostCounts(post.getUserId(), -1, 1);
+        metrics.postsChanged(-1, 1);
     }
 }
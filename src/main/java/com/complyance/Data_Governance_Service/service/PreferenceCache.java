@@ -0,0 +1,55 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.UserPreference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-process read-through cache of live preferences by userId. Caffeine's
+ * W-TinyLFU policy bounds it by size, and entries also expire after a TTL,
+ * which caps how stale another node's write can look here. Every local
+ * write path that changes a user's preferences invalidates its entry.
+ */
+@Component
+public class PreferenceCache {
+
+    private final Cache<String, UserPreference> cache;
+
+    public PreferenceCache(@Value("${preferences.cache.max-size:10000}") long maxSize,
+                           @Value("${preferences.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    // Loader exceptions propagate and nothing is cached, so 403/404 answers are never stale
+    public UserPreference get(String userId, Function<String, UserPreference> loader) {
+        return cache.get(userId, loader);
+    }
+
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", Math.round(stats.hitRate() * 1000) / 1000.0);
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically hands soft-deleted users past the purge grace period to the
+ * cascade job queue as PURGE jobs, the same path POST /users/{id}/purge takes.
+ * Users are read in (deletedAt, _id) batches through the partial
+ * deleted_at_expiry index. The position is checkpointed after every batch in
+ * sweeper_state, so a restart resumes mid-sweep. Enqueueing is rate limited,
+ * and a sweep stops early once too many purge jobs are already in flight.
+ */
+@Slf4j
+@Component
+public class PurgeSweeper {
+
+    static final String STATE_ID = "user-purge";
+    static final String STATE_COLLECTION = "sweeper_state";
+
+    private final UserRepository userRepo;
+    private final CascadeJobService jobService;
+    private final AuditService auditService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${user.purge.grace-period-hours}")
+    private long gracePeriodHours;
+
+    @Value("${user.purge.sweep.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user.purge.sweep.batch-size:100}")
+    private int batchSize;
+
+    @Value("${user.purge.sweep.max-users-per-second:20}")
+    private double maxUsersPerSecond;
+
+    @Value("${user.purge.sweep.max-in-flight:200}")
+    private long maxInFlight;
+
+    private final AtomicLong sweeps = new AtomicLong();
+    private final AtomicLong jobsQueued = new AtomicLong();
+    private final AtomicLong jobsSkipped = new AtomicLong();
+    // Outcome of the PURGE jobs themselves (sweeper and POST /users/{id}/purge), counted at the end of each sweep
+    private volatile long usersPurged;
+    private volatile long purgesFailed;
+    private volatile Map<String, Object> lastSweep = Map.of();
+
+    public PurgeSweeper(UserRepository userRepo,
+                        CascadeJobService jobService,
+                        AuditService auditService,
+                        MongoTemplate mongoTemplate) {
+        this.userRepo = userRepo;
+        this.jobService = jobService;
+        this.auditService = auditService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Scheduled(initialDelayString = "${user.purge.sweep.initial-delay-ms:60000}",
+            fixedDelayString = "${user.purge.sweep.interval-ms:3600000}")
+    public void scheduledSweep() {
+        if (!enabled) return;
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            log.error("Purge sweep failed, will resume from the last checkpoint", e);
+        }
+    }
+
+    public synchronized Map<String, Object> sweep() {
+        long start = System.nanoTime();
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(Duration.ofHours(gracePeriodHours));
+        long pauseMillis = maxUsersPerSecond > 0 ? (long) (1000 / maxUsersPerSecond) : 0;
+
+        ContinuationToken cursor = loadCursor();
+        int queued = 0;
+        int skipped = 0;
+        boolean finished = false;
+
+        while (true) {
+            if (maxInFlight > 0 && jobService.countInFlight(CascadeJob.Type.PURGE) >= maxInFlight) {
+                log.info("Purge sweep paused: {} purge jobs already in flight", maxInFlight);
+                break;
+            }
+
+            List<UserProfile> batch = userRepo.findDeletedBefore(cutoff, cursor, batchSize);
+            for (UserProfile user : batch) {
+                try {
+                    CascadeJob job = jobService.enqueue(user.getId(), CascadeJob.Type.PURGE, now);
+                    auditService.record(user.getId(), "HARD_DELETE",
+                            "Grace period expired, permanent deletion queued by sweeper as job " + job.getId());
+                    queued++;
+                } catch (ConflictException e) {
+                    skipped++; // a cascade is already running for this user
+                }
+                pause(pauseMillis);
+            }
+
+            if (!batch.isEmpty()) {
+                UserProfile last = batch.get(batch.size() - 1);
+                cursor = new ContinuationToken("deletedAt", false, last.getId(), last.getDeletedAt());
+                saveCursor(cursor);
+            }
+            if (batch.size() < batchSize) {
+                finished = true;
+                break;
+            }
+        }
+
+        // The next sweep starts over: failed purges and newly expired users are picked up again
+        if (finished) saveCursor(null);
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        sweeps.incrementAndGet();
+        jobsQueued.addAndGet(queued);
+        jobsSkipped.addAndGet(skipped);
+        usersPurged = jobService.countFinished(CascadeJob.Type.PURGE, CascadeJob.Status.COMPLETED);
+        purgesFailed = jobService.countFinished(CascadeJob.Type.PURGE, CascadeJob.Status.FAILED);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("startedAt", now);
+        result.put("durationMs", durationMs);
+        result.put("queued", queued);
+        result.put("skipped", skipped);
+        result.put("completed", finished);
+        lastSweep = result;
+        log.info("Purge sweep queued {} users ({} skipped) in {} ms{}", queued, skipped, durationMs,
+                finished ? "" : ", will resume from checkpoint");
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sweeps", sweeps.get());
+        stats.put("purgeJobsQueued", jobsQueued.get());
+        stats.put("purgeJobsSkipped", jobsSkipped.get());
+        stats.put("usersPurged", usersPurged);
+        stats.put("purgesFailed", purgesFailed);
+        stats.put("lastSweep", lastSweep);
+        return stats;
+    }
+
+    private ContinuationToken loadCursor() {
+        Document state = mongoTemplate.findById(STATE_ID, Document.class, STATE_COLLECTION);
+        String cursor = state != null ? state.getString("cursor") : null;
+        return cursor != null ? ContinuationToken.decode(cursor) : null;
+    }
+
+    private void saveCursor(ContinuationToken cursor) {
+        mongoTemplate.save(new Document("_id", STATE_ID)
+                .append("cursor", cursor != null ? cursor.encode() : null)
+                .append("updatedAt", Instant.now()), STATE_COLLECTION);
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) return;
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Purge sweep interrupted", e);
+        }
+    }
+}
@@ -1,127 +1,327 @@
 package com.complyance.Data_Governance_Service.service;
 
-import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.exception.NotFoundException;
 import com.complyance.Data_Governance_Service.model.Post;
 import com.complyance.Data_Governance_Service.model.UserProfile;
-import com.complyance.Data_Governance_Service.repository.PostRepository;
-import com.complyance.Data_Governance_Service.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Generates test users and posts for capacity testing. Users are produced in
+ * fixed-size chunks, and each chunk runs on a worker thread with its own
+ * Random derived from the seed and the chunk index. The same parameters
+ * therefore always produce the same data, regardless of thread scheduling.
+ * Posts per user follow a Zipf split (see ZipfAllocation). Everything is
+ * written with unordered bulk inserts in chunk-sized batches, so memory use
+ * does not grow with the size of the run.
+ */
+@Slf4j
 @Service
 public class SeedService {
 
-    private final UserRepository userRepository;
-    private final PostRepository postRepository;
-    private final Random random = new Random();
-    Instant randomCreatedAt = Instant.now().minusSeconds(random.nextInt(60 * 60 * 24 * 30)); // up to ~30 days ago
+    private static final List<String> FIRST_NAMES = List.of("Aarav", "Vivaan", "Diya", "Isha", "Rohan", "Kiran", "Sneha", "Kabir", "Neha", "Riya");
+    private static final List<String> LAST_NAMES  = List.of("Sharma", "Patel", "Mehta", "Reddy", "Kapoor", "Singh", "Nair", "Gupta", "Bose", "Chopra");
+    private static final List<String> ROLES      = List.of("USER", "EDITOR", "ADMIN");
 
+    private static final List<String> SAMPLE_TITLES = List.of(
+            "Building Secure APIs",
+            "The Future of AI in Governance",
+            "Understanding MongoDB Aggregations",
+            "Spring Boot Tips for Scalability",
+            "How to Design a Secure Network",
+            "Exploring Data Privacy Laws",
+            "Async Programming in Java",
+            "Effective Logging Strategies",
+            "Optimizing REST API Performance",
+            "Event-Driven Microservices Explained"
+    );
 
-    public SeedService(UserRepository userRepository, PostRepository postRepository) {
-        this.userRepository = userRepository;
-        this.postRepository = postRepository;
+    private static final List<String> SAMPLE_CONTENTS = List.of(
+            "This post explores practical security considerations for API design and deployment.",
+            "AI is reshaping governance structures and compliance models globally.",
+            "MongoDB aggregation pipelines allow powerful data transformations and analytics.",
+            "Spring Boot provides a flexible foundation for building scalable enterprise systems.",
+            "Network design plays a key role in ensuring organizational data security.",
+            "Privacy-first design is crucial for compliance with emerging data regulations.",
+            "Async programming allows high throughput and efficient resource utilization.",
+            "Proper logging helps in auditing, debugging, and improving system reliability.",
+            "Optimizing REST APIs involves caching, pagination, and load balancing.",
+            "Event-Driven architecture offers scalability and decoupled system design."
+    );
+
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final MongoTemplate mongoTemplate;
+    private final AuditService auditService;
+    private final LiveUserIndex liveUsers;
+    private final SystemMetrics metrics;
+
+    @Value("${seed.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "seed-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile SeedRun current;
+
+    public SeedService(MongoTemplate mongoTemplate, AuditService auditService, LiveUserIndex liveUsers,
+                       SystemMetrics metrics) {
+        this.mongoTemplate = mongoTemplate;
+        this.auditService = auditService;
+        this.liveUsers = liveUsers;
+        this.metrics = metrics;
+    }
+
+    /** Parameters and live progress of one seeding run. */
+    static final class SeedRun {
+        final int users;
+        final int postsPerUser;
+        final long seed;
+        final double skew;
+        final int threads;
+
+        final AtomicLong usersInserted = new AtomicLong();
+        final AtomicLong postsInserted = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong lastLogNanos = new AtomicLong(System.nanoTime());
+        final Instant startedAt = Instant.now();
+        final long startNanos = System.nanoTime();
+
+        volatile String state = "RUNNING";
+        volatile Instant completedAt;
+        volatile String error;
+
+        SeedRun(int users, int postsPerUser, long seed, double skew, int threads) {
+            this.users = users;
+            this.postsPerUser = postsPerUser;
+            this.seed = seed;
+            this.skew = skew;
+            this.threads = threads;
+        }
+
+        long docsPerSecond() {
+            long end = completedAt != null
+                    ? startNanos + Duration.between(startedAt, completedAt).toNanos()
+                    : System.nanoTime();
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - startNanos));
+            return Math.round((usersInserted.get() + postsInserted.get()) * 1000.0 / elapsedMillis);
+        }
+
+        Map<String, Object> status() {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("state", state);
+            status.put("users", users);
+            status.put("postsPerUser", postsPerUser);
+            status.put("seed", seed);
+            status.put("skew", skew);
+            status.put("threads", threads);
+            status.put("usersInserted", usersInserted.get());
+            status.put("postsInserted", postsInserted.get());
+            status.put("failed", failed.get());
+            status.put("docsPerSecond", docsPerSecond());
+            status.put("startedAt", startedAt);
+            status.put("completedAt", completedAt);
+            status.put("error", error);
+            return status;
+        }
+    }
+
+    public synchronized Map<String, Object> start(int users, int postsPerUser, long seed, double skew, int threads) {
+        if (users < 1) throw new IllegalArgumentException("users must be at least 1");
+        if (postsPerUser < 0) throw new IllegalArgumentException("postsPerUser must not be negative");
+        if (skew < 0) throw new IllegalArgumentException("skew must not be negative");
+        if (threads < 1 || threads > 64) throw new IllegalArgumentException("threads must be between 1 and 64");
+
+        if (current != null && current.state.equals("RUNNING")) {
+            throw new ConflictException("A seed run is already in progress");
+        }
+        if (mongoTemplate.estimatedCount(UserProfile.class) > 0 || mongoTemplate.estimatedCount(Post.class) > 0) {
+            throw new ConflictException("⚠️ Users or Posts already exist — skipping seeding.");
+        }
+
+        SeedRun run = new SeedRun(users, postsPerUser, seed, skew, threads);
+        current = run;
+        runner.submit(() -> execute(run));
+        return run.status();
+    }
+
+    public Map<String, Object> status() {
+        SeedRun run = current;
+        if (run == null) throw new NotFoundException("No seed run has been started");
+        return run.status();
     }
 
-    public String seedUsersAndPosts(int userCount, int postsPerUser) {
-        if (userRepository.count() > 0 || postRepository.count() > 0) {
-            return "⚠️ Users or Posts already exist — skipping seeding.";
+    void execute(SeedRun run) {
+        ThreadFactory threads = virtualThreads
+                ? Thread.ofVirtual().name("seed-worker-", 0).factory()
+                : runnable -> {
+                    Thread thread = new Thread(runnable, "seed-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        ExecutorService workers = Executors.newFixedThreadPool(run.threads, threads);
+        try {
+            ZipfAllocation allocation = new ZipfAllocation(run.users, run.postsPerUser, run.skew);
+            Instant base = Instant.now();
+            int chunks = (run.users + chunkSize - 1) / chunkSize;
+
+            List<Future<?>> pending = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int index = chunk;
+                pending.add(workers.submit(() -> seedChunk(run, allocation, index, base)));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            run.state = "COMPLETED";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.state = "FAILED";
+            run.error = "Interrupted";
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.error("Seed run failed", cause);
+            run.state = "FAILED";
+            run.error = cause.getMessage();
+        } finally {
+            workers.shutdownNow();
+            run.completedAt = Instant.now();
         }
+        log.info("✅ Seed {}: {} users and {} posts ({} failed) at {} docs/s", run.state.toLowerCase(),
+                run.usersInserted.get(), run.postsInserted.get(), run.failed.get(), run.docsPerSecond());
+    }
+
+    private void seedChunk(SeedRun run, ZipfAllocation allocation, int chunk, Instant base) {
+        int from = chunk * chunkSize;
+        int to = Math.min(run.users, from + chunkSize);
+        Random random = chunkRandom(run.seed, chunk);
 
-        // ----- Seed Users -----
-        List<String> firstNames = List.of("Aarav", "Vivaan", "Diya", "Isha", "Rohan", "Kiran", "Sneha", "Kabir", "Neha", "Riya");
-        List<String> lastNames  = List.of("Sharma", "Patel", "Mehta", "Reddy", "Kapoor", "Singh", "Nair", "Gupta", "Bose", "Chopra");
-        List<String> roles      = List.of("USER", "EDITOR", "ADMIN");
+        List<UserProfile> users = generateUsers(random, from, to, base);
+        // Counters are written with the users; a post that then fails to insert is fixed by the reconciler
+        for (int i = from; i < to; i++) {
+            users.get(i - from).setLivePostCount(allocation.postsFor(i));
+            users.get(i - from).setDeletedPostCount(0L);
+        }
+        run.usersInserted.addAndGet(insertUnordered(run, users, UserProfile.class));
+        auditService.recordAll(users.stream()
+                .map(u -> Pair.of(u.getId(), AuditService.entry("CREATE", "Seeded test user")))
+                .toList());
+        users.forEach(u -> liveUsers.record(u.getId(), false));
 
-        List<UserProfile> users = new ArrayList<>();
+        // Posts stream out in chunk-sized batches, so one very prolific user never has to fit in memory
+        List<Post> posts = new ArrayList<>(chunkSize);
+        for (int i = from; i < to; i++) {
+            String userId = users.get(i - from).getId();
+            for (long p = allocation.postsFor(i); p > 0; p--) {
+                posts.add(generatePost(random, userId, base));
+                if (posts.size() == chunkSize) {
+                    insertPosts(run, posts);
+                    posts.clear();
+                }
+            }
+        }
+        if (!posts.isEmpty()) {
+            insertPosts(run, posts);
+        }
 
-        for (int i = 0; i < userCount; i++) {
-            String first = firstNames.get(random.nextInt(firstNames.size()));
-            String last  = lastNames.get(random.nextInt(lastNames.size()));
-            String username = (first + "_" + last + "_" + (100 + random.nextInt(900))).toLowerCase();
-            String email = username + "@example.com";
-            String name = first + " " + last;
+        logProgress(run);
+    }
+
+    private void insertPosts(SeedRun run, List<Post> posts) {
+        long inserted = insertUnordered(run, posts, Post.class);
+        run.postsInserted.addAndGet(inserted);
+        metrics.postsChanged(inserted, 0);
+    }
+
+    static Random chunkRandom(long seed, int chunk) {
+        return new Random(seed * 1_000_003L + chunk);
+    }
+
+    // Ids are assigned here so posts can reference their user before anything is written
+    static List<UserProfile> generateUsers(Random random, int from, int to, Instant base) {
+        List<UserProfile> users = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            String first = FIRST_NAMES.get(random.nextInt(FIRST_NAMES.size()));
+            String last  = LAST_NAMES.get(random.nextInt(LAST_NAMES.size()));
+            // The global index keeps usernames and emails unique under their unique indexes
+            String username = (first + "_" + last + "_" + i).toLowerCase();
 
             List<String> assignedRoles = new ArrayList<>();
-            assignedRoles.add(roles.get(random.nextInt(roles.size())));
+            assignedRoles.add(ROLES.get(random.nextInt(ROLES.size())));
             if (random.nextBoolean()) {
-                String extraRole = roles.get(random.nextInt(roles.size()));
+                String extraRole = ROLES.get(random.nextInt(ROLES.size()));
                 if (!assignedRoles.contains(extraRole)) assignedRoles.add(extraRole);
             }
 
-            UserProfile user = UserProfile.builder()
+            users.add(UserProfile.builder()
+                    .id(new ObjectId().toHexString())
                     .username(username)
-                    .email(email)
-                    .name(name)
+                    .email(username + "@example.com")
+                    .name(first + " " + last)
                     .roles(assignedRoles)
                     .status("ACTIVE")
-                    .createdAt(randomCreatedAt.plusSeconds(random.nextInt(3600)))
-                    .updatedAt(Instant.now())
-                    .auditTrail(List.of(
-                            AuditEntry.builder()
-                                    .action("CREATE")
-                                    .details("Seeded test user")
-                                    .performedBy("SYSTEM")
-                                    .timestamp(Instant.now())
-                                    .build()
-                    ))
-                    .build();
-
-            users.add(user);
+                    .deleted(false)
+                    .createdAt(base.minusSeconds(random.nextInt(60 * 60 * 24 * 30))) // up to ~30 days ago
+                    .updatedAt(base)
+                    .build());
         }
+        return users;
+    }
 
-        userRepository.saveAll(users);
-
-        // ----- Seed Posts -----
-        List<String> sampleTitles = List.of(
-                "Building Secure APIs",
-                "The Future of AI in Governance",
-                "Understanding MongoDB Aggregations",
-                "Spring Boot Tips for Scalability",
-                "How to Design a Secure Network",
-                "Exploring Data Privacy Laws",
-                "Async Programming in Java",
-                "Effective Logging Strategies",
-                "Optimizing REST API Performance",
-                "Event-Driven Microservices Explained"
-        );
-
-        List<String> sampleContents = List.of(
-                "This post explores practical security considerations for API design and deployment.",
-                "AI is reshaping governance structures and compliance models globally.",
-                "MongoDB aggregation pipelines allow powerful data transformations and analytics.",
-                "Spring Boot provides a flexible foundation for building scalable enterprise systems.",
-                "Network design plays a key role in ensuring organizational data security.",
-                "Privacy-first design is crucial for compliance with emerging data regulations.",
-                "Async programming allows high throughput and efficient resource utilization.",
-                "Proper logging helps in auditing, debugging, and improving system reliability.",
-                "Optimizing REST APIs involves caching, pagination, and load balancing.",
-                "Event-driven architecture offers scalability and decoupled system design."
-        );
-
-        List<Post> posts = new ArrayList<>();
-
-        for (UserProfile user : users) {
-            for (int j = 0; j < postsPerUser; j++) {
-                String title = sampleTitles.get(random.nextInt(sampleTitles.size()));
-                String content = sampleContents.get(random.nextInt(sampleContents.size()));
-
-                Post post = Post.builder()
-                        .userId(user.getId())
-                        .title(title)
-                        .content(content)
-                        .createdAt(randomCreatedAt.plusSeconds(random.nextInt(3600)))
-                        .updatedAt(Instant.now())
-                        .deleted(false)
-                        .build();
-
-                posts.add(post);
-            }
+    static Post generatePost(Random random, String userId, Instant base) {
+        return Post.builder()
+                .userId(userId)
+                .title(SAMPLE_TITLES.get(random.nextInt(SAMPLE_TITLES.size())))
+                .content(SAMPLE_CONTENTS.get(random.nextInt(SAMPLE_CONTENTS.size())))
+                .createdAt(base.minusSeconds(random.nextInt(60 * 60 * 24 * 30)))
+                .updatedAt(base)
+                .deleted(false)
+                .build();
+    }
+
+    // Unordered: one bad document (e.g. a duplicate key) does not stop the rest of the batch
+    private <T> long insertUnordered(SeedRun run, List<T> docs, Class<T> type) {
+        int inserted;
+        try {
+            inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type).insert(docs).execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            inserted = e.getResult().getInsertedCount();
         }
+        run.failed.addAndGet(docs.size() - inserted);
+        return inserted;
+    }
 
-        postRepository.saveAll(posts);
+    private void logProgress(SeedRun run) {
+        long now = System.nanoTime();
+        long last = run.lastLogNanos.get();
+        if (now - last >= PROGRESS_LOG_INTERVAL_NANOS && run.lastLogNanos.compareAndSet(last, now)) {
+            log.info("Seeding: {}/{} users, {} posts, {} docs/s", run.usersInserted.get(), run.users,
+                    run.postsInserted.get(), run.docsPerSecond());
+        }
+    }
 
-        return String.format("✅ Seed completed: %d users and %d posts added.", users.size(), posts.size());
+    @PreDestroy
+    public void stop() {
+        runner.shutdownNow();
     }
 }
@@ -0,0 +1,51 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.ReactivePostRepository;
+import com.complyance.Data_Governance_Service.repository.ReactiveUserRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+/**
+ * Non-blocking counterparts of the list reads, on the reactive Mongo driver.
+ * Results are pulled from the cursor only as fast as the subscriber (the
+ * HTTP response) requests them, so a slow client holds a cursor rather than
+ * a buffered result set. Soft-delete rules match UserService / PostService.
+ */
+@Service
+public class StreamingReadService {
+    private static final Set<String> SORT_FIELDS = Set.of("createdAt", "updatedAt");
+
+    private final ReactiveUserRepository users;
+    private final ReactivePostRepository posts;
+
+    public StreamingReadService(ReactiveUserRepository users, ReactivePostRepository posts) {
+        this.users = users;
+        this.posts = posts;
+    }
+
+    public Flux<UserProfile> streamActiveUsers() {
+        return users.findAllByDeletedFalseOrderByCreatedAtAsc();
+    }
+
+    // Same rule as PostService.getPostsByUser: the user must exist; a deleted user simply has no live posts
+    public Flux<Post> streamPostsByUser(String userId, String sort) {
+        String[] sortParts = sort.split(",");
+        if (!SORT_FIELDS.contains(sortParts[0])) {
+            return Flux.error(new IllegalArgumentException("Posts can be streamed sorted by " + SORT_FIELDS));
+        }
+        Sort.Direction direction = sortParts.length > 1 && sortParts[1].equalsIgnoreCase("desc")
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // _id breaks ties the same way the user_live_* indexes do
+        Sort order = Sort.by(direction, sortParts[0]).and(Sort.by(direction, "_id"));
+
+        return users.existsById(userId).flatMapMany(exists -> exists
+                ? posts.findByUserIdAndDeletedFalse(userId, order)
+                : Flux.error(new NotFoundException("User not found")));
+    }
+}
@@ -0,0 +1,154 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Collection and lifecycle counts for /system/metrics, served from a
+ * snapshot rebuilt in the background so a scrape never touches Mongo.
+ * <ul>
+ *   <li>Per-collection totals are metadata counts (estimatedDocumentCount).</li>
+ *   <li>Live / soft-deleted users come from LiveUserIndex, which keeps them current on every write.</li>
+ *   <li>Users pending purge are counted on the partial deleted_at_expiry index, which only holds deleted users.</li>
+ *   <li>Live / soft-deleted posts are adjusted by the write paths on this node as they happen, and
+ *       re-counted exactly on a slow schedule, which also picks up changes made by other nodes.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SystemMetrics {
+
+    private final MongoTemplate mongoTemplate;
+    private final LiveUserIndex liveUsers;
+
+    @Value("${user.purge.grace-period-hours}")
+    private long gracePeriodHours;
+
+    @Value("${system.metrics.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicLong livePosts = new AtomicLong();
+    private final AtomicLong deletedPosts = new AtomicLong();
+    private volatile Instant postsReconciledAt;   // null until the first exact count
+
+    private volatile Map<String, Object> snapshot = Map.of("refreshedAt", "never");
+
+    public SystemMetrics(MongoTemplate mongoTemplate, LiveUserIndex liveUsers) {
+        this.mongoTemplate = mongoTemplate;
+        this.liveUsers = liveUsers;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) return;
+        Thread thread = new Thread(() -> {
+            try {
+                reconcilePosts();
+                refresh();
+            } catch (RuntimeException e) {
+                log.error("Could not build the initial metrics snapshot", e);
+            }
+        }, "system-metrics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(initialDelayString = "${system.metrics.refresh-ms:15000}",
+            fixedDelayString = "${system.metrics.refresh-ms:15000}")
+    public void scheduledRefresh() {
+        if (!enabled) return;
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Metrics snapshot refresh failed, serving the previous one: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${system.metrics.reconcile-ms:3600000}",
+            fixedDelayString = "${system.metrics.reconcile-ms:3600000}")
+    public void scheduledReconcile() {
+        if (!enabled) return;
+        try {
+            reconcilePosts();
+        } catch (RuntimeException e) {
+            log.warn("Post count reconcile failed, keeping incremental counts: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        return snapshot;
+    }
+
+    // Called by the post write paths on this node: a create is (+1, 0), a soft-delete (-n, +n), a purge (0, -n)
+    public void postsChanged(long liveDelta, long deletedDelta) {
+        livePosts.addAndGet(liveDelta);
+        deletedPosts.addAndGet(deletedDelta);
+    }
+
+    public void refresh() {
+        long start = System.nanoTime();
+
+        Map<String, Object> collections = new LinkedHashMap<>();
+        for (String name : mongoTemplate.getCollectionNames()) {
+            collections.put(name, mongoTemplate.getCollection(name).estimatedDocumentCount());
+        }
+
+        Instant cutoff = Instant.now().minus(Duration.ofHours(gracePeriodHours));
+        Query expired = query(where("deleted").is(true).and("deletedAt").lt(cutoff));
+        Map<String, Object> users = new LinkedHashMap<>();
+        users.put("live", liveUsers.liveCount());
+        users.put("softDeleted", liveUsers.deletedCount());
+        users.put("pendingPurge", mongoTemplate.count(expired, UserProfile.class));
+
+        Map<String, Object> posts = new LinkedHashMap<>();
+        posts.put("live", postsReconciledAt != null ? livePosts.get() : null);
+        posts.put("softDeleted", postsReconciledAt != null ? deletedPosts.get() : null);
+        posts.put("reconciledAt", postsReconciledAt);
+
+        Map<String, Object> next = new LinkedHashMap<>();
+        next.put("refreshedAt", Instant.now());
+        next.put("refreshMillis", (System.nanoTime() - start) / 1_000_000);
+        next.put("totalCollections", collections.size());
+        next.put("collections", collections);
+        next.put("users", users);
+        next.put("posts", posts);
+        snapshot = next;
+    }
+
+    // One pass over posts grouped by the deleted flag; expensive, hence the slow schedule
+    public void reconcilePosts() {
+        long start = System.nanoTime();
+        Aggregation byDeleted = Aggregation.newAggregation(Aggregation.group("deleted").count().as("count"));
+        long live = 0;
+        long deleted = 0;
+        for (Document group : mongoTemplate.aggregate(byDeleted, Post.class, Document.class)) {
+            long count = ((Number) group.get("count")).longValue();
+            if (Boolean.TRUE.equals(group.get("_id"))) deleted += count;
+            else live += count;
+        }
+        livePosts.set(live);
+        deletedPosts.set(deleted);
+        postsReconciledAt = Instant.now();
+        log.info("Reconciled post counts: {} live, {} soft-deleted in {} ms", live, deleted,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
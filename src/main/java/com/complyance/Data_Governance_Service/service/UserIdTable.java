@@ -0,0 +1,210 @@
+package com.complyance.Data_Governance_Service.service;
+
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * User id -> deleted flag for LiveUserIndex, kept in parallel primitive
+ * arrays with open addressing: an ObjectId id takes its first 8 bytes in a
+ * long[], its last 4 in an int[] and a state byte, 13 bytes per slot
+ * instead of a map node and a boxed ObjectId. Ids that are not ObjectIds
+ * (none in production) go to a small side map.
+ *
+ * Writers take the write lock. Readers probe under an optimistic stamp and
+ * only take the read lock if a write interleaved.
+ */
+final class UserIdTable {
+
+    private static final byte EMPTY = 0;
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 2;
+    private static final byte REMOVED = 3;   // tombstone, keeps probe chains intact until the next resize
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.6;
+
+    // Replaced as a whole on resize, so a reader never sees arrays of different lengths
+    private static final class Slots {
+        final long[] high;
+        final int[] low;
+        final byte[] state;
+
+        Slots(int capacity) {
+            high = new long[capacity];
+            low = new int[capacity];
+            state = new byte[capacity];
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Boolean> others = new ConcurrentHashMap<>();
+    private Slots slots = new Slots(INITIAL_CAPACITY);
+    private int size;       // ObjectId entries
+    private int occupied;   // ObjectId entries plus tombstones
+
+    Boolean get(String userId) {
+        if (!ObjectId.isValid(userId)) return others.get(userId);
+        long high = Long.parseUnsignedLong(userId, 0, 16, 16);
+        int low = Integer.parseUnsignedInt(userId, 16, 24, 16);
+
+        long stamp = lock.tryOptimisticRead();
+        byte state = stateOf(slots, high, low);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                state = stateOf(slots, high, low);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return flag(state);
+    }
+
+    // Returns the previous flag, or null if the id was not present
+    Boolean put(String userId, boolean deleted) {
+        if (!ObjectId.isValid(userId)) return others.put(userId, deleted);
+        return write(Long.parseUnsignedLong(userId, 0, 16, 16), Integer.parseUnsignedInt(userId, 16, 24, 16),
+                deleted, true);
+    }
+
+    // For ids as read from Mongo, which are ObjectIds unless a document was written with a custom _id
+    Boolean putIfAbsent(Object id, boolean deleted) {
+        if (!(id instanceof ObjectId objectId)) return others.putIfAbsent(id.toString(), deleted);
+        ByteBuffer bytes = ByteBuffer.wrap(objectId.toByteArray());
+        return write(bytes.getLong(), bytes.getInt(), deleted, false);
+    }
+
+    Boolean remove(String userId) {
+        if (!ObjectId.isValid(userId)) return others.remove(userId);
+        long high = Long.parseUnsignedLong(userId, 0, 16, 16);
+        int low = Integer.parseUnsignedInt(userId, 16, 24, 16);
+
+        long stamp = lock.writeLock();
+        try {
+            int i = indexOf(slots, high, low);
+            if (i < 0) return null;
+            Boolean previous = flag(slots.state[i]);
+            slots.state[i] = REMOVED;
+            size--;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size + others.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    long deletedCount() {
+        long stamp = lock.readLock();
+        try {
+            long deleted = others.values().stream().filter(Boolean::booleanValue).count();
+            for (byte state : slots.state) {
+                if (state == DELETED) deleted++;
+            }
+            return deleted;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Bytes held by the slot arrays
+    long footprintBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) slots.state.length * (Long.BYTES + Integer.BYTES + 1);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Boolean write(long high, int low, boolean deleted, boolean replace) {
+        long stamp = lock.writeLock();
+        try {
+            int i = indexOf(slots, high, low);
+            if (i >= 0) {
+                Boolean previous = flag(slots.state[i]);
+                if (replace) slots.state[i] = deleted ? DELETED : LIVE;
+                return previous;
+            }
+            if (occupied + 1 > slots.state.length * MAX_LOAD) {
+                resize();
+                i = indexOf(slots, high, low);
+            }
+            int slot = -i - 1;
+            if (slots.state[slot] == EMPTY) occupied++;
+            slots.high[slot] = high;
+            slots.low[slot] = low;
+            slots.state[slot] = deleted ? DELETED : LIVE;
+            size++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Rehashes the live entries, dropping tombstones; grows only when the entries themselves need it
+    private void resize() {
+        int capacity = slots.state.length;
+        while (size + 1 > capacity * MAX_LOAD / 2) capacity <<= 1;
+        Slots old = slots;
+        Slots next = new Slots(capacity);
+        for (int i = 0; i < old.state.length; i++) {
+            byte state = old.state[i];
+            if (state != LIVE && state != DELETED) continue;
+            int slot = -indexOf(next, old.high[i], old.low[i]) - 1;
+            next.high[slot] = old.high[i];
+            next.low[slot] = old.low[i];
+            next.state[slot] = state;
+        }
+        slots = next;
+        occupied = size;
+    }
+
+    // Slot of the id if present, otherwise -(slot to insert at) - 1. Bounded by the capacity so an
+    // optimistic reader racing a writer cannot loop forever; its result is then discarded.
+    private static int indexOf(Slots s, long high, int low) {
+        int mask = s.state.length - 1;
+        int firstRemoved = -1;
+        int i = hash(high, low) & mask;
+        for (int probes = 0; probes <= mask; probes++, i = (i + 1) & mask) {
+            byte state = s.state[i];
+            if (state == EMPTY) return -(firstRemoved >= 0 ? firstRemoved : i) - 1;
+            if (state == REMOVED) {
+                if (firstRemoved < 0) firstRemoved = i;
+            } else if (s.high[i] == high && s.low[i] == low) {
+                return i;
+            }
+        }
+        return -Math.max(firstRemoved, 0) - 1;
+    }
+
+    private static byte stateOf(Slots s, long high, int low) {
+        int i = indexOf(s, high, low);
+        return i >= 0 ? s.state[i] : EMPTY;
+    }
+
+    // ObjectIds lead with a timestamp and end in a counter, so both halves go through the multiply and are folded
+    private static int hash(long high, int low) {
+        long h = (high ^ (low & 0xFFFFFFFFL) << 16) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    private static Boolean flag(byte state) {
+        return switch (state) {
+            case LIVE -> Boolean.FALSE;
+            case DELETED -> Boolean.TRUE;
+            default -> null;
+        };
+    }
+}
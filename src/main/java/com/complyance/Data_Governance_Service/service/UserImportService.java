@@ -0,0 +1,357 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.exception.ServiceUnavailableException;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports users from an NDJSON or CSV upload as a three-stage pipeline: the
+ * request thread parses records, a validator thread applies the UserProfile
+ * constraints, and a writer thread inserts them in unordered bulk batches,
+ * where the case-insensitive unique indexes reject duplicate usernames and
+ * emails. Stages hand records over through bounded queues, so a slow writer
+ * stalls parsing, which stops reading the upload; memory stays at two queues
+ * and one batch however large the file is.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    // One record on its way through the pipeline; line is where it starts in the upload
+    private record Item(long line, UserProfile user) { }
+
+    // Sent down the queues after the last record
+    private static final Item END = new Item(-1, null);
+
+    private static final List<String> CSV_REQUIRED = List.of("username", "email", "name", "roles");
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final AuditService auditService;
+    private final LiveUserIndex liveUsers;
+
+    @Value("${users.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${users.import.queue-capacity:2000}")
+    private int queueCapacity;
+
+    @Value("${users.import.max-reported-rejections:100}")
+    private int maxReportedRejections;
+
+    public UserImportService(MongoTemplate mongoTemplate,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             AuditService auditService,
+                             LiveUserIndex liveUsers) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.auditService = auditService;
+        this.liveUsers = liveUsers;
+    }
+
+    // Progress of one import, shared by its stages
+    final class ImportRun {
+        final long startNanos = System.nanoTime();
+        final AtomicLong received = new AtomicLong();
+        final AtomicLong accepted = new AtomicLong();
+        final Map<String, AtomicLong> rejected = new ConcurrentSkipListMap<>();
+        final List<Map<String, Object>> rejections = Collections.synchronizedList(new ArrayList<>());
+        // First failure of any stage; the others see it at their next queue operation and stop
+        volatile Throwable failure;
+
+        void reject(long line, String reason, String error) {
+            rejected.computeIfAbsent(reason, r -> new AtomicLong()).incrementAndGet();
+            synchronized (rejections) {
+                if (rejections.size() < maxReportedRejections) {
+                    Map<String, Object> rejection = new LinkedHashMap<>();
+                    rejection.put("line", line);
+                    rejection.put("reason", reason);
+                    rejection.put("error", error);
+                    rejections.add(rejection);
+                }
+            }
+        }
+
+        Map<String, Object> status() {
+            long durationMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            Map<String, Long> byReason = new LinkedHashMap<>();
+            rejected.forEach((reason, count) -> byReason.put(reason, count.get()));
+
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("received", received.get());
+            status.put("accepted", accepted.get());
+            status.put("rejected", byReason.values().stream().mapToLong(Long::longValue).sum());
+            status.put("rejectedByReason", byReason);
+            status.put("durationMs", durationMs);
+            status.put("recordsPerSecond", received.get() * 1000 / durationMs);
+            status.put("rejections", List.copyOf(rejections));
+            return status;
+        }
+    }
+
+    public Map<String, Object> importUsers(InputStream body, Format format) throws IOException {
+        ImportRun run = new ImportRun();
+        BlockingQueue<Item> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item> valid = new ArrayBlockingQueue<>(queueCapacity);
+
+        ExecutorService stages = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "user-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<?> validating = stages.submit(() -> stage(run, () -> validate(run, parsed, valid)));
+            Future<?> writing = stages.submit(() -> stage(run, () -> write(run, valid)));
+
+            IllegalArgumentException malformed = null;
+            try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+                switch (format) {
+                    case NDJSON -> parseNdjson(run, reader, parsed);
+                    case CSV -> parseCsv(run, reader, parsed);
+                }
+            } catch (IllegalArgumentException e) {
+                // The upload cannot be read past this point; records before it are still written
+                malformed = e;
+            } catch (IOException | RuntimeException e) {
+                if (run.failure == null) run.failure = e;
+                throw e;
+            }
+            put(run, parsed, END);
+            validating.get();
+            writing.get();
+            if (malformed != null) {
+                throw new IllegalArgumentException(malformed.getMessage() + " (" + run.accepted.get()
+                        + " users before it were created)");
+            }
+        } catch (InterruptedException e) {
+            // Either a stage failed and the parser unwound (failure already set), or this thread was interrupted
+            if (run.failure == null) {
+                Thread.currentThread().interrupt();
+                run.failure = e;
+            }
+        } catch (ExecutionException e) {
+            if (run.failure == null) run.failure = e.getCause();
+        } finally {
+            stages.shutdownNow();
+        }
+
+        if (run.failure instanceof RuntimeException e) throw e;
+        if (run.failure != null) throw new ServiceUnavailableException("User import was interrupted after "
+                + run.accepted.get() + " users were created");
+
+        Map<String, Object> status = run.status();
+        log.info("User import ({}): {} received, {} accepted, {} rejected in {} ms", format,
+                status.get("received"), status.get("accepted"), status.get("rejected"), status.get("durationMs"));
+        return status;
+    }
+
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+
+    // Records a stage's failure where the other stages look for it, instead of leaving them blocked on its queue
+    private static Void stage(ImportRun run, Stage stage) {
+        try {
+            stage.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException | Error e) {
+            if (run.failure == null) run.failure = e;
+            throw e;
+        }
+        return null;
+    }
+
+    private void parseNdjson(ImportRun run, Reader reader, BlockingQueue<Item> out) throws IOException, InterruptedException {
+        BufferedReader lines = new BufferedReader(reader);
+        long line = 0;
+        for (String text = lines.readLine(); text != null; text = lines.readLine()) {
+            line++;
+            if (text.isBlank()) continue;
+            run.received.incrementAndGet();
+            UserProfile user;
+            try {
+                user = objectMapper.readValue(text, UserProfile.class);
+            } catch (JsonProcessingException e) {
+                run.reject(line, "malformed", e.getOriginalMessage());
+                continue;
+            }
+            // A bare "null" line parses to no user at all
+            if (user == null) {
+                run.reject(line, "invalid", "Expected a JSON object");
+                continue;
+            }
+            put(run, out, new Item(line, user));
+        }
+    }
+
+    private void parseCsv(ImportRun run, Reader reader, BlockingQueue<Item> out) throws IOException, InterruptedException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) return;
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) columns.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        List<String> missing = CSV_REQUIRED.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns " + missing
+                    + "; expected username,email,name,roles[,status]");
+        }
+
+        for (List<String> fields = csv.next(); fields != null; fields = csv.next()) {
+            if (fields.stream().allMatch(String::isBlank)) continue;
+            run.received.incrementAndGet();
+            if (fields.size() != header.size()) {
+                run.reject(csv.line(), "malformed", "Expected " + header.size() + " fields, found " + fields.size());
+                continue;
+            }
+            // Several roles share one cell, separated by ';'
+            String roles = column(fields, columns, "roles");
+            put(run, out, new Item(csv.line(), UserProfile.builder()
+                    .username(column(fields, columns, "username"))
+                    .email(column(fields, columns, "email"))
+                    .name(column(fields, columns, "name"))
+                    .roles(roles == null ? null : Arrays.stream(roles.split(";"))
+                            .map(String::trim).filter(r -> !r.isEmpty()).toList())
+                    .status(Objects.requireNonNullElse(column(fields, columns, "status"), "ACTIVE"))
+                    .build()));
+        }
+    }
+
+    // Trimmed cell value, null when the column is absent or the cell empty
+    private static String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void validate(ImportRun run, BlockingQueue<Item> in, BlockingQueue<Item> out) throws InterruptedException {
+        for (Item item = take(run, in); item != END; item = take(run, in)) {
+            UserProfile user = item.user();
+            Set<ConstraintViolation<UserProfile>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                run.reject(item.line(), "invalid", violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .reduce((a, b) -> a + "; " + b)
+                        .orElseThrow());
+                continue;
+            }
+
+            // Only the profile fields are taken from the upload, as in createUser
+            Instant now = Instant.now();
+            put(run, out, new Item(item.line(), UserProfile.builder()
+                    .id(new ObjectId().toHexString())
+                    .username(user.getUsername())
+                    .email(user.getEmail())
+                    .name(user.getName())
+                    .roles(user.getRoles())
+                    .status(user.getStatus())
+                    .deleted(false)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .livePostCount(0L)
+                    .deletedPostCount(0L)
+                    .version(0L)
+                    .build()));
+        }
+        put(run, out, END);
+    }
+
+    private void write(ImportRun run, BlockingQueue<Item> in) throws InterruptedException {
+        List<Item> batch = new ArrayList<>(batchSize);
+        boolean done = false;
+        while (!done) {
+            Item first = take(run, in);
+            if (first == END) break;
+            batch.add(first);
+            in.drainTo(batch, batchSize - 1);
+            // END is always the last item queued, so it can only be at the end of a drained batch
+            if (batch.getLast() == END) {
+                batch.removeLast();
+                done = true;
+            }
+            insert(run, batch);
+            batch.clear();
+        }
+    }
+
+    private void insert(ImportRun run, List<Item> batch) {
+        // Unordered: a duplicate does not stop the rest; errors carry the position in this write
+        Map<Integer, BulkWriteError> rejected = new HashMap<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserProfile.class)
+                    .insert(batch.stream().map(Item::user).toList())
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) rejected.put(error.getIndex(), error);
+        }
+
+        List<Pair<String, AuditEntry>> audit = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Item item = batch.get(i);
+            BulkWriteError error = rejected.get(i);
+            if (error == null) {
+                audit.add(Pair.of(item.user().getId(), AuditService.entry("CREATE", "User imported")));
+            } else if (error.getCode() == 11000) {
+                run.reject(item.line(), "duplicate", error.getMessage().contains("email_ci_unique")
+                        ? "Email already exists" : "Username already exists");
+            } else {
+                run.reject(item.line(), "rejected", error.getMessage());
+            }
+        }
+        if (audit.isEmpty()) return;
+        auditService.recordAll(audit);
+        audit.forEach(entry -> liveUsers.record(entry.getFirst(), false));
+        run.accepted.addAndGet(audit.size());
+    }
+
+    private static void put(ImportRun run, BlockingQueue<Item> queue, Item item) throws InterruptedException {
+        while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+            checkFailure(run);
+        }
+    }
+
+    private static Item take(ImportRun run, BlockingQueue<Item> queue) throws InterruptedException {
+        while (true) {
+            Item item = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (item != null) return item;
+            checkFailure(run);
+        }
+    }
+
+    // Another stage failed: unwind this one too; the request thread reports the original failure
+    private static void checkFailure(ImportRun run) throws InterruptedException {
+        if (run.failure != null) throw new InterruptedException("Import stopped: another stage failed");
+    }
+}
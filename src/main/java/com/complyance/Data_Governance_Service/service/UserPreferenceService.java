@@ -3,9 +3,8 @@ package com.complyance.Data_Governance_Service.service;
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
 import com.complyance.Data_Governance_Service.model.UserPreference;
-import com.complyance.Data_Governance_Service.model.UserProfile;
 import com.complyance.Data_Governance_Service.repository.UserPreferenceRepository;
-import com.complyance.Data_Governance_Service.repository.UserRepository;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,51 +14,47 @@ import java.time.Instant;
 public class UserPreferenceService {
 
     private final UserPreferenceRepository prefRepo;
-    private final UserRepository userRepo;
+    private final LiveUserIndex liveUsers;
+    private final PreferenceCache cache;
 
-    public UserPreferenceService(UserPreferenceRepository prefRepo, UserRepository userRepo) {
+    public UserPreferenceService(UserPreferenceRepository prefRepo, LiveUserIndex liveUsers, PreferenceCache cache) {
         this.prefRepo = prefRepo;
-        this.userRepo = userRepo;
+        this.liveUsers = liveUsers;
+        this.cache = cache;
     }
 
     @Transactional
     public UserPreference updatePreferences(String userId, UserPreference prefs) {
-        // ✅ 1. User existence check (404)
-        UserProfile user = userRepo.findById(userId)
-                .orElseThrow(() -> new NotFoundException("User not found"));
-
-        // ✅ 2. User active check (403)
-        if (user.isDeleted()) {
-            throw new ForbiddenException("Cannot modify preferences of a soft-deleted user");
+        // ✅ 1. User must exist (404) and be active (403), checked against Mongo since this writes under the user
+        switch (liveUsers.confirm(userId)) {
+            case ABSENT -> throw new NotFoundException("User not found");
+            case DELETED -> throw new ForbiddenException("Cannot modify preferences of a soft-deleted user");
+            case LIVE -> { }
         }
 
-        // ✅ 3. Handle preference existence and timestamps
-        UserPreference existing = prefRepo.findByUserId(userId).orElse(null);
-
-        if (existing != null) {
-            if (existing.isDeleted()) {
+        // ✅ 2. Create-or-update in one atomic upsert
+        try {
+            return prefRepo.upsertLive(userId, prefs, Instant.now());
+        } catch (DuplicateKeyException e) {
+            // Either the preferences are soft-deleted, or a concurrent first write inserted the live document
+            // after ours found no match. Mongo does not retry that upsert itself (deleted is not in the index
+            // key), so look at what is stored: a live document now matches and the retry updates it.
+            if (prefRepo.findByUserId(userId).map(UserPreference::isDeleted).orElse(false)) {
                 throw new ForbiddenException("Cannot update deleted preferences");
             }
-
-            // Update fields
-            existing.setTheme(prefs.getTheme());
-            existing.setLanguage(prefs.getLanguage());
-            existing.setNotificationsEnabled(prefs.isNotificationsEnabled());
-            existing.setUpdatedAt(Instant.now());
-            return prefRepo.save(existing);
-        } else {
-            // Create new preference entry
-            prefs.setUserId(userId);
-            prefs.setCreatedAt(Instant.now());
-            prefs.setUpdatedAt(Instant.now());
-            prefs.setDeleted(false);
-            return prefRepo.save(prefs);
+            return prefRepo.upsertLive(userId, prefs, Instant.now());
+        } finally {
+            cache.invalidate(userId);
         }
     }
 
     public UserPreference getPreferences(String userId) {
+        return cache.get(userId, this::loadPreferences);
+    }
+
+    private UserPreference loadPreferences(String userId) {
         // ✅ Fail if user doesn't exist
-        if (!userRepo.existsById(userId)) {
+        if (!liveUsers.exists(userId)) {
             throw new NotFoundException("User not found");
         }
 
@@ -85,5 +80,6 @@ public class UserPreferenceService {
         pref.setDeletedAt(Instant.now());
         pref.setUpdatedAt(Instant.now());
         prefRepo.save(pref);
+        cache.invalidate(userId);
     }
 }
@@ -2,9 +2,11 @@ package com.complyance.Data_Governance_Service.service;
 
 import com.complyance.Data_Governance_Service.exception.ConflictException;
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
-import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.UserProfile;
-import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.model.UserSummary;
 import com.complyance.Data_Governance_Service.repository.UserPreferenceRepository;
 import com.complyance.Data_Governance_Service.repository.UserRepository;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
@@ -12,120 +14,191 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("createdAt", "updatedAt", "username");
+
     private final UserRepository repo;
     private final UserPreferenceRepository prefRepo;
-    private final PostRepository postRepo;
+    private final CascadeJobService jobService;
+    private final AuditService auditService;
+    private final PreferenceCache preferenceCache;
+    private final LiveUserIndex liveUsers;
 
     @Value("${user.purge.grace-period-hours}")
     private long gracePeriodHours;
 
     public UserService(UserRepository repo,
                        UserPreferenceRepository prefRepo,
-                       PostRepository postRepo) {
+                       CascadeJobService jobService,
+                       AuditService auditService,
+                       PreferenceCache preferenceCache,
+                       LiveUserIndex liveUsers) {
         this.repo = repo;
         this.prefRepo = prefRepo;
-        this.postRepo = postRepo;
+        this.jobService = jobService;
+        this.auditService = auditService;
+        this.preferenceCache = preferenceCache;
+        this.liveUsers = liveUsers;
     }
 
     private void addAudit(UserProfile user, String action, String details) {
-        if (user.getAuditTrail() == null) {
-            user.setAuditTrail(new ArrayList<>());
-        }
-
-        AuditEntry entry = AuditEntry.builder()
-                .action(action)
-                .performedBy("SYSTEM")  // or later from SecurityContext
-                .timestamp(Instant.now())
-                .details(details)
-                .build();
-
-        user.getAuditTrail().add(entry);
+        auditService.record(user.getId(), action, details);
     }
 
 
+    // Username/email uniqueness is enforced by unique indexes; a duplicate surfaces as
+    // DuplicateKeyException and GlobalExceptionHandler answers 409
     public UserProfile createUser(UserProfile user) {
-        if (repo.existsByUsername(user.getUsername())) {
-            throw new ConflictException("Username already exists");
-        }
         user.setCreatedAt(Instant.now());
         user.setUpdatedAt(Instant.now());
-        addAudit(user, "CREATE", "User account created");
-        return repo.save(user);
+        user.setVersion(null); // a client-sent version would turn the insert into an update
+        user.setLivePostCount(0L);
+        user.setDeletedPostCount(0L);
+        UserProfile saved = repo.save(user);
+        liveUsers.record(saved.getId(), false);
+        addAudit(saved, "CREATE", "User account created");
+        return saved;
     }
 
-    public Page<UserProfile> getAllUsersPaged(Pageable pageable) {
+    public Page<UserSummary> getAllUsersPaged(Pageable pageable) {
         return repo.findAllByDeletedFalse(pageable);
     }
 
+    public KeysetPage<UserSummary> getUsersAfter(String after, int limit, String sortBy, String direction,
+                                                 boolean withCount) {
+        if (limit < 1 || limit > 500) {
+            throw new IllegalArgumentException("limit must be between 1 and 500");
+        }
+
+        // A token carries its own sort, so later pages ignore sortBy/direction
+        ContinuationToken token = after != null ? ContinuationToken.decode(after) : null;
+        String sortField = token != null ? token.getSortField() : sortBy;
+        boolean descending = token != null ? token.isDescending() : direction.equalsIgnoreCase("desc");
+        if (!KEYSET_SORT_FIELDS.contains(sortField)) {
+            throw new IllegalArgumentException("Keyset pagination can sort by " + KEYSET_SORT_FIELDS);
+        }
+
+        List<UserSummary> users = repo.findActiveAfter(sortField, descending, token, limit + 1);
+        return KeysetPage.of(users, limit,
+                u -> new ContinuationToken(sortField, descending, u.getId(), sortValue(u, sortField)),
+                withCount ? repo.countActive() : null);
+    }
+
+    private static Object sortValue(UserSummary user, String sortField) {
+        return switch (sortField) {
+            case "updatedAt" -> user.getUpdatedAt();
+            case "username" -> user.getUsername();
+            default -> user.getCreatedAt();
+        };
+    }
+
     public UserProfile getUser(String id) {
         return repo.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
     }
 
     @Transactional
-    public void softDeleteUser(String id) {
+    public CascadeJob softDeleteUser(String id) {
         UserProfile user = getUser(id);
-        user.setDeleted(true);
-        user.setDeletedAt(Instant.now());
+        Instant now = Instant.now();
 
-        postRepo.findByUserIdAndDeletedFalse(id).forEach(post -> {
-            post.setDeleted(true);
-            post.setDeletedAt(Instant.now());
-            postRepo.save(post);
-        });
+        // Posts are cascaded in the background; the job is queued before the user flips
+        CascadeJob job = jobService.enqueue(id, CascadeJob.Type.SOFT_DELETE, now);
 
-        prefRepo.findByUserId(id).ifPresent(pref -> {
-            pref.setDeleted(true);
-            pref.setDeletedAt(Instant.now());
-            prefRepo.save(pref);
-        });
+        repo.markDeleted(id, now);
+        liveUsers.record(id, true);
+        long prefs = prefRepo.softDeleteByUserId(id, now);
+        preferenceCache.invalidate(id);
 
-        addAudit(user, "SOFT_DELETE", "User soft-deleted");
-        repo.save(user);
+        addAudit(user, "SOFT_DELETE",
+                "User soft-deleted (" + prefs + " preferences cascaded, posts queued as job " + job.getId() + ")");
+        return job;
     }
 
-    public List<UserProfile> getAllUsers() {
-        return repo.findAll()
-                .stream().filter(u -> !u.isDeleted()).toList();
+    // Caller must close the stream to release the cursor
+    public Stream<UserProfile> streamActiveUsers() {
+        return repo.streamAllByDeletedFalseOrderByCreatedAtAsc();
     }
 
     @Transactional
     public UserProfile updateUser(String id, UserProfile updatedData) {
-        UserProfile existingUser = repo.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> new NotFoundException("User not found or is deleted"));
-
         // Update only allowed fields
-        if (updatedData.getName() != null) existingUser.setName(updatedData.getName());
-        if (updatedData.getEmail() != null) existingUser.setEmail(updatedData.getEmail());
-        if (updatedData.getRoles() != null && !updatedData.getRoles().isEmpty())
-            existingUser.setRoles(updatedData.getRoles());
-
-        if (updatedData.getStatus() != null &&
-                !updatedData.getStatus().equalsIgnoreCase(existingUser.getStatus())) {
-            existingUser.setStatus(updatedData.getStatus());
-            addAudit(existingUser, "STATUS_UPDATE",
-                    "User status changed to " + updatedData.getStatus());
+        UserProfile changes = UserProfile.builder()
+                .name(updatedData.getName())
+                .email(updatedData.getEmail())
+                .roles(updatedData.getRoles())
+                .status(updatedData.getStatus())
+                .build();
+
+        Instant now = Instant.now();
+        UserProfile previous = applyChanges(id, updatedData.getVersion(), changes, now);
+        UserProfile saved = merge(previous, changes, now);
+
+        boolean statusChanged = updatedData.getStatus() != null &&
+                !updatedData.getStatus().equalsIgnoreCase(previous.getStatus());
+        if (statusChanged) {
+            addAudit(saved, "STATUS_UPDATE", "User status changed to " + updatedData.getStatus());
         }
+        addAudit(saved, "UPDATE", "User profile updated");
+        return saved;
+    }
 
-        existingUser.setUpdatedAt(Instant.now());
-        addAudit(existingUser, "UPDATE", "User profile updated");
+    /**
+     * $sets only the non-null fields of changes on a live user in one round trip,
+     * guarded by expectedVersion when the client sent one. Returns the user as
+     * it was before the update so callers can tell what actually changed.
+     */
+    private UserProfile applyChanges(String id, Long expectedVersion, UserProfile changes, Instant now) {
+        Update update = new Update().set("updatedAt", now);
+        if (changes.getName() != null) update.set("name", changes.getName());
+        if (changes.getEmail() != null) update.set("email", changes.getEmail());
+        if (changes.getUsername() != null) update.set("username", changes.getUsername());
+        if (changes.getRoles() != null && !changes.getRoles().isEmpty()) update.set("roles", changes.getRoles());
+        if (changes.getStatus() != null) update.set("status", changes.getStatus());
+
+        return repo.updateLive(id, expectedVersion, update).orElseThrow(() -> {
+            // Only a missed update with a version guard needs a second look
+            if (expectedVersion != null && repo.existsByIdAndDeletedFalse(id)) {
+                return new ConflictException("User was modified by another request; reload it and retry");
+            }
+            return new NotFoundException("User not found or is deleted");
+        });
+    }
 
-        return repo.save(existingUser);
+    // The stored document after applyChanges, rebuilt without reading it back
+    private static UserProfile merge(UserProfile previous, UserProfile changes, Instant now) {
+        return UserProfile.builder()
+                .id(previous.getId())
+                .username(changes.getUsername() != null ? changes.getUsername() : previous.getUsername())
+                .email(changes.getEmail() != null ? changes.getEmail() : previous.getEmail())
+                .name(changes.getName() != null ? changes.getName() : previous.getName())
+                .roles(changes.getRoles() != null && !changes.getRoles().isEmpty()
+                        ? changes.getRoles() : previous.getRoles())
+                .status(changes.getStatus() != null ? changes.getStatus() : previous.getStatus())
+                .deleted(previous.isDeleted())
+                .createdAt(previous.getCreatedAt())
+                .updatedAt(now)
+                .deletedAt(previous.getDeletedAt())
+                .livePostCount(previous.getLivePostCount())
+                .deletedPostCount(previous.getDeletedPostCount())
+                .version(previous.getVersion() == null ? 1 : previous.getVersion() + 1)
+                .build();
     }
 
 
     @Transactional
-    public void purgeUser(String id) {
+    public CascadeJob purgeUser(String id) {
         UserProfile user = repo.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
@@ -141,59 +214,47 @@ public class UserService {
             throw new ForbiddenException("Cannot purge user before " + gracePeriodHours + "h grace period has passed");
         }
 
-        prefRepo.deleteByUserId(id);
-        postRepo.deleteByUserId(id);
-        addAudit(user, "HARD_DELETE", "User permanently deleted");
-        repo.deleteById(id);
+        // Posts, preferences and finally the user document are removed by the job
+        CascadeJob job = jobService.enqueue(id, CascadeJob.Type.PURGE, Instant.now());
+        addAudit(user, "HARD_DELETE", "User permanent deletion queued as job " + job.getId());
+        return job;
     }
+
     @Transactional
     public UserProfile patchUser(String id, UserProfile partialUpdate) {
-        UserProfile existing = repo.findByIdAndDeletedFalse(id)
-                .orElseThrow(() -> new NotFoundException("User not found or is deleted"));
+        Instant now = Instant.now();
+        UserProfile previous = applyChanges(id, partialUpdate.getVersion(), partialUpdate, now);
 
         StringBuilder changedFields = new StringBuilder();
-
-        if (partialUpdate.getName() != null && !partialUpdate.getName().equals(existing.getName())) {
-            existing.setName(partialUpdate.getName());
+        if (partialUpdate.getName() != null && !partialUpdate.getName().equals(previous.getName())) {
             changedFields.append("name, ");
         }
-
-        if (partialUpdate.getEmail() != null && !partialUpdate.getEmail().equals(existing.getEmail())) {
-            existing.setEmail(partialUpdate.getEmail());
+        if (partialUpdate.getEmail() != null && !partialUpdate.getEmail().equals(previous.getEmail())) {
             changedFields.append("email, ");
         }
-
-        if (partialUpdate.getUsername() != null && !partialUpdate.getUsername().equals(existing.getUsername())) {
-            existing.setUsername(partialUpdate.getUsername());
+        if (partialUpdate.getUsername() != null && !partialUpdate.getUsername().equals(previous.getUsername())) {
             changedFields.append("username, ");
         }
-
         if (partialUpdate.getRoles() != null && !partialUpdate.getRoles().isEmpty()
-                && !partialUpdate.getRoles().equals(existing.getRoles())) {
-            existing.setRoles(partialUpdate.getRoles());
+                && !partialUpdate.getRoles().equals(previous.getRoles())) {
             changedFields.append("roles, ");
         }
-
-        // ✅ Handle status update
-        if (partialUpdate.getStatus() != null && !partialUpdate.getStatus().equals(existing.getStatus())) {
-            existing.setStatus(partialUpdate.getStatus());
+        if (partialUpdate.getStatus() != null && !partialUpdate.getStatus().equals(previous.getStatus())) {
             changedFields.append("status, ");
         }
 
-        existing.setUpdatedAt(Instant.now());
-
         // 🧾 Add audit entry
         String details = !changedFields.isEmpty()
                 ? "Updated fields: " + changedFields.substring(0, changedFields.length() - 2)
                 : "No fields changed";
-        addAudit(existing, "PATCH_UPDATE", details);
-
-        return repo.save(existing);
+        UserProfile saved = merge(previous, partialUpdate, now);
+        addAudit(saved, "PATCH_UPDATE", details);
+        return saved;
     }
 
 
     @Transactional
-    public UserProfile restoreUser(String id) {
+    public CascadeJob restoreUser(String id) {
         UserProfile user = repo.findById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
@@ -209,26 +270,16 @@ public class UserService {
             throw new ForbiddenException("Cannot restore — grace period has expired.");
         }
 
-        // Restore user
-        user.setDeleted(false);
-        user.setDeletedAt(null);
-        user.setUpdatedAt(Instant.now());
-        addAudit(user, "RESTORE", "User restored from soft-deletion");
-
-        // Restore posts
-        postRepo.findByUserIdAndDeletedTrue(id).forEach(post -> {
-            post.setDeleted(false);
-            post.setDeletedAt(null);
-            postRepo.save(post);
-        });
+        Instant now = Instant.now();
+        CascadeJob job = jobService.enqueue(id, CascadeJob.Type.RESTORE, now);
 
-        // Restore preferences
-        prefRepo.findByUserId(id).ifPresent(pref -> {
-            pref.setDeleted(false);
-            pref.setDeletedAt(null);
-            prefRepo.save(pref);
-        });
+        long prefs = prefRepo.restoreByUserId(id, now);
+        preferenceCache.invalidate(id);
+        repo.markRestored(id, now);
+        liveUsers.record(id, false);
 
-        return repo.save(user);
+        addAudit(user, "RESTORE",
+                "User restored from soft-deletion (" + prefs + " preferences cascaded, posts queued as job " + job.getId() + ")");
+        return job;
     }
 }
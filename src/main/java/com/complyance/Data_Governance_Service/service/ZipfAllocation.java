@@ -0,0 +1,32 @@
+package com.complyance.Data_Governance_Service.service;
+
+/**
+ * Deterministic posts-per-user split for seeding: the user at index i gets a
+ * share proportional to 1 / (i + 1)^skew of users * meanPerUser posts.
+ * skew = 0 gives every user exactly meanPerUser; skew around 1 gives the
+ * long tail of real traffic, where a few users own most posts.
+ */
+final class ZipfAllocation {
+
+    private final long total;
+    private final double skew;
+    private final double harmonic;
+
+    ZipfAllocation(int users, int meanPerUser, double skew) {
+        this.total = (long) users * meanPerUser;
+        this.skew = skew;
+        double sum = 0;
+        for (int rank = 1; rank <= users; rank++) {
+            sum += weight(rank);
+        }
+        this.harmonic = sum;
+    }
+
+    long postsFor(int userIndex) {
+        return Math.round(total * weight(userIndex + 1) / harmonic);
+    }
+
+    private double weight(int rank) {
+        return skew == 0 ? 1.0 : 1.0 / Math.pow(rank, skew);
+    }
+}
@@ -0,0 +1,108 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestLogger.class)
+class ConcurrencyLimiterTest {
+
+    static class Handlers {
+        @ConcurrencyLimit(value = "cascades", permits = 2)
+        public void cascade() { }
+
+        @ConcurrencyLimit(value = "preference-reads", permits = 1)
+        public void preferences() { }
+
+        public void unlimited() { }
+    }
+
+    private final MockEnvironment environment = new MockEnvironment();
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        limiter = new ConcurrencyLimiter(environment);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "maxWaitMs", 0L);
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), name);
+    }
+
+    private MockHttpServletRequest enter(String handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertTrue(limiter.preHandle(request, new MockHttpServletResponse(), handler(handler)));
+        return request;
+    }
+
+    private void leave(MockHttpServletRequest request, String handler) throws Exception {
+        limiter.afterCompletion(request, new MockHttpServletResponse(), handler(handler), null);
+    }
+
+    @Test
+    void rejectsOnceGroupIsFull_andAdmitsAgainAfterCompletion() throws Exception {
+        MockHttpServletRequest first = enter("cascade");
+        enter("cascade");
+
+        assertThrows(ServiceUnavailableException.class, () -> enter("cascade"));
+
+        leave(first, "cascade");
+        enter("cascade");
+    }
+
+    @Test
+    void groupsAreIndependent() throws Exception {
+        enter("cascade");
+        enter("cascade");
+
+        // Cascades are saturated, preference reads still get in
+        enter("preferences");
+        enter("unlimited");
+    }
+
+    @Test
+    void propertyOverridesAnnotationPermits() throws Exception {
+        environment.setProperty("http.concurrency.limits.preference-reads", "3");
+
+        enter("preferences");
+        enter("preferences");
+        enter("preferences");
+        assertThrows(ServiceUnavailableException.class, () -> enter("preferences"));
+    }
+
+    @Test
+    void asyncDispatchReusesThePermitOfTheFirstDispatch() throws Exception {
+        MockHttpServletRequest request = enter("preferences");
+
+        // Second pass through the interceptor for the same request (async dispatch) does not acquire again
+        assertTrue(limiter.preHandle(request, new MockHttpServletResponse(), handler("preferences")));
+        leave(request, "preferences");
+
+        enter("preferences");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stats_reportPermitsInUseAndRejections() throws Exception {
+        enter("preferences");
+        assertThrows(ServiceUnavailableException.class, () -> enter("preferences"));
+
+        Map<String, Object> group = (Map<String, Object>) limiter.stats().get("preference-reads");
+        assertEquals(1, group.get("permits"));
+        assertEquals(1, group.get("inUse"));
+        assertEquals(1L, group.get("rejected"));
+    }
+}
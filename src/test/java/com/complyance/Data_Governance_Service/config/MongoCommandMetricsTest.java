@@ -0,0 +1,98 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class MongoCommandMetricsTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    @Mock private SlowQueryLog slowQueries;
+    @Mock private RequestRoundTrips roundTrips;
+    @InjectMocks private MongoCommandMetrics metrics;
+
+    private int requestId;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(slowQueries.enabled()).thenReturn(true);
+    }
+
+    private void run(String name, String command, String response, long millis) {
+        int id = ++requestId;
+        metrics.commandStarted(new CommandStartedEvent(null, id, id, CONNECTION, "db", name,
+                BsonDocument.parse(command)));
+        metrics.commandSucceeded(new CommandSucceededEvent(null, id, id, CONNECTION, "db", name,
+                BsonDocument.parse(response), TimeUnit.MILLISECONDS.toNanos(millis)));
+    }
+
+    @Test
+    void shape_shouldKeepFieldsAndOperators_andDropValues() {
+        BsonDocument find = BsonDocument.parse("""
+                {find: "posts", filter: {userId: "u1", deleted: false, tags: {$in: ["a", "b"]}},
+                 sort: {createdAt: -1, _id: -1}, limit: 20}""");
+        assertEquals("find {userId: ?, deleted: ?, tags: {$in: [?]}} sort {createdAt: -1, _id: -1}",
+                MongoCommandMetrics.shape("find", find));
+
+        BsonDocument aggregate = BsonDocument.parse("""
+                {aggregate: "posts", pipeline: [{$match: {$or: [{userId: "u1"}, {userId: "u2"}]}},
+                 {$group: {_id: "$deleted", count: {$sum: 1}}}, {$sort: {count: -1}}], cursor: {}}""");
+        assertEquals("aggregate | $match {$or: [{userId: ?}, {userId: ?}]} | $group | $sort {count: -1}",
+                MongoCommandMetrics.shape("aggregate", aggregate));
+    }
+
+    @Test
+    void commands_shouldGroupByShape_withGetMoreBatchesOnTheOpeningQuery() {
+        run("find", "{find: 'posts', filter: {userId: 'u1'}}",
+                "{ok: 1, cursor: {id: {$numberLong: '42'}, firstBatch: [{}, {}]}}", 5);
+        run("find", "{find: 'posts', filter: {userId: 'u2'}}",
+                "{ok: 1, cursor: {id: {$numberLong: '0'}, firstBatch: [{}]}}", 5);
+        run("getMore", "{getMore: {$numberLong: '42'}, collection: 'posts'}",
+                "{ok: 1, cursor: {id: {$numberLong: '0'}, nextBatch: [{}, {}, {}]}}", 1);
+
+        List<Map<String, Object>> stats = metrics.stats(10);
+
+        Map<String, Object> find = stats.stream()
+                .filter(s -> s.get("shape").equals("posts find {userId: ?}")).findFirst().orElseThrow();
+        assertEquals(2L, find.get("commands"));
+        assertEquals(3L, find.get("documents"));
+        Map<String, Object> getMore = stats.stream()
+                .filter(s -> s.get("shape").equals("posts find {userId: ?} (getMore)")).findFirst().orElseThrow();
+        assertEquals(3L, getMore.get("documents"));
+    }
+
+    @Test
+    void reads_shouldBeOfferedToSlowQueryLog_withACopyOfTheCommand() {
+        run("find", "{find: 'users', filter: {email: 'a@b.c'}, lsid: {id: 1}}",
+                "{ok: 1, cursor: {id: {$numberLong: '0'}, firstBatch: []}}", 250);
+        run("insert", "{insert: 'users', documents: [{}]}", "{ok: 1, n: 1}", 250);
+
+        ArgumentCaptor<BsonDocument> command = ArgumentCaptor.forClass(BsonDocument.class);
+        verify(slowQueries).offer(eq("db"), eq("users"), eq("users find {email: ?}"), command.capture(),
+                eq(250L), eq(0L));
+        verifyNoMoreInteractions(ignoreStubs(slowQueries));
+        assertEquals("a@b.c", command.getValue().getDocument("filter").getString("email").getValue());
+        verify(roundTrips).record(eq("users find {email: ?}"), anyLong());
+        verify(roundTrips).record(eq("users insert"), anyLong());
+    }
+}
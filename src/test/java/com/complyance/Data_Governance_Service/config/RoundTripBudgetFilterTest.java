@@ -0,0 +1,88 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestLogger.class)
+class RoundTripBudgetFilterTest {
+
+    static class Handlers {
+        @RoundTripBudget(2)
+        public void getUser() { }
+
+        public void unannotated() { }
+    }
+
+    private final RequestRoundTrips roundTrips = new RequestRoundTrips();
+    private RoundTripBudgetFilter filter;
+
+    @BeforeEach
+    void setup() {
+        filter = new RoundTripBudgetFilter(roundTrips);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "headers", true);
+        ReflectionTestUtils.setField(filter, "defaultBudget", 10);
+    }
+
+    private MockHttpServletRequest request(String handler) throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/u1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(new Handlers(), handler));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/users/{id}");
+        return request;
+    }
+
+    // A handler that makes `lookups` identical queries and one other, then writes a body
+    private FilterChain handler(int lookups) {
+        return (req, res) -> {
+            for (int i = 0; i < lookups; i++) roundTrips.record("posts find {userId: ?}", 100);
+            roundTrips.record("users find {_id: ?}", 50);
+            res.getWriter().write("{}");
+        };
+    }
+
+    @Test
+    void headers_shouldCarryCountsOfTheRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("getUser"), response, handler(1));
+
+        assertEquals("2", response.getHeader(RoundTripBudgetFilter.COMMANDS_HEADER));
+        assertEquals("150", response.getHeader(RoundTripBudgetFilter.BYTES_HEADER));
+        assertTrue(filter.stats().isEmpty());
+    }
+
+    @Test
+    void overBudget_shouldBeCounted_andFailInTestMode() throws Exception {
+        filter.doFilter(request("getUser"), new MockHttpServletResponse(), handler(5));
+        filter.doFilter(request("unannotated"), new MockHttpServletResponse(), handler(5));
+        assertEquals(Map.of("GET /api/v1/users/{id}", 1L), filter.stats());
+
+        ReflectionTestUtils.setField(filter, "failOnExceed", true);
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request("getUser"), new MockHttpServletResponse(), handler(5)));
+        assertEquals("GET /api/v1/users/{id} made 6 Mongo round trips (budget 2); most repeated: "
+                + "posts find {userId: ?} x5", failure.getMessage());
+    }
+
+    @Test
+    void commandsOutsideARequest_shouldNotBeCounted() throws Exception {
+        roundTrips.record("users find {_id: ?}", 50);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("getUser"), response, (req, res) -> { });
+
+        assertEquals("0", response.getHeader(RoundTripBudgetFilter.COMMANDS_HEADER));
+    }
+}
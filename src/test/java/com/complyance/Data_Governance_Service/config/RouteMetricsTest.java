@@ -0,0 +1,91 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestLogger.class)
+class RouteMetricsTest {
+
+    private static final String USER_ROUTE = "/api/v1/users/{id}";
+
+    private RouteMetrics metrics;
+    private RouteMetricsFilter filter;
+
+    @BeforeEach
+    void setup() {
+        metrics = new RouteMetrics();
+        filter = new RouteMetricsFilter(metrics);
+        ReflectionTestUtils.setField(filter, "enabled", true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> route(String key) {
+        return (Map<String, Object>) metrics.stats().get(key);
+    }
+
+    @Test
+    void stats_shouldReportPercentilesAndStatusClasses() {
+        for (int ms = 1; ms <= 100; ms++) {
+            metrics.record("GET", USER_ROUTE, ms == 100 ? 500 : 200, TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+        metrics.record("GET", USER_ROUTE, 404, TimeUnit.MILLISECONDS.toNanos(1));
+
+        Map<String, Object> stats = route("GET " + USER_ROUTE);
+        assertEquals(101L, stats.get("requests"));
+        assertEquals(Map.of("2xx", 99L, "4xx", 1L, "5xx", 1L), stats.get("status"));
+        assertEquals(50.0, (double) stats.get("p50Ms"), 1.0);
+        assertEquals(99.0, (double) stats.get("p99Ms"), 1.0);
+        assertEquals(100.0, (double) stats.get("maxMs"), 1.0);
+    }
+
+    @Test
+    void prometheus_shouldExposeCountersAndSummary() {
+        metrics.record("POST", "/api/v1/users", 201, TimeUnit.MILLISECONDS.toNanos(2));
+
+        String text = metrics.prometheus();
+
+        assertTrue(text.contains("# TYPE http_server_requests_total counter"));
+        assertTrue(text.contains("http_server_requests_total{method=\"POST\",route=\"/api/v1/users\",status=\"2xx\"} 1"));
+        assertTrue(text.contains("http_server_request_duration_seconds{method=\"POST\",route=\"/api/v1/users\",quantile=\"0.99\"} 0.002"));
+        assertTrue(text.contains("http_server_request_duration_seconds_count{method=\"POST\",route=\"/api/v1/users\"} 1"));
+    }
+
+    @Test
+    void filter_shouldRecordUnderMatchedPattern() throws ServletException, IOException {
+        for (String id : new String[]{"a", "b"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/" + id);
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, USER_ROUTE);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        }
+        filter.doFilter(new MockHttpServletRequest("GET", "/nowhere"), new MockHttpServletResponse(),
+                new MockFilterChain());
+
+        assertEquals(2L, route("GET " + USER_ROUTE).get("requests"));
+        assertEquals(1L, route("GET " + RouteMetrics.UNMATCHED).get("requests"));
+    }
+
+    @Test
+    void filter_shouldRecordFailureAs500_whenExceptionEscapes() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/a");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, USER_ROUTE);
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> { throw new IllegalStateException("boom"); }));
+
+        assertEquals(Map.of("5xx", 1L), route("GET " + USER_ROUTE).get("status"));
+    }
+}
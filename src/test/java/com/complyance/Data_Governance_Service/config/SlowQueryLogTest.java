@@ -0,0 +1,75 @@
+package com.complyance.Data_Governance_Service.config;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.mongodb.client.MongoDatabase;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class SlowQueryLogTest {
+
+    private final MongoDatabase database = mock(MongoDatabase.class);
+    private SlowQueryLog slowQueries;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        MongoTemplate template = mock(MongoTemplate.class);
+        MongoDatabaseFactory factory = mock(MongoDatabaseFactory.class);
+        when(template.getMongoDatabaseFactory()).thenReturn(factory);
+        when(factory.getMongoDatabase("db")).thenReturn(database);
+        ObjectProvider<MongoTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(template);
+
+        slowQueries = new SlowQueryLog(provider, 2);
+        ReflectionTestUtils.setField(slowQueries, "enabled", true);
+        ReflectionTestUtils.setField(slowQueries, "thresholdMs", 100L);
+    }
+
+    @Test
+    void explain_shouldSummarizeWinningPlan_withoutDriverFields() {
+        when(database.runCommand(any(BsonDocument.class))).thenReturn(Document.parse("""
+                {queryPlanner: {winningPlan: {stage: "FETCH",
+                    inputStage: {stage: "IXSCAN", indexName: "posts_user_created"}}}}"""));
+
+        SlowQueryLog.SlowQuery entry = slowQueries.explain("db", "posts", "posts find {userId: ?}",
+                BsonDocument.parse("{find: 'posts', filter: {userId: 'u1'}, lsid: {id: 1}, $db: 'db'}"), 150, 20);
+
+        assertEquals("FETCH > IXSCAN posts_user_created", entry.plan());
+        assertNull(entry.explainError());
+        verify(database).runCommand(BsonDocument.parse(
+                "{explain: {find: 'posts', filter: {userId: 'u1'}}, verbosity: 'queryPlanner'}"));
+    }
+
+    @Test
+    void offer_shouldKeepNewestEntries_andSkipFastQueries() throws InterruptedException {
+        when(database.runCommand(any(BsonDocument.class)))
+                .thenReturn(Document.parse("{queryPlanner: {winningPlan: {stage: 'COLLSCAN'}}}"));
+        BsonDocument command = BsonDocument.parse("{find: 'posts', filter: {}}");
+
+        slowQueries.offer("db", "posts", "fast", command, 50, 0);
+        for (String shape : List.of("first", "second", "third")) {
+            slowQueries.offer("db", "posts", shape, command, 500, 0);
+            // Explains are queued to one background thread; wait for each so the order is fixed
+            for (int i = 0; i < 100 && slowQueries.entries().stream().noneMatch(e -> e.shape().equals(shape)); i++) {
+                Thread.sleep(10);
+            }
+        }
+
+        assertEquals(List.of("third", "second"), slowQueries.entries().stream().map(SlowQueryLog.SlowQuery::shape).toList());
+        assertEquals("COLLSCAN", slowQueries.entries().getFirst().plan());
+    }
+}
@@ -0,0 +1,96 @@
+package com.complyance.Data_Governance_Service.controller;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * Drives the main user, post and preference endpoints against a real mongod
+ * with mongo.round-trips.fail-on-exceed set, so any handler that makes more
+ * Mongo round trips than its @RoundTripBudget fails the request, and the test.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = {
+        "mongo.round-trips.fail-on-exceed=true",
+        "mongo.round-trips.headers=true",
+        "cascade.jobs.enabled=false",
+        "user.purge.sweep.enabled=false"})
+@AutoConfigureMockMvc
+@ExtendWith(TestLogger.class)
+class RoundTripBudgetTest {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @DynamicPropertySource
+    static void mongoUri(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("round_trip_budget"));
+    }
+
+    @Autowired private MockMvc mvc;
+    private final ObjectMapper json = new ObjectMapper();
+
+    private MvcResult call(RequestBuilder request) throws Exception {
+        MvcResult result = mvc.perform(request).andReturn();
+        assertTrue(result.getResponse().getStatus() < 400,
+                () -> "Unexpected " + result.getResponse().getStatus() + " for " + result.getRequest().getRequestURI());
+        return result;
+    }
+
+    private JsonNode body(MvcResult result) throws Exception {
+        return json.readTree(result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void mainEndpoints_shouldStayWithinTheirBudgets() throws Exception {
+        String userId = body(call(post("/api/v1/users").contentType(MediaType.APPLICATION_JSON).content("""
+                {"username": "budget", "email": "budget@test.com", "name": "Budget", "roles": ["USER"]}"""
+        ))).path("id").asText();
+
+        MvcResult read = call(get("/api/v1/users/" + userId));
+        assertEquals("1", read.getResponse().getHeader("X-Mongo-Commands"));
+
+        call(patch("/api/v1/users/" + userId).contentType(MediaType.APPLICATION_JSON).content("{\"name\": \"Renamed\"}"));
+        call(get("/api/v1/users/" + userId + "/audit"));
+        call(get("/api/v1/users").param("page", "0").param("size", "10"));
+        call(get("/api/v1/users").param("limit", "10"));
+
+        call(put("/api/v1/users/" + userId + "/preferences").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"theme\": \"dark\", \"language\": \"en\"}"));
+        call(get("/api/v1/users/" + userId + "/preferences"));
+
+        String postId = null;
+        for (int i = 0; i < 5; i++) {
+            postId = body(call(post("/api/v1/users/" + userId + "/posts").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\": \"Post " + i + "\", \"content\": \"Body\"}"))).path("id").asText();
+        }
+        call(get("/api/v1/users/" + userId + "/posts").param("page", "0").param("size", "2"));
+        call(get("/api/v1/users/" + userId + "/posts").param("limit", "2").param("count", "true"));
+        MvcResult batch = call(post("/api/v1/posts:batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"userId\": \"" + userId + "\", \"title\": \"Batch\"}, {\"userId\": \"nobody\"}]"));
+        assertEquals(1, body(batch).path("created").asInt());
+        call(get("/api/v1/posts/" + postId));
+        call(delete("/api/v1/posts/" + postId));
+
+        String jobId = body(call(delete("/api/v1/users/" + userId))).path("jobId").asText();
+        call(get("/api/v1/jobs/" + jobId));
+    }
+}
@@ -0,0 +1,64 @@
+package com.complyance.Data_Governance_Service.controller;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.GlobalExceptionHandler;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
+import com.complyance.Data_Governance_Service.service.AuditService;
+import com.complyance.Data_Governance_Service.service.CascadeJobService;
+import com.complyance.Data_Governance_Service.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(TestLogger.class)
+class UserControllerTest {
+
+    @Mock private UserService service;
+    @Mock private CascadeJobService jobService;
+    @Mock private AuditService auditService;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        mvc = MockMvcBuilders
+                .standaloneSetup(new UserController(service, jobService, auditService, new ObjectMapper()))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        when(service.getAllUsersPaged(any(Pageable.class)))
+                .thenAnswer(i -> new PageImpl<>(List.of(), i.getArgument(0), 0));
+        when(service.getUsersAfter(any(), anyInt(), anyString(), anyString(), anyBoolean()))
+                .thenReturn(new KeysetPage<>());
+    }
+
+    @Test
+    void list_shouldPickOneMode_perParameterSet() throws Exception {
+        mvc.perform(get("/api/v1/users").param("page", "0").param("size", "10")).andExpect(status().isOk());
+        mvc.perform(get("/api/v1/users").param("limit", "10")).andExpect(status().isOk());
+
+        verify(service).getAllUsersPaged(any(Pageable.class));
+        verify(service).getUsersAfter(null, 10, "createdAt", "asc", false);
+    }
+
+    @Test
+    void list_shouldRejectMixedPaginationModes() throws Exception {
+        mvc.perform(get("/api/v1/users").param("page", "0").param("size", "10").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/v1/users").param("page", "0").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+}
@@ -0,0 +1,83 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.AuditBucket;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class AuditBucketRepositoryCustomImplTest {
+
+    private static final Duration DAY = Duration.ofDays(1);
+    private static final Instant DAY_1 = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant DAY_2 = DAY_1.plus(DAY);
+    private static final Instant DAY_3 = DAY_2.plus(DAY);
+
+    @Mock private MongoTemplate mongoTemplate;
+    private AuditBucketRepositoryCustomImpl repo;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        repo = new AuditBucketRepositoryCustomImpl(mongoTemplate);
+    }
+
+    // A bucket of the given window holding entries at windowStart + 1h, 2h, ... in insertion order
+    private static AuditBucket bucket(String id, Instant windowStart, int firstHour, int count) {
+        List<AuditEntry> entries = new ArrayList<>();
+        for (int h = firstHour; h < firstHour + count; h++) {
+            entries.add(AuditEntry.builder().action(id + "-" + h).timestamp(windowStart.plus(Duration.ofHours(h))).build());
+        }
+        return AuditBucket.builder().id(id).userId("u1").windowStart(windowStart).count(count).entries(entries).build();
+    }
+
+    private static AuditBucket header(AuditBucket bucket) {
+        return AuditBucket.builder().id(bucket.getId()).windowStart(bucket.getWindowStart()).count(bucket.getCount()).build();
+    }
+
+    @Test
+    void findEntries_shouldSkipWholeWindowsOnTheirCounts_andLoadOnlyTheWindowsThePageTouches() {
+        AuditBucket newest = bucket("d3", DAY_3, 1, 3);
+        AuditBucket fullOfDay2 = bucket("d2a", DAY_2, 1, 2);
+        AuditBucket restOfDay2 = bucket("d2b", DAY_2, 3, 2);
+        AuditBucket oldest = bucket("d1", DAY_1, 1, 5);
+        when(mongoTemplate.stream(any(Query.class), eq(AuditBucket.class))).thenReturn(Stream.of(
+                header(newest), header(fullOfDay2), header(restOfDay2), header(oldest)));
+        when(mongoTemplate.find(any(Query.class), eq(AuditBucket.class))).thenReturn(List.of(restOfDay2, fullOfDay2));
+
+        // Entries 4-6, newest first: day 3 (3 entries) is skipped on its count, day 2 spans two buckets
+        List<AuditEntry> page = repo.findEntries("u1", null, null, DAY, 3, 3);
+
+        assertEquals(List.of("d2b-4", "d2b-3", "d2a-2"), page.stream().map(AuditEntry::getAction).toList());
+        ArgumentCaptor<Query> loaded = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(loaded.capture(), eq(AuditBucket.class));
+        assertEquals(List.of("d2a", "d2b"), loaded.getValue().getQueryObject().get("_id", Document.class).get("$in"));
+    }
+
+    @Test
+    void findEntries_shouldFilterTheBoundaryWindow_byTimestamp() {
+        AuditBucket day2 = bucket("d2", DAY_2, 1, 4);
+        when(mongoTemplate.stream(any(Query.class), eq(AuditBucket.class))).thenReturn(Stream.of(header(day2)));
+        when(mongoTemplate.find(any(Query.class), eq(AuditBucket.class))).thenReturn(List.of(day2));
+
+        // 'to' falls inside day 2, so its count cannot be trusted and the entries are read and filtered
+        List<AuditEntry> page = repo.findEntries("u1", null, DAY_2.plus(Duration.ofHours(3)), DAY, 0, 10);
+
+        assertEquals(List.of("d2-2", "d2-1"), page.stream().map(AuditEntry::getAction).toList());
+    }
+}
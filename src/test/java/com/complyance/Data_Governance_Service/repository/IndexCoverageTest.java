@@ -0,0 +1,238 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.AuditBucket;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserPreference;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.FindIterable;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Explains every query shape the repositories issue against a real mongod with
+ * the declared index set applied, and fails on any COLLSCAN or in-memory SORT.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@ExtendWith(TestLogger.class)
+class IndexCoverageTest {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    static MongoClient client;
+    static MongoTemplate template;
+
+    static final String USER_ID = new ObjectId().toHexString();
+    static final String POST_ID = new ObjectId().toHexString();
+    static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        template = new MongoTemplate(client, "index_coverage");
+
+        IndexCatalog catalog = new IndexCatalog(template);
+        catalog.ensureIndexes();
+        assertEquals(true, catalog.verify().get("ok"));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (client != null) client.close();
+    }
+
+    // ---------- posts ----------
+
+    @Test
+    void postListingsUseLiveIndexes() {
+        for (String field : List.of("createdAt", "updatedAt")) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                assertIndexed(Post.class, query(where("userId").is(USER_ID).and("deleted").is(false))
+                        .with(Sort.by(direction, field, "id")).limit(20));
+                assertIndexed(Post.class, query(where("userId").is(USER_ID).and("deleted").is(false))
+                        .with(Sort.by(direction, field)).skip(40).limit(20));
+            }
+        }
+    }
+
+    @Test
+    void postKeysetSeekUsesLiveIndexes() {
+        for (String field : List.of("createdAt", "updatedAt")) {
+            for (boolean descending : List.of(true, false)) {
+                ContinuationToken after = new ContinuationToken(field, descending, POST_ID, NOW);
+                assertIndexed(Post.class, KeysetQuery.build(
+                        where("userId").is(USER_ID).and("deleted").is(false), field, descending, after, 21));
+            }
+        }
+    }
+
+    @Test
+    void postSearchUsesLiveTextIndex() {
+        // Ranking by score is always an in-memory top-k sort; only the match itself has to be indexed
+        Document filter = new Document("$text", new Document("$search", "release notes")).append("deleted", false);
+        List<String> stages = new ArrayList<>();
+        collectStages(collection(Post.class).find(filter).explain().get("queryPlanner"), stages);
+
+        assertTrue(stages.contains("TEXT_MATCH"), () -> "No text index for post search: " + stages);
+        assertFalse(stages.contains("COLLSCAN"), () -> "COLLSCAN for post search: " + stages);
+    }
+
+    @Test
+    void postCascadeChunksAndCountsUseUserDeletedIndex() {
+        for (List<Boolean> deleted : List.of(List.of(false), List.of(true), List.of(false, true))) {
+            assertIndexed(Post.class, query(where("userId").is(USER_ID).and("deleted").in(deleted)
+                    .and("id").gt(POST_ID)).with(Sort.by("id")).limit(1000));
+        }
+
+        assertCountIndexed(Post.class, query(where("userId").is(USER_ID)));
+        assertCountIndexed(Post.class, query(where("userId").is(USER_ID).and("deleted").is(true)));
+        assertCountIndexed(Post.class, query(where("userId").is(USER_ID).and("deleted").is(false)));
+    }
+
+    // ---------- users ----------
+
+    @Test
+    void userListingsAndSeeksUseLiveIndexes() {
+        for (String field : List.of("createdAt", "updatedAt", "username")) {
+            for (boolean descending : List.of(true, false)) {
+                Object value = field.equals("username") ? "alice" : NOW;
+                ContinuationToken after = new ContinuationToken(field, descending, USER_ID, value);
+                assertIndexed(UserProfile.class, KeysetQuery.build(
+                        where("deleted").is(false), field, descending, null, 21));
+                assertIndexed(UserProfile.class, KeysetQuery.build(
+                        where("deleted").is(false), field, descending, after, 21));
+            }
+            assertIndexed(UserProfile.class, query(where("deleted").is(false))
+                    .with(Sort.by(field)).skip(100).limit(10));
+        }
+    }
+
+    @Test
+    void userLookupsExportAndCountAreIndexed() {
+        assertIndexed(UserProfile.class, query(where("id").is(USER_ID).and("deleted").is(false)));
+        assertIndexed(UserProfile.class, query(where("deleted").is(false)).with(Sort.by("createdAt")));
+        assertCountIndexed(UserProfile.class, query(where("deleted").is(false)).withHint("live_created"));
+    }
+
+    @Test
+    void purgeSweepScanUsesExpiryIndex() {
+        Criteria expired = where("deleted").is(true).and("deletedAt").lt(NOW);
+        assertIndexed(UserProfile.class, KeysetQuery.build(expired, "deletedAt", false, null, 100));
+        assertIndexed(UserProfile.class, KeysetQuery.build(expired, "deletedAt", false,
+                new ContinuationToken("deletedAt", false, USER_ID, NOW.minusSeconds(3600)), 100));
+    }
+
+    // ---------- preferences, jobs, audit ----------
+
+    @Test
+    void preferenceLookupsUseUserIdIndex() {
+        assertIndexed(UserPreference.class, query(where("userId").is(USER_ID)));
+        assertIndexed(UserPreference.class, query(where("userId").is(USER_ID).and("deleted").is(false)));
+        assertIndexed(UserPreference.class, query(where("userId").is(USER_ID).and("deleted").is(true)));
+    }
+
+    @Test
+    void cascadeJobQueriesAreIndexed() {
+        assertIndexed(CascadeJob.class, query(where("userId").is(USER_ID).and("active").is(true)).limit(1));
+        assertIndexed(CascadeJob.class, query(new Criteria().orOperator(
+                where("status").is(CascadeJob.Status.PENDING),
+                where("status").is(CascadeJob.Status.RUNNING).and("leaseExpiresAt").lt(NOW)))
+                .with(Sort.by("createdAt")).limit(1));
+        assertCountIndexed(CascadeJob.class, query(where("type").is(CascadeJob.Type.PURGE)
+                .and("status").in(CascadeJob.Status.PENDING, CascadeJob.Status.RUNNING)));
+    }
+
+    @Test
+    void auditBucketQueriesAreIndexed() {
+        Instant from = NOW.minus(30, ChronoUnit.DAYS);
+        assertIndexed(AuditBucket.class, query(where("userId").is(USER_ID)
+                .and("windowStart").gte(from).lt(NOW)).with(Sort.by(Sort.Direction.DESC, "windowStart")));
+        assertIndexed(AuditBucket.class, query(where("userId").is(USER_ID)
+                .and("windowStart").is(NOW).and("count").lt(200)));
+    }
+
+    // ---------- helpers ----------
+
+    private static void assertIndexed(Class<?> entity, Query query) {
+        MongoPersistentEntity<?> persistent = persistentEntity(entity);
+        QueryMapper mapper = new QueryMapper(template.getConverter());
+        Document filter = mapper.getMappedObject(query.getQueryObject(), persistent);
+        Document sort = mapper.getMappedSort(query.getSortObject(), persistent);
+
+        FindIterable<Document> find = collection(entity).find(filter).sort(sort);
+        if (query.getSkip() > 0) find.skip((int) query.getSkip());
+        if (query.isLimited()) find.limit(query.getLimit());
+        if (query.getHint() != null) find.hintString(query.getHint());
+
+        assertNoScanOrSort(entity, filter, sort, find.explain());
+    }
+
+    private static void assertCountIndexed(Class<?> entity, Query query) {
+        Document filter = new QueryMapper(template.getConverter())
+                .getMappedObject(query.getQueryObject(), persistentEntity(entity));
+        Document count = new Document("count", template.getCollectionName(entity)).append("query", filter);
+        if (query.getHint() != null) count.append("hint", query.getHint());
+
+        assertNoScanOrSort(entity, filter, new Document(),
+                template.getDb().runCommand(new Document("explain", count)));
+    }
+
+    private static void assertNoScanOrSort(Class<?> entity, Document filter, Document sort, Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner"), stages);
+        String shape = template.getCollectionName(entity) + " " + filter.toJson() + " sort " + sort.toJson();
+        assertFalse(stages.contains("COLLSCAN"), () -> "COLLSCAN for " + shape + ": " + stages);
+        assertFalse(stages.contains("SORT"), () -> "In-memory SORT for " + shape + ": " + stages);
+    }
+
+    // Walks the winning plan and any nested input stages, including $or branches
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> {
+                if ("rejectedPlans".equals(key)) return;
+                if ("stage".equals(key) && value instanceof String stage) stages.add(stage);
+                collectStages(value, stages);
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectStages(item, stages));
+        }
+    }
+
+    private static MongoPersistentEntity<?> persistentEntity(Class<?> entity) {
+        return template.getConverter().getMappingContext().getRequiredPersistentEntity(entity);
+    }
+
+    private static MongoCollection<Document> collection(Class<?> entity) {
+        return template.getCollection(template.getCollectionName(entity));
+    }
+}
@@ -0,0 +1,120 @@
+package com.complyance.Data_Governance_Service.repository;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.GlobalExceptionHandler;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent signups against the unique indexes from IndexCatalog: for every
+ * username exactly one insert may win, whatever the case of the losers.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@ExtendWith(TestLogger.class)
+class UserUniquenessTest {
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    static MongoClient client;
+    static MongoTemplate template;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongo.getReplicaSetUrl());
+        template = new MongoTemplate(client, "user_uniqueness");
+        new IndexCatalog(template).ensureIndexes();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (client != null) client.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        template.remove(new Query(), UserProfile.class);
+    }
+
+    @Test
+    void concurrentDuplicateCreates_shouldLetExactlyOneWinPerUsername() throws Exception {
+        int usernames = 20;
+        int attemptsPerUsername = 10;
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int u = 0; u < usernames; u++) {
+            for (int a = 0; a < attemptsPerUsername; a++) {
+                // Alternate case so the collation, not byte equality, has to catch the duplicate
+                String username = (a % 2 == 0 ? "user" : "USER") + u;
+                String email = username + "-" + a + "@test.com";
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    try {
+                        template.insert(user(username, email));
+                        created.incrementAndGet();
+                    } catch (DuplicateKeyException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> future : futures) future.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(usernames, created.get());
+        assertEquals(usernames * (attemptsPerUsername - 1), rejected.get());
+        assertEquals(usernames, template.count(new Query(),
+                UserProfile.class));
+    }
+
+    @Test
+    void duplicateEmail_shouldMapToConflictResponse() {
+        template.insert(user("alice", "alice@test.com"));
+
+        DuplicateKeyException duplicate = assertThrows(DuplicateKeyException.class,
+                () -> template.insert(user("bob", "ALICE@test.com")));
+
+        ResponseEntity<Map<String, Object>> response = new GlobalExceptionHandler().handleDuplicateKey(duplicate);
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Email already exists", response.getBody().get("message"));
+    }
+
+    private static UserProfile user(String username, String email) {
+        return UserProfile.builder()
+                .username(username)
+                .email(email)
+                .name(username)
+                .roles(List.of("USER"))
+                .status("ACTIVE")
+                .build();
+    }
+}
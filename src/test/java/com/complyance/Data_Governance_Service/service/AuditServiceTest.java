@@ -0,0 +1,68 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.repository.AuditBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class AuditServiceTest {
+
+    @Mock private AuditBucketRepository auditRepo;
+    @InjectMocks private AuditService auditService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(auditService, "windowHours", 24L);
+        ReflectionTestUtils.setField(auditService, "maxEntries", 200);
+    }
+
+    @Test
+    void record_shouldAppendEntryToBucket() {
+        auditService.record("u1", "CREATE", "User account created");
+
+        ArgumentCaptor<AuditEntry> entry = ArgumentCaptor.forClass(AuditEntry.class);
+        verify(auditRepo).append(eq("u1"), entry.capture(), eq(Duration.ofHours(24)), eq(200));
+        assertEquals("CREATE", entry.getValue().getAction());
+        assertEquals("SYSTEM", entry.getValue().getPerformedBy());
+        assertNotNull(entry.getValue().getTimestamp());
+    }
+
+    @Test
+    void getAuditTrail_shouldReportNextPage_whenMoreEntriesThanSize() {
+        List<AuditEntry> three = List.of(
+                AuditService.entry("A", null), AuditService.entry("B", null), AuditService.entry("C", null));
+        when(auditRepo.findEntries(eq("u1"), isNull(), isNull(), any(), eq(2L), eq(3))).thenReturn(three);
+
+        Map<String, Object> page = auditService.getAuditTrail("u1", null, null, 1, 2);
+
+        assertEquals(2, ((List<?>) page.get("entries")).size());
+        assertEquals(true, page.get("hasNext"));
+    }
+
+    @Test
+    void getAuditTrail_shouldRejectInvertedRange() {
+        Instant now = Instant.now();
+        assertThrows(IllegalArgumentException.class, () ->
+                auditService.getAuditTrail("u1", now, now.minusSeconds(60), 0, 10));
+        verifyNoInteractions(auditRepo);
+    }
+
+    @Test
+    void getAuditTrail_shouldRejectOversizedPage() {
+        assertThrows(IllegalArgumentException.class, () ->
+                auditService.getAuditTrail("u1", null, null, 0, 501));
+    }
+}
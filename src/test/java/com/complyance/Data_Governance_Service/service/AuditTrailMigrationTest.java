@@ -0,0 +1,117 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class AuditTrailMigrationTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private MongoConverter converter;
+    @Mock private AuditService auditService;
+    @InjectMocks private AuditTrailMigration migration;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(migration, "leaseMinutes", 10L);
+        when(mongoTemplate.getCollectionName(UserProfile.class)).thenReturn("users");
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(converter.read(eq(AuditEntry.class), any(Document.class))).thenAnswer(i -> AuditEntry.builder()
+                .action(i.<Document>getArgument(1).getString("action")).timestamp(Instant.EPOCH).build());
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("migrations")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    }
+
+    @Test
+    void migrate_shouldLeaveTheRunAlone_whenAnotherNodeHoldsTheClaim() {
+        when(mongoTemplate.insert(any(Document.class), eq("migrations")))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        assertEquals(0, migration.migrate());
+
+        verify(mongoTemplate, never()).stream(any(Query.class), eq(Document.class), anyString());
+        verifyNoInteractions(auditService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void migrate_shouldImportEachTrail_beforeRemovingIt() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(
+                        new Document("_id", "u1").append("auditTrail",
+                                List.of(new Document("action", "CREATE"), new Document("action", "UPDATE"))),
+                        new Document("_id", "u2").append("auditTrail", List.of(new Document("action", "CREATE")))));
+        // u2's trail was already removed by another runner after it imported the same entries
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("users")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertEquals(2, migration.migrate());
+
+        InOrder order = inOrder(auditService, mongoTemplate);
+        ArgumentCaptor<List<AuditEntry>> imported = ArgumentCaptor.forClass(List.class);
+        order.verify(auditService).importLegacy(eq("u1"), imported.capture());
+        order.verify(mongoTemplate).updateFirst(any(Query.class), any(UpdateDefinition.class), eq("users"));
+        assertEquals(List.of("CREATE", "UPDATE"), imported.getValue().stream().map(AuditEntry::getAction).toList());
+        verify(auditService).importLegacy(eq("u2"), anyList());
+        ArgumentCaptor<Document> marker = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).insert(marker.capture(), eq("migrations"));
+        ArgumentCaptor<Query> held = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> completion = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(held.capture(), completion.capture(), eq("migrations"));
+        assertEquals(marker.getValue().get("owner"), held.getValue().getQueryObject().get("owner"));
+        assertEquals("COMPLETED", completion.getValue().getUpdateObject().get("$set", Document.class).get("state"));
+    }
+
+    @Test
+    void migrate_shouldStop_whenAnotherNodeTookOverTheClaim() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(new Document("_id", "u1").append("auditTrail", List.of())));
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("users")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        // The lease ran out while this node stalled; the new owner's token no longer matches
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq("migrations")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThrows(ConflictException.class, () -> migration.migrate());
+    }
+
+    @Test
+    void migrate_shouldKeepTheTrail_whenTheImportFails() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(new Document("_id", "u1").append("auditTrail",
+                        List.of(new Document("action", "CREATE")))));
+        doThrow(new DataAccessResourceFailureException("Mongo is down"))
+                .when(auditService).importLegacy(eq("u1"), anyList());
+
+        assertThrows(DataAccessResourceFailureException.class, () -> migration.migrate());
+
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq("users"));
+        ArgumentCaptor<UpdateDefinition> release = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), release.capture(), eq("migrations"));
+        assertEquals(Instant.EPOCH, release.getValue().getUpdateObject().get("$set", Document.class).get("heartbeatAt"));
+    }
+}
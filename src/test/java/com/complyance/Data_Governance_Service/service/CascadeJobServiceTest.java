@@ -0,0 +1,181 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.repository.CascadeJobRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.repository.UserPreferenceRepository;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class CascadeJobServiceTest {
+
+    @Mock private CascadeJobRepository jobRepo;
+    @Mock private PostRepository postRepo;
+    @Mock private UserPreferenceRepository prefRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private PreferenceCache preferenceCache;
+    @Mock private LiveUserIndex liveUsers;
+    @Mock private SystemMetrics systemMetrics;
+    @InjectMocks private CascadeJobService jobService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(jobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(jobService, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(jobService, "maxAttempts", 3);
+        when(jobRepo.checkpoint(anyString(), anyString(), anyString(), anyLong(), any())).thenReturn(true);
+    }
+
+    private CascadeJob runningJob(CascadeJob.Type type) {
+        return CascadeJob.builder()
+                .id("j1").userId("u1").type(type)
+                .status(CascadeJob.Status.RUNNING).active(true)
+                .cascadeAt(Instant.now()).attempts(1)
+                .build();
+    }
+
+    // ---------- enqueue() ----------
+
+    @Test
+    void enqueue_shouldInsertPendingJob_whenNoActiveJob() {
+        when(jobRepo.existsByUserIdAndActiveTrue("u1")).thenReturn(false);
+        when(jobRepo.insert(any(CascadeJob.class))).thenAnswer(i -> i.getArgument(0));
+
+        CascadeJob job = jobService.enqueue("u1", CascadeJob.Type.SOFT_DELETE, Instant.now());
+
+        assertEquals(CascadeJob.Status.PENDING, job.getStatus());
+        assertTrue(job.isActive());
+        assertNotNull(job.getCreatedAt());
+    }
+
+    @Test
+    void enqueue_shouldThrowConflict_whenJobAlreadyActive() {
+        when(jobRepo.existsByUserIdAndActiveTrue("u1")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () ->
+                jobService.enqueue("u1", CascadeJob.Type.RESTORE, Instant.now()));
+        verify(jobRepo, never()).insert(any(CascadeJob.class));
+    }
+
+    @Test
+    void enqueue_shouldThrowConflict_whenConcurrentInsertWins() {
+        when(jobRepo.existsByUserIdAndActiveTrue("u1")).thenReturn(false);
+        when(jobRepo.insert(any(CascadeJob.class))).thenThrow(new DuplicateKeyException("dup"));
+
+        assertThrows(ConflictException.class, () ->
+                jobService.enqueue("u1", CascadeJob.Type.PURGE, Instant.now()));
+    }
+
+    @Test
+    void getJobStatus_shouldThrowNotFound_whenMissing() {
+        when(jobRepo.findById("nope")).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> jobService.getJobStatus("nope"));
+    }
+
+    // ---------- run() ----------
+
+    @Test
+    void run_shouldProcessChunksAndCheckpointEach() {
+        CascadeJob job = runningJob(CascadeJob.Type.SOFT_DELETE);
+        when(postRepo.countByUserIdAndDeleted("u1", false)).thenReturn(3L);
+        when(postRepo.findIdChunk("u1", false, null, 2)).thenReturn(List.of("p1", "p2"));
+        when(postRepo.findIdChunk("u1", false, "p2", 2)).thenReturn(List.of("p3"));
+        when(postRepo.softDeleteByIds(anyList(), any())).thenAnswer(i -> (long) ((List<?>) i.getArgument(0)).size());
+
+        jobService.run(job);
+
+        verify(jobRepo).checkpoint(eq("j1"), anyString(), eq("p2"), eq(2L), any());
+        verify(jobRepo).checkpoint(eq("j1"), anyString(), eq("p3"), eq(1L), any());
+        verify(jobRepo).complete(eq("j1"), anyString(), eq(CascadeJob.Status.COMPLETED), isNull());
+        assertEquals(3, job.getProcessed());
+        verify(systemMetrics).postsChanged(-2, 2);
+        verify(systemMetrics).postsChanged(-1, 1);
+        verify(userRepo).incrementPostCounts("u1", -2, 2);
+        verify(userRepo).incrementPostCounts("u1", -1, 1);
+    }
+
+    @Test
+    void run_shouldResumeAfterCheckpoint_whenReclaimed() {
+        CascadeJob job = runningJob(CascadeJob.Type.RESTORE);
+        job.setLastProcessedId("p2");
+        job.setProcessed(2);
+        job.setEstimatedTotal(3L);
+        when(postRepo.findIdChunk("u1", true, "p2", 2)).thenReturn(List.of("p3"));
+        when(postRepo.restoreByIds(List.of("p3"), job.getCascadeAt())).thenReturn(1L);
+
+        jobService.run(job);
+
+        verify(postRepo, never()).findIdChunk(anyString(), any(), isNull(), anyInt());
+        verify(postRepo).restoreByIds(List.of("p3"), job.getCascadeAt());
+        verify(jobRepo).complete(eq("j1"), anyString(), eq(CascadeJob.Status.COMPLETED), isNull());
+    }
+
+    @Test
+    void run_shouldDeletePrefsAndUserAfterPosts_whenPurge() {
+        CascadeJob job = runningJob(CascadeJob.Type.PURGE);
+        when(postRepo.findIdChunk("u1", null, null, 2)).thenReturn(List.of("p1"));
+        when(postRepo.removeByIds(List.of("p1"))).thenReturn(1L);
+
+        jobService.run(job);
+
+        InOrder order = inOrder(postRepo, prefRepo, preferenceCache, userRepo, liveUsers);
+        order.verify(postRepo).removeByIds(List.of("p1"));
+        order.verify(prefRepo).deleteByUserId("u1");
+        order.verify(preferenceCache).invalidate("u1");
+        order.verify(userRepo).deleteById("u1");
+        order.verify(liveUsers).remove("u1");
+    }
+
+    @Test
+    void run_shouldStopWithoutCompleting_whenLeaseLost() {
+        CascadeJob job = runningJob(CascadeJob.Type.SOFT_DELETE);
+        job.setEstimatedTotal(4L);
+        when(postRepo.findIdChunk("u1", false, null, 2)).thenReturn(List.of("p1", "p2"));
+        when(jobRepo.checkpoint(anyString(), anyString(), anyString(), anyLong(), any())).thenReturn(false);
+
+        jobService.run(job);
+
+        verify(postRepo, times(1)).findIdChunk(anyString(), any(), any(), anyInt());
+        verify(jobRepo, never()).complete(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void run_shouldReleaseForRetry_whenChunkFailsBeforeMaxAttempts() {
+        CascadeJob job = runningJob(CascadeJob.Type.SOFT_DELETE);
+        job.setEstimatedTotal(1L);
+        when(postRepo.findIdChunk(anyString(), any(), any(), anyInt())).thenThrow(new RuntimeException("boom"));
+
+        jobService.run(job);
+
+        verify(jobRepo).release(eq("j1"), anyString(), eq("boom"));
+        verify(jobRepo, never()).complete(anyString(), anyString(), any(), any());
+    }
+
+    @Test
+    void run_shouldMarkFailed_whenMaxAttemptsReached() {
+        CascadeJob job = runningJob(CascadeJob.Type.SOFT_DELETE);
+        job.setEstimatedTotal(1L);
+        job.setAttempts(3);
+        when(postRepo.findIdChunk(anyString(), any(), any(), anyInt())).thenThrow(new RuntimeException("boom"));
+
+        jobService.run(job);
+
+        verify(jobRepo).complete(eq("j1"), anyString(), eq(CascadeJob.Status.FAILED), eq("boom"));
+    }
+}
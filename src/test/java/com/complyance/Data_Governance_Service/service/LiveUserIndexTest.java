@@ -0,0 +1,148 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.complyance.Data_Governance_Service.service.LiveUserIndex.Membership.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class LiveUserIndexTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @InjectMocks private LiveUserIndex index;
+
+    private final String live = new ObjectId().toHexString();
+    private final String deleted = new ObjectId().toHexString();
+    private final String missing = new ObjectId().toHexString();
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(UserProfile.class)).thenReturn("users");
+    }
+
+    private static Document user(String id, boolean deleted) {
+        return new Document("_id", new ObjectId(id)).append("deleted", deleted);
+    }
+
+    @Test
+    void lookup_shouldAnswerFromMemory_afterReload() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(user(live, false), user(deleted, true)));
+
+        index.reload();
+
+        assertEquals(LIVE, index.lookup(live));
+        assertEquals(DELETED, index.lookup(deleted));
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Document.class), anyString());
+        assertEquals(2L, index.stats().get("hits"));
+    }
+
+    @Test
+    void lookup_shouldFallBackToMongo_untilLoaded() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(user(live, false));
+
+        assertEquals(LIVE, index.lookup(live));
+        assertEquals(false, index.stats().get("loaded"));
+        // Not loaded yet, so the found user is not remembered either
+        assertEquals(LIVE, index.lookup(live));
+
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(Document.class), eq("users"));
+    }
+
+    @Test
+    void lookup_shouldNeverRememberAbsentUsers() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users"))).thenReturn(Stream.empty());
+        index.reload();
+
+        assertEquals(ABSENT, index.lookup(missing));
+        assertEquals(ABSENT, index.lookup(missing));
+
+        verify(mongoTemplate, times(2)).findOne(any(Query.class), eq(Document.class), eq("users"));
+    }
+
+    @Test
+    void writes_shouldUpdateLoadedIndex() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(user(live, false)));
+        index.reload();
+
+        index.record(live, true);
+        assertEquals(DELETED, index.lookup(live));
+
+        index.record(missing, false);
+        assertEquals(LIVE, index.lookup(missing));
+        assertEquals(1L, index.liveCount());
+        assertEquals(1L, index.deletedCount());
+
+        index.remove(live);
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users"))).thenReturn(null);
+        assertEquals(ABSENT, index.lookup(live));
+        assertEquals(0L, index.deletedCount());
+    }
+
+    @Test
+    void reload_shouldKeepWritesMadeWhileStreaming() {
+        // The cursor returns stale state for both users; writes land in between
+        Stream<Document> stale = Stream.of(user(live, false), user(deleted, true))
+                .peek(doc -> {
+                    if (doc.getObjectId("_id").toHexString().equals(live)) {
+                        index.record(live, true);
+                        index.remove(deleted);
+                    }
+                });
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users"))).thenReturn(stale);
+
+        index.reload();
+
+        assertEquals(DELETED, index.lookup(live));
+        assertEquals(1, index.stats().get("size"));
+    }
+
+    @Test
+    void lookupAll_shouldResolveUnknownIdsWithOneQuery() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(user(live, false)));
+        index.reload();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(List.of(user(deleted, true)));
+
+        Map<String, LiveUserIndex.Membership> members = index.lookupAll(List.of(live, deleted, missing));
+
+        assertEquals(Map.of(live, LIVE, deleted, DELETED, missing, ABSENT), members);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq("users"));
+        assertEquals(DELETED, index.lookup(deleted));
+    }
+
+    @Test
+    void confirm_shouldReadMongo_evenWhenIndexKnowsTheUser_andRefreshIt() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenReturn(Stream.of(user(live, false), user(deleted, true)));
+        index.reload();
+        // Soft-deleted and restored on another node since the load
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("users"))).thenReturn(user(live, true));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("users"))).thenReturn(List.of(user(deleted, false)));
+
+        assertEquals(DELETED, index.confirm(live));
+        assertEquals(Map.of(deleted, LIVE, missing, ABSENT), index.confirmAll(List.of(deleted, missing)));
+
+        assertEquals(DELETED, index.lookup(live));
+        assertEquals(LIVE, index.lookup(deleted));
+        assertEquals(3L, index.stats().get("confirms"));
+    }
+}
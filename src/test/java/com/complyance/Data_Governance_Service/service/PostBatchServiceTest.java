@@ -0,0 +1,106 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostBatchResult;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static com.complyance.Data_Governance_Service.service.LiveUserIndex.Membership.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class PostBatchServiceTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private BulkOperations bulk;
+    @Mock private UserRepository userRepo;
+    @Mock private LiveUserIndex liveUsers;
+    @Mock private SystemMetrics systemMetrics;
+    private PostBatchService batchService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        batchService = new PostBatchService(mongoTemplate, new ObjectMapper(), userRepo, liveUsers, systemMetrics);
+        ReflectionTestUtils.setField(batchService, "chunkSize", 2);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+        when(liveUsers.confirmAll(anyCollection())).thenReturn(Map.of("u1", LIVE, "u2", DELETED, "u3", ABSENT));
+    }
+
+    private static InputStream json(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createPosts_shouldInsertLiveUsersPosts_inChunks_andReportEveryItemInOrder() throws Exception {
+        PostBatchResult result = batchService.createPosts(json("""
+                [{"userId": "u1", "title": "a"}, {"userId": "u2", "title": "b"}, {"title": "c"},
+                 {"userId": "u1", "title": "d", "deleted": true}, {"userId": "u3", "title": "e"}]"""));
+
+        assertEquals(5, result.getReceived());
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(0, 1, 2, 3, 4), result.getItems().stream().map(PostBatchResult.Item::index).toList());
+        assertNotNull(result.getItems().get(0).id());
+        assertEquals("Cannot create post for soft-deleted user", result.getItems().get(1).error());
+        assertEquals("userId is required", result.getItems().get(2).error());
+        assertEquals("User not found", result.getItems().get(4).error());
+
+        // Chunks of 2 accepted items: [u1, u2], [u1, u3]; each writes only its live user's post
+        ArgumentCaptor<List<Post>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulk, times(2)).insert(inserted.capture());
+        Post clientDeleted = inserted.getAllValues().get(1).getFirst();
+        assertFalse(clientDeleted.isDeleted());
+        assertEquals(result.getItems().get(3).id(), clientDeleted.getId());
+        verify(userRepo, times(2)).addLivePostCounts(Map.of("u1", 1L));
+        verify(liveUsers, times(2)).confirmAll(anyCollection());
+    }
+
+    @Test
+    void createPosts_shouldReportRejectedDocuments_andCountOnlyTheRest() throws Exception {
+        BulkWriteError duplicate = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0);
+        when(bulk.execute()).thenThrow(new BulkOperationException("bulk", new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()), List.of(duplicate), null,
+                new ServerAddress(), Set.of())));
+
+        PostBatchResult result = batchService.createPosts(json("[{\"userId\": \"u1\"}, {\"userId\": \"u1\"}]"));
+
+        assertEquals("E11000 duplicate key", result.getItems().get(0).error());
+        assertNotNull(result.getItems().get(1).id());
+        verify(userRepo).addLivePostCounts(Map.of("u1", 1L));
+        verify(systemMetrics).postsChanged(1, 0);
+    }
+
+    @Test
+    void createPosts_shouldWriteWhatCameBefore_thenRejectMalformedBody() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                batchService.createPosts(json("[{\"userId\": \"u1\"}, {\"userId\": ")));
+
+        assertTrue(e.getMessage().startsWith("Malformed post batch at item 1"), e.getMessage());
+        assertTrue(e.getMessage().contains("1 posts before it were created"), e.getMessage());
+        verify(bulk).insert(anyList());
+        assertThrows(IllegalArgumentException.class, () -> batchService.createPosts(json("{\"userId\": \"u1\"}")));
+    }
+}
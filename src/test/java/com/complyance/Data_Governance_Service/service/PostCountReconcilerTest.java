@@ -0,0 +1,92 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.CascadeJobRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepository;
+import com.complyance.Data_Governance_Service.repository.PostRepositoryCustom.UserPostCounts;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class PostCountReconcilerTest {
+
+    @Mock private UserRepository userRepo;
+    @Mock private PostRepository postRepo;
+    @Mock private CascadeJobRepository jobRepo;
+    @InjectMocks private PostCountReconciler reconciler;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(reconciler, "batchSize", 2);
+        ReflectionTestUtils.setField(reconciler, "settleMs", 60_000L);
+    }
+
+    private static final Instant LONG_AGO = Instant.now().minus(Duration.ofDays(1));
+
+    private static UserProfile counters(String id, Long live, Long deleted) {
+        return UserProfile.builder().id(id).livePostCount(live).deletedPostCount(deleted).build();
+    }
+
+    @Test
+    void reconcile_shouldRewriteOnlyDriftedOrMissingCounters_batchByBatch() {
+        when(userRepo.findPostCountsAfter(null, 2)).thenReturn(List.of(
+                counters("u1", 5L, 1L), counters("u2", 7L, 0L)));
+        when(userRepo.findPostCountsAfter("u2", 2)).thenReturn(List.of(counters("u3", null, null)));
+        when(postRepo.countByUserIds(List.of("u1", "u2"))).thenReturn(Map.of(
+                "u1", new UserPostCounts(5, 1, LONG_AGO), "u2", new UserPostCounts(6, 1, LONG_AGO)));
+        when(postRepo.countByUserIds(List.of("u3"))).thenReturn(Map.of());
+        when(userRepo.resetPostCounts(anyString(), any(), any(), anyLong(), anyLong())).thenReturn(true);
+
+        Map<String, Object> result = reconciler.reconcile();
+
+        verify(userRepo).resetPostCounts("u2", 7L, 0L, 6, 1);
+        verify(userRepo).resetPostCounts("u3", null, null, 0, 0);
+        verify(userRepo, never()).resetPostCounts(eq("u1"), any(), any(), anyLong(), anyLong());
+        assertEquals(3L, result.get("usersScanned"));
+        assertEquals(2L, result.get("repaired"));
+    }
+
+    @Test
+    void reconcile_shouldSkipUser_whenCountersChangedMidPass() {
+        when(userRepo.findPostCountsAfter(null, 2)).thenReturn(List.of(counters("u1", 5L, 0L)));
+        when(postRepo.countByUserIds(List.of("u1"))).thenReturn(Map.of("u1", new UserPostCounts(6, 0, LONG_AGO)));
+        when(userRepo.resetPostCounts("u1", 5L, 0L, 6, 0)).thenReturn(false);
+
+        Map<String, Object> result = reconciler.reconcile();
+
+        assertEquals(0L, result.get("repaired"));
+        assertEquals(1L, result.get("skipped"));
+    }
+
+    @Test
+    void reconcile_shouldLeaveUserAlone_whenACountedPostsIncIsStillInFlight() {
+        // u1's counters are read, then a post is inserted and counted before createPost's $inc lands
+        when(userRepo.findPostCountsAfter(null, 2)).thenReturn(List.of(counters("u1", 5L, 0L), counters("u2", 3L, 0L)));
+        when(postRepo.countByUserIds(List.of("u1", "u2"))).thenReturn(Map.of(
+                "u1", new UserPostCounts(6, 0, Instant.now()), "u2", new UserPostCounts(0, 3, LONG_AGO)));
+        when(jobRepo.findByUserIdInAndActiveTrue(List.of("u1", "u2")))
+                .thenReturn(List.of(CascadeJob.builder().userId("u2").active(true).build()));
+
+        Map<String, Object> result = reconciler.reconcile();
+
+        // Resetting u1 to 6 would make the pending $inc leave it at 7; u2's cascade chunks have the same race
+        verify(userRepo, never()).resetPostCounts(anyString(), any(), any(), anyLong(), anyLong());
+        assertEquals(2L, result.get("busy"));
+        assertEquals(0L, result.get("repaired"));
+    }
+}
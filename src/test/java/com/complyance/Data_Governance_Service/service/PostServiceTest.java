@@ -3,16 +3,28 @@ package com.complyance.Data_Governance_Service.service;
 import com.complyance.Data_Governance_Service.TestLogger;
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.exception.ServiceUnavailableException;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.PostSummary;
 import com.complyance.Data_Governance_Service.model.UserProfile;
 import com.complyance.Data_Governance_Service.repository.PostRepository;
 import com.complyance.Data_Governance_Service.repository.UserRepository;
+import com.mongodb.MongoExecutionTimeoutException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.LongSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,6 +34,8 @@ class PostServiceTest {
 
     @Mock private PostRepository postRepo;
     @Mock private UserRepository userRepo;
+    @Mock private LiveUserIndex liveUsers;
+    @Mock private SystemMetrics systemMetrics;
     @InjectMocks private PostService postService;
 
     @BeforeEach
@@ -33,10 +47,9 @@ class PostServiceTest {
 
     @Test
     void createPost_shouldSucceed_whenUserActive() {
-        UserProfile user = UserProfile.builder().id("u1").deleted(false).build();
         Post post = Post.builder().title("Hello").content("World").build();
 
-        when(userRepo.findById("u1")).thenReturn(Optional.of(user));
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
         when(postRepo.save(any(Post.class))).thenAnswer(i -> i.getArgument(0));
 
         Post result = postService.createPost("u1", post);
@@ -45,38 +58,187 @@ class PostServiceTest {
         assertEquals("Hello", result.getTitle());
         assertNotNull(result.getCreatedAt());
         verify(postRepo).save(any(Post.class));
+        verify(userRepo).incrementPostCounts("u1", 1, 0);
+        verify(systemMetrics).postsChanged(1, 0);
+    }
+
+    @Test
+    void createPost_shouldIgnoreClientIdAndDeletedFlag() {
+        Post post = Post.builder().id("someone-elses-post").userId("u2").title("Hello").deleted(true).build();
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
+        when(postRepo.save(any(Post.class))).thenAnswer(i -> i.getArgument(0));
+
+        Post result = postService.createPost("u1", post);
+
+        assertNull(result.getId());
+        assertEquals("u1", result.getUserId());
+        assertFalse(result.isDeleted());
+        verify(userRepo).incrementPostCounts("u1", 1, 0);
     }
 
     @Test
     void createPost_shouldThrowNotFound_whenUserMissing() {
-        when(userRepo.findById("nope")).thenReturn(Optional.empty());
+        when(liveUsers.confirm("nope")).thenReturn(LiveUserIndex.Membership.ABSENT);
         assertThrows(NotFoundException.class, () ->
                 postService.createPost("nope", new Post()));
     }
 
     @Test
     void createPost_shouldThrowForbidden_whenUserDeleted() {
-        UserProfile deletedUser = UserProfile.builder().id("u1").deleted(true).build();
-        when(userRepo.findById("u1")).thenReturn(Optional.of(deletedUser));
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.DELETED);
 
         assertThrows(ForbiddenException.class, () ->
                 postService.createPost("u1", new Post()));
     }
 
+    // ---------- getPostsByUser() / getPost() ----------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPostsByUser_shouldReturnSummaries_forOffsetPage() {
+        PostSummary summary = PostSummary.builder().id("p1").title("Hello").excerpt("World").build();
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(userRepo.findPostCountsById("u1")).thenReturn(Optional.of(
+                UserProfile.builder().id("u1").livePostCount(41L).deletedPostCount(3L).build()));
+        when(postRepo.findActiveSummariesByUser(eq("u1"), any(Pageable.class), any(LongSupplier.class)))
+                .thenAnswer(i -> new PageImpl<>(List.of(summary), i.getArgument(1),
+                        i.<LongSupplier>getArgument(2).getAsLong()));
+
+        Map<String, Object> response = (Map<String, Object>) postService.getPostsByUser("u1", 0, 10, "createdAt,desc");
+
+        assertEquals(List.of(summary), response.get("posts"));
+        assertEquals(41L, response.get("totalItems"));
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(postRepo).findActiveSummariesByUser(eq("u1"), pageable.capture(), any(LongSupplier.class));
+        assertEquals(Sort.by("createdAt").descending(), pageable.getValue().getSort());
+        verify(postRepo, never()).findByUserIdAndDeletedFalse(anyString(), any(Pageable.class));
+        verify(postRepo, never()).countByUserIdAndDeleted(anyString(), anyBoolean());
+    }
+
+    @Test
+    void getPostsByUser_shouldCountPosts_whenUserHasNoCounterYet() {
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(userRepo.findPostCountsById("u1")).thenReturn(Optional.of(UserProfile.builder().id("u1").build()));
+        when(postRepo.countByUserIdAndDeleted("u1", false)).thenReturn(12L);
+        when(postRepo.findActiveSummariesByUser(eq("u1"), any(Pageable.class), any(LongSupplier.class)))
+                .thenAnswer(i -> new PageImpl<>(List.of(), i.getArgument(1), i.<LongSupplier>getArgument(2).getAsLong()));
+
+        Map<?, ?> response = (Map<?, ?>) postService.getPostsByUser("u1", 0, 10, "createdAt,desc");
+
+        assertEquals(12L, response.get("totalItems"));
+    }
+
+    @Test
+    void getPost_shouldReturnFullDocument_whenLive() {
+        Post post = Post.builder().id("p1").content("full content").build();
+        when(postRepo.findByIdAndDeletedFalse("p1")).thenReturn(Optional.of(post));
+
+        assertEquals("full content", postService.getPost("p1").getContent());
+    }
+
+    @Test
+    void getPost_shouldThrowNotFound_whenMissingOrDeleted() {
+        when(postRepo.findByIdAndDeletedFalse("p1")).thenReturn(Optional.empty());
+        assertThrows(NotFoundException.class, () -> postService.getPost("p1"));
+    }
+
+    // ---------- getPostsByUserAfter() ----------
+
+    @Test
+    void getPostsByUserAfter_shouldSeekDescendingByCreatedAt_withoutCounting() {
+        Instant t1 = Instant.parse("2025-01-03T00:00:00Z");
+        Instant t2 = Instant.parse("2025-01-02T00:00:00Z");
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(postRepo.findActiveByUserAfter("u1", "createdAt", true, null, 2)).thenReturn(List.of(
+                PostSummary.builder().id("p1").createdAt(t1).build(),
+                PostSummary.builder().id("p2").createdAt(t2).build()));
+
+        KeysetPage<PostSummary> page = postService.getPostsByUserAfter("u1", null, 1, "createdAt,desc", false);
+
+        assertEquals(1, page.getItems().size());
+        ContinuationToken next = ContinuationToken.decode(page.getNextToken());
+        assertTrue(next.isDescending());
+        assertEquals("p1", next.getLastId());
+        assertEquals(t1, next.getLastValue());
+        verify(postRepo, never()).countByUserIdAndDeleted(anyString(), anyBoolean());
+    }
+
+    @Test
+    void getPostsByUserAfter_shouldThrowNotFound_whenUserMissing() {
+        when(liveUsers.exists("nope")).thenReturn(false);
+        assertThrows(NotFoundException.class, () ->
+                postService.getPostsByUserAfter("nope", null, 10, "createdAt,desc", false));
+    }
+
+    @Test
+    void getPostsByUserAfter_shouldRejectLimitOutOfRange() {
+        when(liveUsers.exists("u1")).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () ->
+                postService.getPostsByUserAfter("u1", null, 0, "createdAt,desc", false));
+    }
+
+    // ---------- searchPosts() ----------
+
+    @Test
+    void searchPosts_shouldRankByScore_andContinueFromTheLastScore() {
+        when(postRepo.searchLive(eq("mongo"), isNull(), eq(2), any(Duration.class))).thenReturn(List.of(
+                PostSummary.builder().id("p1").score(2.5).build(),
+                PostSummary.builder().id("p2").score(1.25).build()));
+
+        KeysetPage<PostSummary> page = postService.searchPosts("mongo", null, 1);
+
+        assertEquals(List.of("p1"), page.getItems().stream().map(PostSummary::getId).toList());
+        ContinuationToken next = ContinuationToken.decode(page.getNextToken());
+        assertEquals("score", next.getSortField());
+        assertEquals(2.5, next.getLastValue());
+
+        postService.searchPosts("mongo", page.getNextToken(), 1);
+        verify(postRepo).searchLive(eq("mongo"), eq(next), eq(2), any(Duration.class));
+    }
+
+    @Test
+    void searchPosts_shouldRejectBlankQuery_badLimit_andForeignToken() {
+        String createdToken = new ContinuationToken("createdAt", true, "p1", Instant.now()).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts(" ", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts("mongo", null, 101));
+        assertThrows(IllegalArgumentException.class, () -> postService.searchPosts("mongo", createdToken, 20));
+        verifyNoInteractions(postRepo);
+    }
+
+    @Test
+    void searchPosts_shouldReturnUnavailable_whenQueryHitsMaxTime() {
+        when(postRepo.searchLive(anyString(), any(), anyInt(), any(Duration.class))).thenThrow(
+                new UncategorizedMongoDbException("timeout",
+                        new MongoExecutionTimeoutException(50, "operation exceeded time limit")));
+
+        assertThrows(ServiceUnavailableException.class, () -> postService.searchPosts("the", null, 20));
+    }
 
     // ---------- softDeletePost() ----------
 
     @Test
     void softDeletePost_shouldMarkAsDeleted_whenActive() {
-        Post post = Post.builder().id("p1").deleted(false).build();
+        Post post = Post.builder().id("p1").userId("u1").deleted(false).build();
+        when(postRepo.findById("p1")).thenReturn(Optional.of(post));
+        when(postRepo.softDeleteByIds(eq(List.of("p1")), any(Instant.class))).thenReturn(1L);
+
+        postService.softDeletePost("p1");
+
+        verify(postRepo).softDeleteByIds(eq(List.of("p1")), any(Instant.class));
+        verify(userRepo).incrementPostCounts("u1", -1, 1);
+        verify(systemMetrics).postsChanged(-1, 1);
+    }
+
+    @Test
+    void softDeletePost_shouldNotMoveCounters_whenConcurrentDeleteWon() {
+        Post post = Post.builder().id("p1").userId("u1").deleted(false).build();
         when(postRepo.findById("p1")).thenReturn(Optional.of(post));
+        when(postRepo.softDeleteByIds(anyList(), any(Instant.class))).thenReturn(0L);
 
         postService.softDeletePost("p1");
 
-        assertTrue(post.isDeleted());
-        assertNotNull(post.getDeletedAt());
-        assertNotNull(post.getUpdatedAt());
-        verify(postRepo).save(post);
+        verifyNoInteractions(userRepo, systemMetrics);
     }
 
     @Test
@@ -86,7 +248,7 @@ class PostServiceTest {
 
         postService.softDeletePost("p1");
 
-        verify(postRepo, never()).save(any());
+        verify(postRepo, never()).softDeleteByIds(anyList(), any());
     }
 
     @Test
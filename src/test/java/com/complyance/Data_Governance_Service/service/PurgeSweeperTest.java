@@ -0,0 +1,137 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.repository.UserRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class PurgeSweeperTest {
+
+    @Mock private UserRepository userRepo;
+    @Mock private CascadeJobService jobService;
+    @Mock private AuditService auditService;
+    @Mock private MongoTemplate mongoTemplate;
+    @InjectMocks private PurgeSweeper sweeper;
+
+    private final Instant deletedAt = Instant.parse("2025-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(sweeper, "gracePeriodHours", 24L);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "maxUsersPerSecond", 0.0);
+        ReflectionTestUtils.setField(sweeper, "maxInFlight", 10L);
+        when(jobService.enqueue(anyString(), eq(CascadeJob.Type.PURGE), any(Instant.class)))
+                .thenAnswer(i -> CascadeJob.builder().id("job-" + i.getArgument(0)).build());
+    }
+
+    private UserProfile expired(String id) {
+        return UserProfile.builder().id(id).deleted(true).deletedAt(deletedAt).build();
+    }
+
+    @Test
+    void sweep_shouldQueueEveryExpiredUser_inBatches_andResetCheckpointWhenDone() {
+        when(userRepo.findDeletedBefore(any(Instant.class), isNull(), eq(2)))
+                .thenReturn(List.of(expired("u1"), expired("u2")));
+        when(userRepo.findDeletedBefore(any(Instant.class), argThat(c -> c != null && c.getLastId().equals("u2")), eq(2)))
+                .thenReturn(List.of(expired("u3")));
+
+        Map<String, Object> result = sweeper.sweep();
+
+        assertEquals(3, result.get("queued"));
+        assertEquals(true, result.get("completed"));
+        verify(jobService, times(3)).enqueue(anyString(), eq(CascadeJob.Type.PURGE), any(Instant.class));
+        verify(auditService).record(eq("u3"), eq("HARD_DELETE"), contains("job-u3"));
+
+        ArgumentCaptor<Document> saved = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate, times(3)).save(saved.capture(), eq(PurgeSweeper.STATE_COLLECTION));
+        List<Document> checkpoints = saved.getAllValues();
+        assertEquals("u2", ContinuationToken.decode(checkpoints.get(0).getString("cursor")).getLastId());
+        assertEquals("u3", ContinuationToken.decode(checkpoints.get(1).getString("cursor")).getLastId());
+        assertNull(checkpoints.get(2).getString("cursor"));
+        assertEquals(3L, sweeper.stats().get("purgeJobsQueued"));
+    }
+
+    @Test
+    void stats_shouldReportPurgedUsers_fromFinishedPurgeJobs_notFromWhatWasQueued() {
+        when(userRepo.findDeletedBefore(any(Instant.class), isNull(), eq(2))).thenReturn(List.of(expired("u1")));
+        when(jobService.countFinished(CascadeJob.Type.PURGE, CascadeJob.Status.COMPLETED)).thenReturn(40L);
+        when(jobService.countFinished(CascadeJob.Type.PURGE, CascadeJob.Status.FAILED)).thenReturn(2L);
+
+        sweeper.sweep();
+
+        Map<String, Object> stats = sweeper.stats();
+        assertEquals(1L, stats.get("purgeJobsQueued"));
+        assertEquals(40L, stats.get("usersPurged"));
+        assertEquals(2L, stats.get("purgesFailed"));
+    }
+
+    @Test
+    void sweep_shouldOnlyQueryUsersPastGracePeriod() {
+        when(userRepo.findDeletedBefore(any(Instant.class), any(), anyInt())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(userRepo).findDeletedBefore(cutoff.capture(), isNull(), eq(2));
+        Instant expected = Instant.now().minusSeconds(24 * 3600);
+        assertTrue(Math.abs(cutoff.getValue().getEpochSecond() - expected.getEpochSecond()) < 5);
+    }
+
+    @Test
+    void sweep_shouldResumeFromCheckpoint() {
+        String cursor = new ContinuationToken("deletedAt", false, "u7", deletedAt).encode();
+        when(mongoTemplate.findById(PurgeSweeper.STATE_ID, Document.class, PurgeSweeper.STATE_COLLECTION))
+                .thenReturn(new Document("_id", PurgeSweeper.STATE_ID).append("cursor", cursor));
+        when(userRepo.findDeletedBefore(any(Instant.class), any(), anyInt())).thenReturn(List.of());
+
+        sweeper.sweep();
+
+        ArgumentCaptor<ContinuationToken> after = ArgumentCaptor.forClass(ContinuationToken.class);
+        verify(userRepo).findDeletedBefore(any(Instant.class), after.capture(), eq(2));
+        assertEquals("u7", after.getValue().getLastId());
+        assertEquals(deletedAt, after.getValue().getLastValue());
+    }
+
+    @Test
+    void sweep_shouldSkipUsersWithRunningCascade() {
+        when(userRepo.findDeletedBefore(any(Instant.class), isNull(), eq(2))).thenReturn(List.of(expired("u1")));
+        when(jobService.enqueue(eq("u1"), eq(CascadeJob.Type.PURGE), any(Instant.class)))
+                .thenThrow(new ConflictException("busy"));
+
+        Map<String, Object> result = sweeper.sweep();
+
+        assertEquals(0, result.get("queued"));
+        assertEquals(1, result.get("skipped"));
+        verify(auditService, never()).record(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void sweep_shouldStopAndKeepCheckpoint_whenTooManyPurgesInFlight() {
+        when(jobService.countInFlight(CascadeJob.Type.PURGE)).thenReturn(10L);
+
+        Map<String, Object> result = sweeper.sweep();
+
+        assertEquals(false, result.get("completed"));
+        verify(userRepo, never()).findDeletedBefore(any(), any(), anyInt());
+        verify(mongoTemplate, never()).save(any(Document.class), anyString());
+    }
+}
@@ -0,0 +1,120 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.ConflictException;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class SeedServiceTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private AuditService auditService;
+    @Mock private LiveUserIndex liveUsers;
+    @Mock private SystemMetrics systemMetrics;
+    @Mock private BulkOperations bulkOps;
+    @InjectMocks private SeedService seedService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(seedService, "chunkSize", 4);
+    }
+
+    @Test
+    void zipfAllocation_withoutSkew_givesEveryUserTheMean() {
+        ZipfAllocation allocation = new ZipfAllocation(100, 3, 0);
+
+        assertTrue(IntStream.range(0, 100).allMatch(i -> allocation.postsFor(i) == 3));
+    }
+
+    @Test
+    void zipfAllocation_withSkew_concentratesPostsOnTheFirstUsers() {
+        ZipfAllocation allocation = new ZipfAllocation(1000, 10, 1.0);
+
+        long total = IntStream.range(0, 1000).mapToLong(allocation::postsFor).sum();
+        long top10 = IntStream.range(0, 10).mapToLong(allocation::postsFor).sum();
+
+        assertTrue(allocation.postsFor(0) > allocation.postsFor(1));
+        assertTrue(allocation.postsFor(1) >= allocation.postsFor(999));
+        assertEquals(10_000, total, 500);
+        assertTrue(top10 > total / 4, "top 1% of users should own a large share of posts");
+    }
+
+    @Test
+    void generateUsers_sameSeedAndChunk_producesSameData() {
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+
+        List<UserProfile> first = SeedService.generateUsers(SeedService.chunkRandom(42, 3), 12, 16, base);
+        List<UserProfile> second = SeedService.generateUsers(SeedService.chunkRandom(42, 3), 12, 16, base);
+        List<UserProfile> otherSeed = SeedService.generateUsers(SeedService.chunkRandom(7, 3), 12, 16, base);
+
+        assertEquals(first.stream().map(UserProfile::getUsername).toList(),
+                second.stream().map(UserProfile::getUsername).toList());
+        assertEquals(first.stream().map(UserProfile::getCreatedAt).toList(),
+                second.stream().map(UserProfile::getCreatedAt).toList());
+        assertNotEquals(first.stream().map(UserProfile::getCreatedAt).toList(),
+                otherSeed.stream().map(UserProfile::getCreatedAt).toList());
+        assertTrue(first.get(0).getUsername().endsWith("_12"));
+    }
+
+    @Test
+    void start_whenDataExists_throwsConflict() {
+        when(mongoTemplate.estimatedCount(UserProfile.class)).thenReturn(5L);
+
+        assertThrows(ConflictException.class, () -> seedService.start(10, 3, 42, 0, 2));
+    }
+
+    @Test
+    void start_rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> seedService.start(0, 3, 42, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> seedService.start(10, 3, 42, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> seedService.start(10, 3, 42, 0, 0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_insertsUsersAndPostsInChunkSizedUnorderedBatches() {
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOps);
+        AtomicInteger batchSize = new AtomicInteger();
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getInsertedCount()).thenAnswer(inv -> batchSize.get());
+        when(bulkOps.execute()).thenReturn(result);
+        when(bulkOps.insert(anyList())).thenAnswer(inv -> {
+            batchSize.set(inv.<List<?>>getArgument(0).size());
+            return bulkOps;
+        });
+
+        // One worker, so the shared mock sees one batch at a time
+        SeedService.SeedRun run = new SeedService.SeedRun(10, 3, 42, 0, 1);
+        seedService.execute(run);
+
+        Map<String, Object> status = run.status();
+        assertEquals("COMPLETED", status.get("state"));
+        assertEquals(10L, status.get("usersInserted"));
+        assertEquals(30L, status.get("postsInserted"));
+        assertEquals(0L, status.get("failed"));
+        verify(mongoTemplate, times(3)).bulkOps(BulkOperations.BulkMode.UNORDERED, UserProfile.class);
+        verify(mongoTemplate, atLeast(8)).bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+        verify(liveUsers, times(10)).record(anyString(), eq(false));
+        verify(auditService, times(3)).recordAll(anyList());
+    }
+}
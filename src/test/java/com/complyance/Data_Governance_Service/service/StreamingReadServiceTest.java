@@ -0,0 +1,64 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.exception.NotFoundException;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.repository.ReactivePostRepository;
+import com.complyance.Data_Governance_Service.repository.ReactiveUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.domain.Sort;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class StreamingReadServiceTest {
+
+    @Mock private ReactiveUserRepository users;
+    @Mock private ReactivePostRepository posts;
+    @InjectMocks private StreamingReadService service;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void streamPostsByUser_existingUser_streamsLivePostsInRequestedOrder() {
+        Post p1 = Post.builder().id("p1").userId("u1").build();
+        Post p2 = Post.builder().id("p2").userId("u1").build();
+        when(users.existsById("u1")).thenReturn(Mono.just(true));
+        when(posts.findByUserIdAndDeletedFalse(eq("u1"), any(Sort.class))).thenReturn(Flux.just(p1, p2));
+
+        List<Post> result = service.streamPostsByUser("u1", "updatedAt,desc").collectList().block();
+
+        assertEquals(List.of(p1, p2), result);
+        ArgumentCaptor<Sort> sort = ArgumentCaptor.forClass(Sort.class);
+        verify(posts).findByUserIdAndDeletedFalse(eq("u1"), sort.capture());
+        assertEquals(Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "_id")), sort.getValue());
+    }
+
+    @Test
+    void streamPostsByUser_missingUser_errorsWithNotFound() {
+        when(users.existsById("ghost")).thenReturn(Mono.just(false));
+
+        Flux<Post> result = service.streamPostsByUser("ghost", "createdAt,desc");
+
+        assertThrows(NotFoundException.class, result::blockFirst);
+        verifyNoInteractions(posts);
+    }
+
+    @Test
+    void streamPostsByUser_unsupportedSort_errorsWithoutQuerying() {
+        assertThrows(IllegalArgumentException.class, () -> service.streamPostsByUser("u1", "title,asc").blockFirst());
+        verifyNoInteractions(users, posts);
+    }
+}
@@ -0,0 +1,90 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.Post;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class SystemMetricsTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private LiveUserIndex liveUsers;
+    @Mock private MongoCollection<Document> collection;
+    @InjectMocks private SystemMetrics systemMetrics;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(systemMetrics, "gracePeriodHours", 24L);
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("posts"));
+        when(mongoTemplate.getCollection("posts")).thenReturn(collection);
+        when(collection.estimatedDocumentCount()).thenReturn(12L);
+        when(liveUsers.liveCount()).thenReturn(7L);
+        when(liveUsers.deletedCount()).thenReturn(3L);
+        when(mongoTemplate.count(any(Query.class), eq(UserProfile.class))).thenReturn(1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> section(String name) {
+        return (Map<String, Object>) systemMetrics.snapshot().get(name);
+    }
+
+    @Test
+    void snapshot_shouldServeLastRefresh_withoutTouchingMongo() {
+        assertEquals("never", systemMetrics.snapshot().get("refreshedAt"));
+
+        systemMetrics.refresh();
+        clearInvocations(mongoTemplate, collection);
+
+        assertEquals(Map.of("posts", 12L), systemMetrics.snapshot().get("collections"));
+        assertEquals(7L, section("users").get("live"));
+        assertEquals(3L, section("users").get("softDeleted"));
+        assertEquals(1L, section("users").get("pendingPurge"));
+        verifyNoInteractions(mongoTemplate, collection);
+    }
+
+    @Test
+    void refresh_shouldLeavePostCountsUnset_untilReconciled() {
+        systemMetrics.postsChanged(1, 0);
+        systemMetrics.refresh();
+
+        assertNull(section("posts").get("live"));
+        assertNull(section("posts").get("reconciledAt"));
+    }
+
+    @Test
+    void postsChanged_shouldAdjustReconciledCounts() {
+        AggregationResults<Document> groups = new AggregationResults<>(List.of(
+                new Document("_id", false).append("count", 10),
+                new Document("_id", true).append("count", 4)), new Document());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Post.class), eq(Document.class))).thenReturn(groups);
+
+        systemMetrics.reconcilePosts();
+        systemMetrics.postsChanged(1, 0);
+        systemMetrics.postsChanged(-3, 3);
+        systemMetrics.postsChanged(0, -2);
+        systemMetrics.refresh();
+
+        assertEquals(8L, section("posts").get("live"));
+        assertEquals(5L, section("posts").get("softDeleted"));
+        assertNotNull(section("posts").get("reconciledAt"));
+    }
+}
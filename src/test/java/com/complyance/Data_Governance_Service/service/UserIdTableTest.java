@@ -0,0 +1,64 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TestLogger.class)
+class UserIdTableTest {
+
+    @Test
+    void put_shouldFindTheSameUser_byHexStringOrObjectId() {
+        UserIdTable table = new UserIdTable();
+        ObjectId id = new ObjectId();
+
+        assertNull(table.putIfAbsent(id, false));
+        assertEquals(Boolean.FALSE, table.putIfAbsent(id, true));
+        assertEquals(Boolean.FALSE, table.get(id.toHexString()));
+        assertEquals(Boolean.FALSE, table.get(id.toHexString().toUpperCase()));
+
+        assertEquals(Boolean.FALSE, table.put(id.toHexString(), true));
+        assertEquals(Boolean.TRUE, table.get(id.toHexString()));
+        assertNull(table.get(new ObjectId().toHexString()));
+    }
+
+    @Test
+    void table_shouldKeepEveryEntry_acrossResizesAndRemovals() {
+        UserIdTable table = new UserIdTable();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String id = new ObjectId().toHexString();
+            ids.add(id);
+            table.put(id, i % 4 == 0);
+        }
+        // Tombstones from the removals must not break the probe chains of the ids after them
+        for (int i = 0; i < ids.size(); i += 2) assertNotNull(table.remove(ids.get(i)));
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i % 2 == 0 ? null : (Boolean) (i % 4 == 0), table.get(ids.get(i)), ids.get(i));
+        }
+        assertEquals(10_000, table.size());
+        assertEquals(0, table.deletedCount());
+        assertNull(table.remove(ids.getFirst()));
+    }
+
+    @Test
+    void table_shouldKeepIdsThatAreNotObjectIds_aside() {
+        UserIdTable table = new UserIdTable();
+
+        table.put("legacy-user", true);
+        table.putIfAbsent("imported-user", false);
+
+        assertEquals(Boolean.TRUE, table.get("legacy-user"));
+        assertEquals(Boolean.FALSE, table.get("imported-user"));
+        assertEquals(2, table.size());
+        assertEquals(1, table.deletedCount());
+        assertEquals(Boolean.TRUE, table.remove("legacy-user"));
+    }
+}
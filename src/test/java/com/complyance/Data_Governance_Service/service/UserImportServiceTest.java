@@ -0,0 +1,184 @@
+package com.complyance.Data_Governance_Service.service;
+
+import com.complyance.Data_Governance_Service.TestLogger;
+import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.service.UserImportService.Format;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.*;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(TestLogger.class)
+class UserImportServiceTest {
+
+    @Mock private MongoTemplate mongoTemplate;
+    @Mock private BulkOperations bulk;
+    @Mock private AuditService auditService;
+    @Mock private LiveUserIndex liveUsers;
+    private UserImportService importService;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        importService = new UserImportService(mongoTemplate, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), auditService, liveUsers);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(importService, "maxReportedRejections", 10);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserProfile.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+    }
+
+    private static InputStream upload(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_shouldValidateAndInsertNdjson_inBatches_rejectingBadLines() throws Exception {
+        Map<String, Object> result = importService.importUsers(upload("""
+                {"username": "alice", "email": "alice@example.com", "name": "Alice", "roles": ["USER"], "deleted": true}
+                {"username": "bob", "email": "not-an-email", "name": "Bob", "roles": ["USER"]}
+
+                {"username": "carol", "email": "carol@example.com"
+                {"username": "dave", "email": "dave@example.com", "name": "Dave", "roles": ["ADMIN"]}
+                {"username": "erin", "email": "erin@example.com", "name": "Erin", "roles": ["USER"]}
+                """), Format.NDJSON);
+
+        assertEquals(5L, result.get("received"));
+        assertEquals(3L, result.get("accepted"));
+        assertEquals(2L, result.get("rejected"));
+        assertEquals(Map.of("invalid", 1L, "malformed", 1L), result.get("rejectedByReason"));
+        List<Map<String, Object>> rejections = (List<Map<String, Object>>) result.get("rejections");
+        assertTrue(rejections.stream().anyMatch(r -> r.get("line").equals(2L)
+                && r.get("error").equals("email: Invalid email format")), rejections.toString());
+        assertTrue(rejections.stream().anyMatch(r -> r.get("line").equals(4L)), rejections.toString());
+
+        ArgumentCaptor<List<UserProfile>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulk, atLeast(2)).insert(inserted.capture());
+        List<UserProfile> users = inserted.getAllValues().stream().flatMap(List::stream).toList();
+        assertEquals(List.of("alice", "dave", "erin"), users.stream().map(UserProfile::getUsername).toList());
+        assertTrue(inserted.getAllValues().stream().allMatch(batch -> batch.size() <= 2));
+        UserProfile alice = users.getFirst();
+        assertFalse(alice.isDeleted());
+        assertNotNull(alice.getId());
+        assertEquals(0L, alice.getLivePostCount());
+        verify(liveUsers).record(alice.getId(), false);
+        verify(auditService, atLeast(2)).recordAll(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importUsers_shouldParseQuotedCsv_andReportDuplicatesFromUniqueIndex() throws Exception {
+        // The writer may batch the two records together or apart; the index rejects "ALICE" wherever it lands
+        List<List<UserProfile>> inserted = new ArrayList<>();
+        when(bulk.insert(anyList())).thenAnswer(call -> {
+            inserted.add(call.getArgument(0));
+            return bulk;
+        });
+        when(bulk.execute()).thenAnswer(call -> {
+            List<UserProfile> batch = inserted.getLast();
+            for (int i = 0; i < batch.size(); i++) {
+                if (!batch.get(i).getUsername().equals("ALICE")) continue;
+                BulkWriteError duplicate = new BulkWriteError(11000,
+                        "E11000 duplicate key error collection: users index: username_ci_unique", new BsonDocument(), i);
+                throw new BulkOperationException("bulk", new MongoBulkWriteException(
+                        BulkWriteResult.acknowledged(batch.size() - 1, 0, 0, 0, List.of(), List.of()),
+                        List.of(duplicate), null, new ServerAddress(), Set.of()));
+            }
+            return null;
+        });
+        ReflectionTestUtils.setField(importService, "batchSize", 10);
+
+        Map<String, Object> result = importService.importUsers(upload(
+                "\uFEFFUsername,Email,Name,Roles\r\n"
+                        + "alice,alice@example.com,\"Smith, Alice \"\"Al\"\"\",USER;ADMIN\r\n"
+                        + "ALICE,alice2@example.com,Alice Two,USER\r\n"), Format.CSV);
+
+        assertEquals(2L, result.get("received"));
+        assertEquals(1L, result.get("accepted"));
+        assertEquals(Map.of("duplicate", 1L), result.get("rejectedByReason"));
+        List<Map<String, Object>> rejections = (List<Map<String, Object>>) result.get("rejections");
+        assertEquals(3L, rejections.getFirst().get("line"));
+        assertEquals("Username already exists", rejections.getFirst().get("error"));
+
+        UserProfile alice = inserted.getFirst().getFirst();
+        assertEquals("Smith, Alice \"Al\"", alice.getName());
+        assertEquals(List.of("USER", "ADMIN"), alice.getRoles());
+        assertEquals("ACTIVE", alice.getStatus());
+    }
+
+    @Test
+    void importUsers_shouldRejectNullLineAsInvalid() throws Exception {
+        Map<String, Object> result = importService.importUsers(upload("""
+                null
+                {"username": "alice", "email": "alice@example.com", "name": "Alice", "roles": ["USER"]}
+                """), Format.NDJSON);
+
+        assertEquals(2L, result.get("received"));
+        assertEquals(1L, result.get("accepted"));
+        assertEquals(Map.of("invalid", 1L), result.get("rejectedByReason"));
+    }
+
+    @Test
+    void importUsers_shouldWriteWhatCameBefore_thenReportUnreadableCsv() {
+        String unclosed = "\"" + "x".repeat(CsvRecordReader.MAX_RECORD_CHARS);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                importService.importUsers(upload("username,email,name,roles\n"
+                        + "alice,alice@example.com,Alice,USER\n"
+                        + "bob,bob@example.com," + unclosed), Format.CSV));
+
+        assertTrue(e.getMessage().startsWith("CSV record at line 3"), e.getMessage());
+        assertTrue(e.getMessage().endsWith("(1 users before it were created)"), e.getMessage());
+        verify(bulk).insert(anyList());
+    }
+
+    @Test
+    void importUsers_shouldRejectCsvWithoutRequiredColumns() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                importService.importUsers(upload("username,email\nalice,alice@example.com\n"), Format.CSV));
+
+        assertTrue(e.getMessage().contains("[name, roles]"), e.getMessage());
+        verifyNoInteractions(bulk);
+    }
+
+    @Test
+    void importUsers_shouldStopEveryStage_whenTheWriterFails() {
+        when(bulk.execute()).thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            body.append("{\"username\": \"u").append(i).append("\", \"email\": \"u").append(i)
+                    .append("@example.com\", \"name\": \"U\", \"roles\": [\"USER\"]}\n");
+        }
+
+        // Queues of one record: without failure propagation the parser would block forever once the writer died
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            DataAccessResourceFailureException e = assertThrows(DataAccessResourceFailureException.class, () ->
+                    importService.importUsers(upload(body.toString()), Format.NDJSON));
+            assertEquals("Mongo is down", e.getMessage());
+        });
+        verify(bulk, times(1)).execute();
+    }
+}
@@ -4,13 +4,12 @@ import com.complyance.Data_Governance_Service.TestLogger;
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
 import com.complyance.Data_Governance_Service.model.UserPreference;
-import com.complyance.Data_Governance_Service.model.UserProfile;
 import com.complyance.Data_Governance_Service.repository.UserPreferenceRepository;
-import com.complyance.Data_Governance_Service.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
 import java.time.Instant;
 import java.util.Optional;
 
@@ -21,7 +20,8 @@ import static org.mockito.Mockito.*;
 class UserPreferenceServiceTest {
 
     @Mock private UserPreferenceRepository prefRepo;
-    @Mock private UserRepository userRepo;
+    @Mock private LiveUserIndex liveUsers;
+    @Spy private PreferenceCache cache = new PreferenceCache(100, 60);
     @InjectMocks private UserPreferenceService prefService;
 
     @BeforeEach
@@ -32,79 +32,73 @@ class UserPreferenceServiceTest {
     // ---------- updatePreferences() ----------
 
     @Test
-    void updatePreferences_shouldCreateNew_whenNoExistingPref() {
-        UserProfile user = UserProfile.builder().id("u1").deleted(false).build();
-        UserPreference newPref = UserPreference.builder()
+    void updatePreferences_shouldUpsertInOneCall_whenUserActive() {
+        UserPreference values = UserPreference.builder()
                 .theme("dark").language("en").notificationsEnabled(true).build();
+        UserPreference stored = UserPreference.builder()
+                .userId("u1").theme("dark").language("en").notificationsEnabled(true).build();
 
-        when(userRepo.findById("u1")).thenReturn(Optional.of(user));
-        when(prefRepo.findByUserId("u1")).thenReturn(Optional.empty());
-        when(prefRepo.save(any(UserPreference.class))).thenAnswer(i -> i.getArgument(0));
-
-        UserPreference saved = prefService.updatePreferences("u1", newPref);
-
-        assertEquals("u1", saved.getUserId());
-        assertEquals("dark", saved.getTheme());
-        assertNotNull(saved.getCreatedAt());
-        assertNotNull(saved.getUpdatedAt());
-        verify(prefRepo).save(any(UserPreference.class));
-    }
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
+        when(prefRepo.upsertLive(eq("u1"), same(values), any(Instant.class))).thenReturn(stored);
 
-    @Test
-    void updatePreferences_shouldUpdateExisting_whenActivePref() {
-        UserProfile user = UserProfile.builder().id("u1").deleted(false).build();
-        UserPreference existing = UserPreference.builder()
-                .userId("u1").theme("light").language("fr").deleted(false).build();
-
-        UserPreference update = UserPreference.builder()
-                .theme("dark").language("en").notificationsEnabled(true).build();
+        UserPreference result = prefService.updatePreferences("u1", values);
 
-        when(userRepo.findById("u1")).thenReturn(Optional.of(user));
-        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(existing));
-        when(prefRepo.save(any(UserPreference.class))).thenAnswer(i -> i.getArgument(0));
-
-        UserPreference result = prefService.updatePreferences("u1", update);
-
-        assertEquals("dark", result.getTheme());
-        assertEquals("en", result.getLanguage());
-        assertTrue(result.isNotificationsEnabled());
-        assertNotNull(result.getUpdatedAt());
-        verify(prefRepo).save(existing);
+        assertSame(stored, result);
+        verify(prefRepo, never()).findByUserId(anyString());
+        verify(prefRepo, never()).save(any());
     }
 
     @Test
     void updatePreferences_shouldThrowNotFound_whenUserMissing() {
-        when(userRepo.findById("nope")).thenReturn(Optional.empty());
+        when(liveUsers.confirm("nope")).thenReturn(LiveUserIndex.Membership.ABSENT);
         assertThrows(NotFoundException.class, () ->
                 prefService.updatePreferences("nope", new UserPreference()));
+        verify(prefRepo, never()).upsertLive(anyString(), any(), any());
     }
 
     @Test
     void updatePreferences_shouldThrowForbidden_whenUserDeleted() {
-        UserProfile deletedUser = UserProfile.builder().id("u1").deleted(true).build();
-        when(userRepo.findById("u1")).thenReturn(Optional.of(deletedUser));
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.DELETED);
 
         assertThrows(ForbiddenException.class, () ->
                 prefService.updatePreferences("u1", new UserPreference()));
+        verify(prefRepo, never()).upsertLive(anyString(), any(), any());
     }
 
     @Test
     void updatePreferences_shouldThrowForbidden_whenPrefDeleted() {
-        UserProfile user = UserProfile.builder().id("u1").deleted(false).build();
-        UserPreference deletedPref = UserPreference.builder().userId("u1").deleted(true).build();
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
+        when(prefRepo.upsertLive(eq("u1"), any(), any(Instant.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error index: userId"));
 
-        when(userRepo.findById("u1")).thenReturn(Optional.of(user));
-        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(deletedPref));
+        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(UserPreference.builder()
+                .userId("u1").deleted(true).build()));
 
         assertThrows(ForbiddenException.class, () ->
                 prefService.updatePreferences("u1", new UserPreference()));
+        verify(prefRepo, times(1)).upsertLive(anyString(), any(), any());
+    }
+
+    @Test
+    void updatePreferences_shouldRetryOnce_whenConcurrentFirstWriteWonTheInsert() {
+        UserPreference values = UserPreference.builder().theme("dark").build();
+        UserPreference stored = UserPreference.builder().userId("u1").theme("dark").build();
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
+        when(prefRepo.upsertLive(eq("u1"), same(values), any(Instant.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error index: userId"))
+                .thenReturn(stored);
+        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(UserPreference.builder()
+                .userId("u1").theme("light").build()));
+
+        assertSame(stored, prefService.updatePreferences("u1", values));
+        verify(prefRepo, times(2)).upsertLive(eq("u1"), same(values), any(Instant.class));
     }
 
     // ---------- getPreferences() ----------
 
     @Test
     void getPreferences_shouldReturnActivePrefs_whenExists() {
-        when(userRepo.existsById("u1")).thenReturn(true);
+        when(liveUsers.exists("u1")).thenReturn(true);
         UserPreference pref = UserPreference.builder()
                 .userId("u1").deleted(false).theme("dark").build();
 
@@ -116,14 +110,14 @@ class UserPreferenceServiceTest {
 
     @Test
     void getPreferences_shouldThrowNotFound_whenUserMissing() {
-        when(userRepo.existsById("nope")).thenReturn(false);
+        when(liveUsers.exists("nope")).thenReturn(false);
         assertThrows(NotFoundException.class, () ->
                 prefService.getPreferences("nope"));
     }
 
     @Test
     void getPreferences_shouldThrowNotFound_whenPrefMissing() {
-        when(userRepo.existsById("u1")).thenReturn(true);
+        when(liveUsers.exists("u1")).thenReturn(true);
         when(prefRepo.findByUserId("u1")).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->
@@ -132,7 +126,7 @@ class UserPreferenceServiceTest {
 
     @Test
     void getPreferences_shouldThrowForbidden_whenPrefDeleted() {
-        when(userRepo.existsById("u1")).thenReturn(true);
+        when(liveUsers.exists("u1")).thenReturn(true);
         UserPreference pref = UserPreference.builder().userId("u1").deleted(true).build();
         when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(pref));
 
@@ -140,6 +134,47 @@ class UserPreferenceServiceTest {
                 prefService.getPreferences("u1"));
     }
 
+    @Test
+    void getPreferences_shouldServeRepeatReadsFromCache() {
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(
+                UserPreference.builder().userId("u1").deleted(false).theme("dark").build()));
+
+        prefService.getPreferences("u1");
+        UserPreference second = prefService.getPreferences("u1");
+
+        assertEquals("dark", second.getTheme());
+        verify(liveUsers, times(1)).exists("u1");
+        verify(prefRepo, times(1)).findByUserId("u1");
+        assertEquals(1L, cache.stats().get("hits"));
+    }
+
+    @Test
+    void getPreferences_shouldNotCacheFailures() {
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(prefRepo.findByUserId("u1")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> prefService.getPreferences("u1"));
+        assertThrows(NotFoundException.class, () -> prefService.getPreferences("u1"));
+
+        verify(prefRepo, times(2)).findByUserId("u1");
+    }
+
+    @Test
+    void updatePreferences_shouldInvalidateCachedEntry() {
+        when(liveUsers.exists("u1")).thenReturn(true);
+        when(liveUsers.confirm("u1")).thenReturn(LiveUserIndex.Membership.LIVE);
+        when(prefRepo.findByUserId("u1")).thenReturn(Optional.of(
+                UserPreference.builder().userId("u1").deleted(false).theme("light").build()));
+        prefService.getPreferences("u1");
+
+        prefService.updatePreferences("u1", UserPreference.builder().theme("dark").build());
+        prefService.getPreferences("u1");
+
+        verify(cache).invalidate("u1");
+        verify(prefRepo, times(2)).findByUserId("u1");
+    }
+
     // ---------- softDeletePreferences() ----------
 
     @Test
@@ -154,6 +189,7 @@ class UserPreferenceServiceTest {
         assertTrue(pref.isDeleted());
         assertNotNull(pref.getDeletedAt());
         verify(prefRepo).save(pref);
+        verify(cache).invalidate("u1");
     }
 
     @Test
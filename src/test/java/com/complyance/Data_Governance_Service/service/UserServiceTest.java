@@ -4,8 +4,11 @@ import com.complyance.Data_Governance_Service.TestLogger;
 import com.complyance.Data_Governance_Service.exception.ConflictException;
 import com.complyance.Data_Governance_Service.exception.ForbiddenException;
 import com.complyance.Data_Governance_Service.exception.NotFoundException;
-import com.complyance.Data_Governance_Service.model.AuditEntry;
+import com.complyance.Data_Governance_Service.model.CascadeJob;
+import com.complyance.Data_Governance_Service.model.ContinuationToken;
+import com.complyance.Data_Governance_Service.model.KeysetPage;
 import com.complyance.Data_Governance_Service.model.UserProfile;
+import com.complyance.Data_Governance_Service.model.UserSummary;
 import com.complyance.Data_Governance_Service.model.UserPreference;
 import com.complyance.Data_Governance_Service.model.Post;
 import com.complyance.Data_Governance_Service.repository.PostRepository;
@@ -14,11 +17,15 @@ import com.complyance.Data_Governance_Service.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.bson.Document;
 import org.mockito.*;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,6 +36,10 @@ class UserServiceTest {
     @Mock private UserRepository userRepo;
     @Mock private UserPreferenceRepository prefRepo;
     @Mock private PostRepository postRepo;
+    @Mock private CascadeJobService jobService;
+    @Mock private AuditService auditService;
+    @Mock private PreferenceCache preferenceCache;
+    @Mock private LiveUserIndex liveUsers;
     @InjectMocks private UserService userService;
 
     @BeforeEach
@@ -39,32 +50,40 @@ class UserServiceTest {
     }
 
     @Test
-    void createUser_shouldSaveNewUser_whenUsernameUnique() {
+    void createUser_shouldInsertInOneRoundTrip() {
         UserProfile user = UserProfile.builder()
                 .username("john")
+                .version(7L)
                 .build();
 
-        when(userRepo.existsByUsername("john")).thenReturn(false);
-        when(userRepo.save(any(UserProfile.class))).thenAnswer(i -> i.getArgument(0));
+        when(userRepo.save(any(UserProfile.class))).thenAnswer(i -> {
+            UserProfile u = i.getArgument(0);
+            u.setId("u1");
+            return u;
+        });
 
         UserProfile saved = userService.createUser(user);
 
         assertNotNull(saved.getCreatedAt());
         assertNotNull(saved.getUpdatedAt());
+        assertNull(saved.getVersion());
         assertEquals("john", saved.getUsername());
-        assertTrue(saved.getAuditTrail().stream().anyMatch(a -> a.getAction().equals("CREATE")));
+        verify(auditService).record(eq("u1"), eq("CREATE"), anyString());
+        verify(liveUsers).record("u1", false);
         verify(userRepo).save(any(UserProfile.class));
+        verifyNoMoreInteractions(userRepo);
     }
 
     @Test
-    void createUser_shouldThrowConflict_whenUsernameExists() {
+    void createUser_shouldPropagateDuplicateKey_withoutAuditing() {
         UserProfile user = new UserProfile();
         user.setUsername("john");
 
-        when(userRepo.existsByUsername("john")).thenReturn(true);
+        when(userRepo.save(any(UserProfile.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key error index: username_ci_unique"));
 
-        assertThrows(ConflictException.class, () -> userService.createUser(user));
-        verify(userRepo, never()).save(any());
+        assertThrows(DuplicateKeyException.class, () -> userService.createUser(user));
+        verify(auditService, never()).record(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -86,92 +105,256 @@ class UserServiceTest {
         assertThrows(NotFoundException.class, () -> userService.getUser("123"));
     }
 
+    @Test
+    void getUsersAfter_shouldReturnTokenForLastItem_whenMoreAvailable() {
+        Instant t1 = Instant.parse("2025-01-01T00:00:00Z");
+        Instant t2 = Instant.parse("2025-01-02T00:00:00Z");
+        Instant t3 = Instant.parse("2025-01-03T00:00:00Z");
+        List<UserSummary> fetched = List.of(
+                UserSummary.builder().id("a").createdAt(t1).build(),
+                UserSummary.builder().id("b").createdAt(t2).build(),
+                UserSummary.builder().id("c").createdAt(t3).build());
+        when(userRepo.findActiveAfter("createdAt", false, null, 3)).thenReturn(fetched);
+
+        KeysetPage<UserSummary> page = userService.getUsersAfter(null, 2, "createdAt", "asc", false);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getTotalItems());
+        verify(userRepo, never()).countActive();
+
+        ContinuationToken next = ContinuationToken.decode(page.getNextToken());
+        assertEquals("createdAt", next.getSortField());
+        assertEquals("b", next.getLastId());
+        assertEquals(t2, next.getLastValue());
+    }
+
+    @Test
+    void getUsersAfter_shouldSeekWithTokenSort_andCountOnlyWhenAsked() {
+        String token = new ContinuationToken("username", true, "b", "bob").encode();
+        when(userRepo.findActiveAfter(eq("username"), eq(true), any(ContinuationToken.class), eq(11)))
+                .thenReturn(List.of(UserSummary.builder().id("a").username("alice").build()));
+        when(userRepo.countActive()).thenReturn(42L);
+
+        // sortBy/direction are ignored once a token is supplied
+        KeysetPage<UserSummary> page = userService.getUsersAfter(token, 10, "createdAt", "asc", true);
+
+        assertNull(page.getNextToken());
+        assertEquals(42L, page.getTotalItems());
+        ArgumentCaptor<ContinuationToken> seek = ArgumentCaptor.forClass(ContinuationToken.class);
+        verify(userRepo).findActiveAfter(eq("username"), eq(true), seek.capture(), eq(11));
+        assertEquals("bob", seek.getValue().getLastValue());
+    }
+
+    @Test
+    void getUsersAfter_shouldRejectMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () ->
+                userService.getUsersAfter("not-a-token", 10, "createdAt", "asc", false));
+    }
+
+    @Test
+    void getUsersAfter_shouldRejectUnsupportedSortField() {
+        assertThrows(IllegalArgumentException.class, () ->
+                userService.getUsersAfter(null, 10, "email", "asc", false));
+    }
+
+    @Test
+    void streamActiveUsers_shouldUseDeletedFilteredCursor() {
+        UserProfile live = UserProfile.builder().id("1").deleted(false).build();
+        when(userRepo.streamAllByDeletedFalseOrderByCreatedAtAsc()).thenReturn(Stream.of(live));
+
+        try (Stream<UserProfile> users = userService.streamActiveUsers()) {
+            assertEquals(List.of(live), users.toList());
+        }
+        verify(userRepo, never()).findAll();
+    }
+
     @Test
     void softDeleteUser_shouldCascadeDeletePostsAndPrefs() {
         UserProfile user = UserProfile.builder()
                 .id("1")
                 .deleted(false)
-                .auditTrail(new ArrayList<>())
                 .build();
 
-        Post p1 = new Post(); p1.setId("p1"); p1.setDeleted(false);
-        Post p2 = new Post(); p2.setId("p2"); p2.setDeleted(false);
+        when(userRepo.findByIdAndDeletedFalse("1")).thenReturn(Optional.of(user));
+        when(prefRepo.softDeleteByUserId(eq("1"), any(Instant.class))).thenReturn(1L);
+        when(jobService.enqueue(eq("1"), eq(CascadeJob.Type.SOFT_DELETE), any(Instant.class)))
+                .thenReturn(CascadeJob.builder().id("job1").build());
+
+        CascadeJob job = userService.softDeleteUser("1");
+
+        // User flagged with a targeted update rather than a full-document save
+        ArgumentCaptor<Instant> deletedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(userRepo).markDeleted(eq("1"), deletedAt.capture());
+        assertEquals("job1", job.getId());
+
+        // Pref soft-deleted inline, posts handed to a background job stamped with the same deletedAt
+        verify(prefRepo).softDeleteByUserId("1", deletedAt.getValue());
+        verify(preferenceCache).invalidate("1");
+        verify(liveUsers).record("1", true);
+        verify(jobService).enqueue("1", CascadeJob.Type.SOFT_DELETE, deletedAt.getValue());
+        verify(postRepo, never()).save(any(Post.class));
+        verify(postRepo, never()).findByUserIdAndDeletedFalse(anyString());
+
+        verify(auditService).record(eq("1"), eq("SOFT_DELETE"), contains("job1"));
+        verify(userRepo, never()).save(any());
+    }
 
-        UserPreference pref = new UserPreference();
-        pref.setUserId("1");
-        pref.setDeleted(false);
+    @Test
+    void softDeleteUser_shouldNotTouchUser_whenCascadeAlreadyRunning() {
+        UserProfile user = UserProfile.builder().id("1").deleted(false).build();
 
         when(userRepo.findByIdAndDeletedFalse("1")).thenReturn(Optional.of(user));
-        when(postRepo.findByUserIdAndDeletedFalse("1")).thenReturn(List.of(p1, p2));
-        when(prefRepo.findByUserId("1")).thenReturn(Optional.of(pref));
+        when(jobService.enqueue(eq("1"), any(), any())).thenThrow(new ConflictException("busy"));
+
+        assertThrows(ConflictException.class, () -> userService.softDeleteUser("1"));
+        verify(userRepo, never()).markDeleted(anyString(), any());
+        verify(prefRepo, never()).softDeleteByUserId(anyString(), any());
+    }
+
+    @Test
+    void restoreUser_shouldRestorePrefsAndQueuePosts_whenWithinGracePeriod() {
+        UserProfile user = UserProfile.builder()
+                .id("1")
+                .deleted(true)
+                .deletedAt(Instant.now().minusSeconds(3600))
+                .build();
+
+        when(userRepo.findById("1")).thenReturn(Optional.of(user));
+        when(prefRepo.restoreByUserId(eq("1"), any(Instant.class))).thenReturn(1L);
+        when(jobService.enqueue(eq("1"), eq(CascadeJob.Type.RESTORE), any(Instant.class)))
+                .thenReturn(CascadeJob.builder().id("job2").build());
 
-        userService.softDeleteUser("1");
+        CascadeJob job = userService.restoreUser("1");
 
-        // User soft-deleted
-        assertTrue(user.isDeleted());
-        assertNotNull(user.getDeletedAt());
+        assertEquals("job2", job.getId());
+        verify(prefRepo).restoreByUserId(eq("1"), any(Instant.class));
+        verify(preferenceCache).invalidate("1");
+        verify(postRepo, never()).save(any(Post.class));
+        verify(userRepo).markRestored(eq("1"), any(Instant.class));
+        verify(liveUsers).record("1", false);
+        verify(userRepo, never()).save(any());
+        verify(auditService).record(eq("1"), eq("RESTORE"), contains("job2"));
+    }
 
-        // Posts soft-deleted
-        verify(postRepo, times(2)).save(any(Post.class));
+    @Test
+    void restoreUser_shouldThrowForbidden_whenGracePeriodExpired() {
+        UserProfile user = UserProfile.builder()
+                .id("1")
+                .deleted(true)
+                .deletedAt(Instant.now().minusSeconds(25 * 3600))
+                .build();
 
-        // Pref soft-deleted
-        verify(prefRepo).save(pref);
+        when(userRepo.findById("1")).thenReturn(Optional.of(user));
 
-        // User saved
-        verify(userRepo).save(user);
+        assertThrows(ForbiddenException.class, () -> userService.restoreUser("1"));
+        verify(jobService, never()).enqueue(anyString(), any(), any());
     }
 
     @Test
-    void updateUser_shouldUpdateFieldsAndAudit() {
+    void updateUser_shouldSetOnlyAllowedFieldsAndAudit() {
         UserProfile existing = UserProfile.builder()
                 .id("1")
+                .username("john")
                 .deleted(false)
                 .name("Old")
                 .email("old@test.com")
-                .auditTrail(new ArrayList<>())
+                .version(3L)
                 .build();
 
         UserProfile update = UserProfile.builder()
+                .username("ignored")
                 .name("New")
                 .email("new@test.com")
                 .roles(List.of("ADMIN"))
                 .build();
 
-        when(userRepo.findByIdAndDeletedFalse("1")).thenReturn(Optional.of(existing));
-        when(userRepo.save(any(UserProfile.class))).thenAnswer(i -> i.getArgument(0));
+        when(userRepo.updateLive(eq("1"), isNull(), any(Update.class))).thenReturn(Optional.of(existing));
 
         UserProfile result = userService.updateUser("1", update);
 
         assertEquals("New", result.getName());
         assertEquals("new@test.com", result.getEmail());
-        assertTrue(result.getAuditTrail().stream().anyMatch(a -> a.getAction().equals("UPDATE")));
-        verify(userRepo).save(existing);
+        assertEquals("john", result.getUsername());
+        assertEquals(4L, result.getVersion());
+
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(userRepo).updateLive(eq("1"), isNull(), captor.capture());
+        Document set = captor.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("updatedAt", "name", "email", "roles"), set.keySet());
+
+        verify(auditService).record("1", "UPDATE", "User profile updated");
+        verify(userRepo, never()).save(any());
     }
 
     @Test
     void updateUser_shouldThrowNotFound_whenDeletedOrMissing() {
-        when(userRepo.findByIdAndDeletedFalse("x")).thenReturn(Optional.empty());
+        when(userRepo.updateLive(eq("x"), isNull(), any(Update.class))).thenReturn(Optional.empty());
         assertThrows(NotFoundException.class, () -> userService.updateUser("x", new UserProfile()));
+        verify(userRepo, never()).existsByIdAndDeletedFalse(anyString());
     }
 
     @Test
-    void purgeUser_shouldDeleteAllAssociated_whenAfterGracePeriod() {
+    void patchUser_shouldAuditOnlyFieldsThatChanged() {
+        UserProfile existing = UserProfile.builder()
+                .id("1").username("john").name("John").email("j@test.com").status("ACTIVE").version(0L).build();
+        UserProfile patch = new UserProfile();
+        patch.setName("John");
+        patch.setEmail("john@test.com");
+        patch.setVersion(0L);
+
+        when(userRepo.updateLive(eq("1"), eq(0L), any(Update.class))).thenReturn(Optional.of(existing));
+
+        UserProfile result = userService.patchUser("1", patch);
+
+        assertEquals("john@test.com", result.getEmail());
+        assertEquals(1L, result.getVersion());
+        verify(auditService).record("1", "PATCH_UPDATE", "Updated fields: email");
+    }
+
+    @Test
+    void patchUser_shouldThrowConflict_whenVersionIsStale() {
+        UserProfile patch = new UserProfile();
+        patch.setName("New");
+        patch.setVersion(2L);
+
+        when(userRepo.updateLive(eq("1"), eq(2L), any(Update.class))).thenReturn(Optional.empty());
+        when(userRepo.existsByIdAndDeletedFalse("1")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> userService.patchUser("1", patch));
+        verify(auditService, never()).record(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void patchUser_shouldThrowNotFound_whenVersionedUserIsGone() {
+        UserProfile patch = new UserProfile();
+        patch.setVersion(2L);
+
+        when(userRepo.updateLive(eq("1"), eq(2L), any(Update.class))).thenReturn(Optional.empty());
+        when(userRepo.existsByIdAndDeletedFalse("1")).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.patchUser("1", patch));
+    }
+
+    @Test
+    void purgeUser_shouldQueuePurgeJob_whenAfterGracePeriod() {
         Instant deletedAt = Instant.now().minusSeconds(25 * 3600); // 25h ago
         UserProfile user = UserProfile.builder()
                 .id("u1")
                 .deleted(true)
                 .deletedAt(deletedAt)
-                .auditTrail(new ArrayList<>())
                 .build();
 
         when(userRepo.findById("u1")).thenReturn(Optional.of(user));
+        when(jobService.enqueue(eq("u1"), eq(CascadeJob.Type.PURGE), any(Instant.class)))
+                .thenReturn(CascadeJob.builder().id("job3").build());
 
-        userService.purgeUser("u1");
+        CascadeJob job = userService.purgeUser("u1");
 
-        verify(prefRepo).deleteByUserId("u1");
-        verify(postRepo).deleteByUserId("u1");
-        verify(userRepo).deleteById("u1");
-        assertTrue(user.getAuditTrail().stream().anyMatch(a -> a.getAction().equals("HARD_DELETE")));
+        // Deletion itself happens in the purge job
+        assertEquals("job3", job.getId());
+        verify(jobService).enqueue(eq("u1"), eq(CascadeJob.Type.PURGE), any(Instant.class));
+        verify(userRepo, never()).deleteById(any());
+        verify(auditService).record(eq("u1"), eq("HARD_DELETE"), contains("job3"));
     }
 
     @Test
@@ -200,6 +383,7 @@ class UserServiceTest {
 
         assertThrows(ForbiddenException.class, () -> userService.purgeUser("u1"));
         verify(userRepo, never()).deleteById(any());
+        verify(jobService, never()).enqueue(anyString(), any(), any());
     }
 
     @Test